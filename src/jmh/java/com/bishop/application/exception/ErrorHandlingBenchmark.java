@@ -0,0 +1,211 @@
+package com.bishop.application.exception;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.JsonCodecService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.impl.JsonCodecServiceImpl;
+import com.bishop.application.service.impl.TransactionMetricsServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Error path of a transaction request during a downstream outage, from the failure being raised to the encoded
+ * channel response. Every request takes this path while the downstream is down, so throughput and allocation
+ * per failed request (run with -prof gc, the profile default) are what matter.
+ * <ul>
+ *     <li>typed*: a stackless CustomException carrying an ErrorKind, passed through unchanged and handled by the
+ *     real GlobalExceptionHandler. Once the breaker opens, every request gets the constant CIRCUIT_OPEN error and
+ *     its precomputed body.</li>
+ *     <li>legacy*: the previous "code|message" model, rebuilt here for comparison: a stack-traced exception from
+ *     the adapter, wrapped again with a new stack trace by the controller, then split back apart into a HashMap,
+ *     parsed and encoded per request.</li>
+ * </ul>
+ * The failure is raised below extra frames standing in for the servlet, filter and Spring proxy frames of a real
+ * request, because filling in a stack trace costs in proportion to its depth. Handler logging is switched off so
+ * that log output does not dominate; the status update hand-off is a no-op in both paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ErrorHandlingBenchmark {
+
+    private static final String CONNECT_FAILURE = "Connect to downstream.example:443 failed: Connection refused";
+    private static final String LEGACY_HTTP_ERROR = "400|Internal Error: HTTP Call To The URL Was Unsuccessful. ";
+    private static final String LEGACY_CIRCUIT_OPEN_ERROR = "503|Downstream Unavailable: Circuit breaker is open, the request was not sent. ";
+
+    @Param({"0", "100"})
+    public int extraFrames;
+
+    private GlobalExceptionHandler handler;
+    private JsonCodecService jsonCodecService;
+    private TransactionMetricsService transactionMetricsService;
+    private WebRequest webRequest;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.WARN);
+
+        jsonCodecService = new JsonCodecServiceImpl(new ObjectMapper());
+        transactionMetricsService = new TransactionMetricsServiceImpl(new SimpleMeterRegistry());
+        handler = new GlobalExceptionHandler(jsonCodecService, (rrn, response, type) -> { }, transactionMetricsService);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("rrn", "123456789012");
+        request.setAttribute("type", TransactionType.CREDIT_TRANSFER);
+        webRequest = new ServletWebRequest(request);
+    }
+
+    // Connection refused on every call, before the breaker has opened
+    @Benchmark
+    public ResponseEntity<byte[]> typedConnectFailure() {
+        try {
+            return below(extraFrames, () -> typedController(() -> {
+                throw new CustomException(ErrorKind.HTTP_CALL_FAILED, CONNECT_FAILURE);
+            }));
+        } catch (CustomException e) {
+            return handler.handleCustomExceptions(e, webRequest);
+        }
+    }
+
+    // Breaker open: the constant error, answered from the precomputed body
+    @Benchmark
+    public ResponseEntity<byte[]> typedCircuitOpen() {
+        try {
+            return below(extraFrames, () -> typedController(() -> {
+                throw new CustomException(ErrorKind.CIRCUIT_OPEN);
+            }));
+        } catch (CustomException e) {
+            return handler.handleCustomExceptions(e, webRequest);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> legacyConnectFailure() {
+        try {
+            return below(extraFrames, () -> legacyController(() -> {
+                throw new LegacyException(LEGACY_HTTP_ERROR + CONNECT_FAILURE);
+            }));
+        } catch (LegacyException e) {
+            return legacyHandle(e);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> legacyCircuitOpen() {
+        try {
+            return below(extraFrames, () -> legacyController(() -> {
+                throw new LegacyException(LEGACY_CIRCUIT_OPEN_ERROR);
+            }));
+        } catch (LegacyException e) {
+            return legacyHandle(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call<E extends Exception> {
+        ResponseEntity<byte[]> run() throws E;
+    }
+
+    private static <E extends Exception> ResponseEntity<byte[]> below(int depth, Call<E> call) throws E {
+        if (depth > 0) {
+            return below(depth - 1, call);
+        }
+        return call.run();
+    }
+
+    // TransactionController today: a typed failure passes through unchanged
+    private static ResponseEntity<byte[]> typedController(Call<CustomException> adapter) throws CustomException {
+        try {
+            return adapter.run();
+        } catch (CustomException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CustomException(ErrorKind.PROCESSING_FAILURE);
+        }
+    }
+
+    // TransactionController before: every failure was wrapped again, capturing a second stack trace
+    private static ResponseEntity<byte[]> legacyController(Call<LegacyException> adapter) throws LegacyException {
+        try {
+            return adapter.run();
+        } catch (Exception e) {
+            throw new LegacyException(e.getMessage());
+        }
+    }
+
+    // GlobalExceptionHandler before the typed model, minus its logging
+    private ResponseEntity<byte[]> legacyHandle(LegacyException e) {
+        String exceptionMessage = e.getMessage();
+        TransactionType type = (TransactionType) webRequest.getAttribute("type", WebRequest.SCOPE_REQUEST);
+
+        Map<String, String> errorMap = legacyErrorDesc(exceptionMessage);
+        String errorMessage = errorMap.getOrDefault("message", "An unexpected error occurred");
+        String httpStatusCode = errorMap.getOrDefault("code", "400");
+        if ("0".equals(httpStatusCode) || httpStatusCode.isBlank()) {
+            httpStatusCode = "400";
+        }
+        if (Integer.parseInt(httpStatusCode) < 100 || Integer.parseInt(httpStatusCode) > 599) {
+            httpStatusCode = "400";
+        }
+
+        boolean timedOut = errorMessage.contains("timeout") || errorMessage.contains("time out") || errorMessage.contains("timed out");
+        TransactionResponse response = new TransactionResponse();
+        response.setStatus(timedOut ? "TIMEOUT" : "FAILURE");
+        response.setStatusCode(timedOut ? "-3" : "01");
+        response.setStatusDesc(errorMessage);
+
+        transactionMetricsService.recordOutcome(type, Integer.parseInt(httpStatusCode));
+        EncodedJson encodedResponse = jsonCodecService.encode(response);
+        return ResponseEntity.status(HttpStatus.valueOf(Integer.parseInt(httpStatusCode)))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(encodedResponse.getBytes());
+    }
+
+    private static Map<String, String> legacyErrorDesc(String errorMessage) {
+        Map<String, String> errorMap = new HashMap<>();
+        String[] parts = errorMessage.split("\\|", 2);
+        if (parts.length == 2) {
+            errorMap.put("code", parts[0]);
+            errorMap.put("message", parts[1]);
+        } else {
+            errorMap.put("code", "400");
+            errorMap.put("message", "Internal Error: Could not process the request");
+        }
+        return errorMap;
+    }
+
+    // The previous CustomException: a plain checked exception with a full stack trace
+    private static final class LegacyException extends Exception {
+        private LegacyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.bishop.application.jmh;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import com.bishop.application.config.formatter.CRLFLogConverter;
+import com.bishop.application.config.formatter.CustomLogColorHighlighter;
+import com.bishop.application.config.formatter.JsonLogLayout;
+import com.bishop.application.config.formatter.MeteredAsyncAppender;
+import com.bishop.application.dto.EncodedJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging cost on the request thread for one transaction (the seven INFO lines the happy path writes):
+ * the default synchronous ANSI pattern, the JSON layout written synchronously, and the prod async JSON
+ * appender, all writing to a scratch file. Also compares the CRLF sanitizer against the previous per-event regex,
+ * and measures the converter's full transform (marker and logger checks included) on clean and dirty messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LoggingBenchmark {
+
+    private static final String RRN = "TX99887766";
+    private static final String TYPE = "CREDIT_TRANSFER";
+    private static final EncodedJson REQUEST = new EncodedJson(("{\"rrn\":\"TX99887766\",\"transactionType\":\"CREDIT-TRANSFER\","
+            + "\"senderName\":\"John Doe\",\"receiverName\":\"Jane Smith\",\"amount\":1500.00,\"currency\":\"KES\",\"channelId\":\"OMNI\"}")
+            .getBytes(StandardCharsets.UTF_8));
+    private static final EncodedJson RESPONSE = new EncodedJson(("{\"rrn\":\"TX99887766\",\"status\":\"SUCCESS\",\"statusCode\":\"00\","
+            + "\"statusDesc\":\"Transaction completed successfully\",\"tranId\":\"FT24123ABC\"}").getBytes(StandardCharsets.UTF_8));
+    private static final String CLEAN_MESSAGE = RRN + ": Returned " + TYPE + " Response To Channel: " + RESPONSE;
+    private static final String DIRTY_MESSAGE = RRN + ": Received " + TYPE + " Request From Channel: {\"senderName\":\"John\r\nDoe\"}";
+
+    private LoggerContext syncContext;
+    private LoggerContext jsonContext;
+    private LoggerContext asyncContext;
+    private Logger syncLogger;
+    private Logger jsonLogger;
+    private Logger asyncLogger;
+    private File syncFile;
+    private File jsonFile;
+    private File asyncFile;
+    private ExposedCRLFLogConverter crlfConverter;
+    private LoggingEvent crlfEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        syncFile = File.createTempFile("logging-benchmark-sync", ".log");
+        jsonFile = File.createTempFile("logging-benchmark-json", ".log");
+        asyncFile = File.createTempFile("logging-benchmark-async", ".log");
+
+        syncContext = newContext();
+        Map<String, String> rules = new HashMap<>();
+        rules.put("myCustomHighlighting", CustomLogColorHighlighter.class.getName());
+        rules.put("crlf", CRLFLogConverter.class.getName());
+        syncContext.putObject(CoreConstants.PATTERN_RULE_REGISTRY, rules);
+        PatternLayoutEncoder patternEncoder = new PatternLayoutEncoder();
+        patternEncoder.setContext(syncContext);
+        patternEncoder.setPattern("[%d{yyyy-MM-dd'T'HH:mm:ss.SSS}] [%myCustomHighlighting(%-5level)] %magenta([%thread]) [%blue(%logger{50})] %crlf(%msg)%n");
+        patternEncoder.start();
+        syncLogger = syncContext.getLogger("com.bishop.application.web.controller.TransactionController");
+        syncLogger.addAppender(fileAppender(syncContext, syncFile, patternEncoder));
+
+        jsonContext = newContext();
+        jsonLogger = jsonContext.getLogger("com.bishop.application.web.controller.TransactionController");
+        jsonLogger.addAppender(fileAppender(jsonContext, jsonFile, jsonEncoder(jsonContext)));
+
+        asyncContext = newContext();
+        MeteredAsyncAppender asyncAppender = new MeteredAsyncAppender();
+        asyncAppender.setContext(asyncContext);
+        asyncAppender.setQueueSize(8192);
+        // Block instead of dropping so the score reflects sustained cost rather than discarded events
+        asyncAppender.setNeverBlock(false);
+        asyncAppender.setDiscardingThreshold(0);
+        asyncAppender.addAppender(fileAppender(asyncContext, asyncFile, jsonEncoder(asyncContext)));
+        asyncAppender.start();
+        asyncLogger = asyncContext.getLogger("com.bishop.application.web.controller.TransactionController");
+        asyncLogger.addAppender(asyncAppender);
+
+        crlfConverter = new ExposedCRLFLogConverter();
+        crlfConverter.setContext(syncContext);
+        crlfConverter.start();
+        crlfEvent = new LoggingEvent(Logger.FQCN, syncLogger, ch.qos.logback.classic.Level.INFO, CLEAN_MESSAGE, null, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        syncContext.stop();
+        jsonContext.stop();
+        asyncContext.stop();
+        syncFile.delete();
+        jsonFile.delete();
+        asyncFile.delete();
+    }
+
+    @Benchmark
+    public void transactionSyncPattern() {
+        logTransaction(syncLogger);
+    }
+
+    @Benchmark
+    public void transactionSyncJson() {
+        logTransaction(jsonLogger);
+    }
+
+    @Benchmark
+    public void transactionAsyncJson() {
+        logTransaction(asyncLogger);
+    }
+
+    @Benchmark
+    public String sanitizeRegex() {
+        return CLEAN_MESSAGE.replaceAll("[\n\r\t]", "_");
+    }
+
+    @Benchmark
+    public String sanitizeScan() {
+        return CRLFLogConverter.sanitize(CLEAN_MESSAGE, "_");
+    }
+
+    @Benchmark
+    public String crlfTransformClean() {
+        return crlfConverter.transform(crlfEvent, CLEAN_MESSAGE);
+    }
+
+    @Benchmark
+    public String crlfTransformDirty() {
+        return crlfConverter.transform(crlfEvent, DIRTY_MESSAGE);
+    }
+
+    // transform is protected; the subclass only widens access
+    private static final class ExposedCRLFLogConverter extends CRLFLogConverter {
+        @Override
+        public String transform(ILoggingEvent event, String in) {
+            return super.transform(event, in);
+        }
+    }
+
+    // A context outside logback's own initialisation needs the MDC adapter set explicitly
+    private static LoggerContext newContext() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        context.start();
+        return context;
+    }
+
+    private static LayoutWrappingEncoder<ILoggingEvent> jsonEncoder(LoggerContext context) {
+        JsonLogLayout layout = new JsonLogLayout();
+        layout.setContext(context);
+        layout.start();
+        LayoutWrappingEncoder<ILoggingEvent> encoder = new LayoutWrappingEncoder<>();
+        encoder.setContext(context);
+        encoder.setLayout(layout);
+        encoder.start();
+        return encoder;
+    }
+
+    private static FileAppender<ILoggingEvent> fileAppender(LoggerContext context, File file, ch.qos.logback.core.encoder.Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(file.getAbsolutePath());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    // The INFO lines written for one successful transaction
+    private static void logTransaction(Logger logger) {
+        logger.info("{}: Received {} Request From Channel: {}", RRN, TYPE, REQUEST);
+        logger.info("{}: Checking transaction by RRN: {} and type: {}", RRN, RRN, TYPE);
+        logger.info("{}: Saving the initial credit transfer record in the database", RRN);
+        logger.info("{}: Sending {} Post HTTP Request Via: {}", RRN, TYPE, "https://downstream.example/api/v1/inbound/transaction");
+        logger.info("{}: HTTP Response: STATUS CODE: {}, STATUS MESSAGE: {}", RRN, 200, "OK");
+        logger.info("{}: Queueing Database Status Update For Record With RRN: {}", RRN, RRN);
+        logger.info("{}: Returned {} Response To Channel: {}", RRN, TYPE, RESPONSE);
+    }
+}
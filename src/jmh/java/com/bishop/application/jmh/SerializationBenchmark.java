@@ -0,0 +1,141 @@
+package com.bishop.application.jmh;
+
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.service.JsonCodecService;
+import com.bishop.application.service.impl.JsonCodecServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization work done for one transaction: log the request, send it downstream, log the response and
+ * write it back to the channel. The Gson variant reproduces the previous pretty-printed, four-encode pipeline.
+ * The single-object benchmarks compare compact Gson and Jackson on each DTO in both directions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    private Gson gson;
+    private Gson compactGson;
+    private JsonCodecService jsonCodecService;
+    private ObjectWriter jacksonWriter;
+    private ObjectReader requestReader;
+    private ObjectReader responseReader;
+    private TransactionRequest request;
+    private TransactionResponse response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+
+    @Setup
+    public void setUp() {
+        gson = new GsonBuilder().setPrettyPrinting().create();
+        compactGson = new Gson();
+        ObjectMapper objectMapper = new ObjectMapper();
+        jsonCodecService = new JsonCodecServiceImpl(objectMapper);
+        jacksonWriter = objectMapper.writer();
+        requestReader = objectMapper.readerFor(TransactionRequest.class);
+        responseReader = objectMapper.readerFor(TransactionResponse.class);
+
+        request = new TransactionRequest();
+        request.setRrn("TX99887766");
+        request.setTransactionType("CREDIT-TRANSFER");
+        request.setSenderName("John Doe");
+        request.setReceiverName("Jane Smith");
+        request.setAmount(new BigDecimal("1500.00"));
+        request.setCurrency("KES");
+        request.setChannelId("OMNI");
+
+        response = new TransactionResponse();
+        response.setRrn("TX99887766");
+        response.setStatus("SUCCESS");
+        response.setStatusCode("00");
+        response.setStatusDesc("Transaction completed successfully");
+        response.setTranId("FT24123ABC");
+
+        requestJson = compactGson.toJson(request).getBytes(StandardCharsets.UTF_8);
+        responseJson = compactGson.toJson(response).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void gsonPipeline(Blackhole blackhole) throws Exception {
+        blackhole.consume(gson.toJson(request));
+        blackhole.consume(new StringEntity(gson.toJson(request)));
+        blackhole.consume(gson.toJson(response));
+        blackhole.consume(gson.toJson(response).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void jacksonCodecPipeline(Blackhole blackhole) {
+        EncodedJson encodedRequest = jsonCodecService.encode(request);
+        blackhole.consume(encodedRequest.toString());
+        blackhole.consume(new ByteArrayEntity(encodedRequest.getBytes(), ContentType.APPLICATION_JSON));
+        EncodedJson encodedResponse = jsonCodecService.encode(response);
+        blackhole.consume(encodedResponse.toString());
+        blackhole.consume(encodedResponse.getBytes());
+    }
+
+    @Benchmark
+    public byte[] gsonWriteRequest() {
+        return compactGson.toJson(request).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jacksonWriteRequest() throws Exception {
+        return jacksonWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] gsonWriteResponse() {
+        return compactGson.toJson(response).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] jacksonWriteResponse() throws Exception {
+        return jacksonWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public TransactionRequest gsonReadRequest() {
+        return compactGson.fromJson(new String(requestJson, StandardCharsets.UTF_8), TransactionRequest.class);
+    }
+
+    @Benchmark
+    public TransactionRequest jacksonReadRequest() throws Exception {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public TransactionResponse gsonReadResponse() {
+        return compactGson.fromJson(new String(responseJson, StandardCharsets.UTF_8), TransactionResponse.class);
+    }
+
+    @Benchmark
+    public TransactionResponse jacksonReadResponse() throws Exception {
+        return responseReader.readValue(responseJson);
+    }
+}
@@ -0,0 +1,99 @@
+package com.bishop.application.jmh;
+
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.impl.RequestValidatorServiceImpl;
+import com.bishop.application.service.impl.TransactionMapperServiceImpl;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Work done on a request before the first database call: validation of TransactionRequest, for a clean request and
+ * one that breaks several constraints, and the mapping to the TransactionDetails entity that is inserted.
+ * validate* is Bean Validation of the annotated fields, as @Valid did in the controller; firstViolation* is the
+ * hand-specialized fast path of RequestValidatorServiceImpl that replaced it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TransactionMappingBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private RequestValidatorServiceImpl requestValidator;
+    private TransactionMapperServiceImpl mapper;
+    private TransactionRequest validRequest;
+    private TransactionRequest invalidRequest;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        requestValidator = new RequestValidatorServiceImpl(validator, true);
+        mapper = new TransactionMapperServiceImpl();
+
+        validRequest = request("TX99887766", "John Doe", new BigDecimal("1500.00"), "KES");
+        invalidRequest = request("TX#1", "John <Doe>", new BigDecimal("-1.005"), "kes");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TransactionRequest>> validateValid() {
+        return validator.validate(validRequest);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<TransactionRequest>> validateInvalid() {
+        return validator.validate(invalidRequest);
+    }
+
+    @Benchmark
+    public String firstViolationValid() {
+        return requestValidator.firstViolation(validRequest);
+    }
+
+    @Benchmark
+    public String firstViolationInvalid() {
+        return requestValidator.firstViolation(invalidRequest);
+    }
+
+    @Benchmark
+    public TransactionDetails mapRequestToEntity() {
+        return mapper.mapRequestToEntity(validRequest, TransactionType.CREDIT_TRANSFER);
+    }
+
+    private static TransactionRequest request(String rrn, String senderName, BigDecimal amount, String currency) {
+        TransactionRequest request = new TransactionRequest();
+        request.setRrn(rrn);
+        request.setTransactionType("CREDIT-TRANSFER");
+        request.setSenderName(senderName);
+        request.setReceiverName("Jane Smith");
+        request.setAmount(amount);
+        request.setCurrency(currency);
+        request.setChannelId("OMNI");
+        return request;
+    }
+}
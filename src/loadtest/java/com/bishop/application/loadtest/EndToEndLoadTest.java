@@ -0,0 +1,285 @@
+package com.bishop.application.loadtest;
+
+import com.bishop.application.Application;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of POST /api/v1/transaction: TransactionController, RequestProcessorServiceImpl,
+ * HttpAdapterServiceImpl and the asynchronous status update, all running in this JVM.
+ * <p>
+ * The application starts with its uat configuration, pointed at an in-memory H2 database in MySQL mode and at an
+ * {@link HttpsStubServer} for urls.transaction. Both the application and the stub serve TLS with a throwaway
+ * certificate generated by keytool, so the run needs no network, no MySQL and no certificate files.
+ * <p>
+ * Load is open-model: requests are started at a fixed arrival rate whether or not earlier ones have finished, and
+ * latency is measured from each request's scheduled start, so a stalled server shows up as queueing delay rather
+ * than as a lower request rate. Every rate step reports HdrHistogram percentiles, achieved throughput, outcomes,
+ * and how far the status update trailed each response (see {@link UpdateLagProbe}).
+ * <p>
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.bishop.application.loadtest.EndToEndLoadTest},
+ * adding for example {@code -Dloadtest.rates=100,200 -Dloadtest.stub.latency=lognormal:40:0.6}.
+ */
+public class EndToEndLoadTest {
+
+    private static final String STORE_PASSWORD = "loadtest";
+    private static final String REQUEST_TEMPLATE =
+            "{\"rrn\":\"%s\",\"transactionType\":\"CREDIT-TRANSFER\",\"senderName\":\"John Doe\","
+                    + "\"receiverName\":\"Jane Smith\",\"amount\":1500.00,\"currency\":\"KES\",\"channelId\":\"OMNI\"}";
+
+    public static void main(String[] args) throws Exception {
+        int[] rates = Arrays.stream(System.getProperty("loadtest.rates", "50,100,200").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        long stepSeconds = Long.getLong("loadtest.step-seconds", 30);
+        long warmUpSeconds = Long.getLong("loadtest.warmup-seconds", 10);
+        long drainTimeoutSeconds = Long.getLong("loadtest.drain-timeout-seconds", 30);
+        long downstreamTimeoutMillis = Long.getLong("loadtest.downstream-timeout-ms", 2000);
+        LatencyDistribution latency = LatencyDistribution.parse(System.getProperty("loadtest.stub.latency", "lognormal:40:0.5"));
+        double errorRate = Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.01"));
+        double timeoutRate = Double.parseDouble(System.getProperty("loadtest.stub.timeout-rate", "0.001"));
+        String appArgs = System.getProperty("loadtest.app-args", "").trim();
+
+        Path workDir = Files.createTempDirectory("e2e-loadtest");
+        Path keyStore = generateKeyStore(workDir);
+        // The application's downstream client and this driver both validate against the default trust store
+        System.setProperty("javax.net.ssl.trustStore", generateTrustStore(workDir, keyStore).toString());
+        System.setProperty("javax.net.ssl.trustStorePassword", STORE_PASSWORD);
+        System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+
+        try (HttpsStubServer stub = new HttpsStubServer(serverSslContext(keyStore), latency, errorRate, timeoutRate,
+                downstreamTimeoutMillis + 1000).start()) {
+
+            List<String> springArgs = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    // Seven INFO lines per request would make the console the bottleneck
+                    "--logging.level.root=WARN",
+                    "--logging.level.org.hibernate=WARN",
+                    "--server.ssl.key-store=" + keyStore,
+                    "--server.ssl.key-store-password=" + STORE_PASSWORD,
+                    "--server.ssl.key-store-type=PKCS12",
+                    "--server.ssl.key-alias=ssl",
+                    "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.datasource.replica.enabled=false",
+                    // The migrations are MySQL DDL; H2 gets the same tables and indexes from the entity mappings
+                    "--spring.flyway.enabled=false",
+                    "--spring.jpa.hibernate.ddl-auto=create",
+                    "--urls.transaction=" + stub.url(),
+                    "--http.client.socket-timeout-ms=" + downstreamTimeoutMillis,
+                    "--transaction.journal.directory=" + workDir.resolve("journal")));
+            if (!appArgs.isEmpty()) {
+                springArgs.addAll(List.of(appArgs.split("\\s+")));
+            }
+
+            ConfigurableApplicationContext context = SpringApplication.run(Application.class, springArgs.toArray(String[]::new));
+            try {
+                try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+                    UpdateLagProbe.install(connection);
+                }
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI target = URI.create("https://localhost:" + port + "/api/v1/transaction");
+
+                System.out.printf("Stub downstream: %s, errors %.2f%%, timeouts %.2f%% (client gives up after %d ms)%n",
+                        latency, errorRate * 100, timeoutRate * 100, downstreamTimeoutMillis);
+                System.out.printf("Warm-up: %d s at %d req/s, then %d s per step%n", warmUpSeconds, rates[0], stepSeconds);
+
+                try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                    HttpClient client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_1_1)
+                            .connectTimeout(Duration.ofSeconds(10))
+                            .executor(executor)
+                            .build();
+
+                    MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+                    runStep(client, executor, meterRegistry, target, 0, rates[0], warmUpSeconds, drainTimeoutSeconds);
+
+                    System.out.printf("%n%8s %8s %9s %7s %7s %7s %9s %9s %9s %9s %9s | %9s %9s %9s %9s %6s %6s%n",
+                            "rate", "sent", "tput/s", "2xx", "503", "other",
+                            "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)",
+                            "lag p50", "lag p99", "lag max", "drain(ms)", "stuck", "limit");
+                    for (int step = 0; step < rates.length; step++) {
+                        System.out.println(runStep(client, executor, meterRegistry, target, step + 1, rates[step], stepSeconds, drainTimeoutSeconds));
+                    }
+                }
+                System.out.printf("%nStub totals: %d succeeded, %d failed, %d timed out%n",
+                        stub.getSucceeded(), stub.getFailed(), stub.getTimedOut());
+            } finally {
+                context.close();
+            }
+        }
+        // Spring and the HTTP client leave non-daemon threads behind
+        System.exit(0);
+    }
+
+    // One fixed-rate step; returns the formatted report row
+    private static String runStep(HttpClient client, ExecutorService executor, MeterRegistry meterRegistry, URI target,
+                                  int step, int rate, long seconds, long drainTimeoutSeconds) throws InterruptedException {
+        Recorder latency = new Recorder(TimeUnit.MINUTES.toMicros(5), 3);
+        LongAdder succeeded = new LongAdder();
+        LongAdder shed = new LongAdder();
+        LongAdder completed = new LongAdder();
+        Map<String, LongAdder> other = new ConcurrentHashMap<>();
+        AtomicLong inFlight = new AtomicLong();
+        AtomicLong lastResponse = new AtomicLong();
+        UpdateLagProbe.reset();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long sent = 0;
+        for (long intended = start; intended < end; intended += intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String rrn = String.format("LT%02d%010d", step, sent++);
+            long scheduled = intended;
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    HttpRequest request = HttpRequest.newBuilder(target)
+                            .timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(String.format(REQUEST_TEMPLATE, rrn)))
+                            .build();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    long now = System.nanoTime();
+                    latency.recordValue(TimeUnit.NANOSECONDS.toMicros(now - scheduled));
+                    lastResponse.accumulateAndGet(now, Math::max);
+                    completed.increment();
+                    if (response.statusCode() == 200) {
+                        succeeded.increment();
+                    } else if (response.statusCode() == 503) {
+                        // Shed by the limiter or the open circuit breaker: nothing was saved, so no update follows
+                        shed.increment();
+                    } else {
+                        other.computeIfAbsent(String.valueOf(response.statusCode()), key -> new LongAdder()).increment();
+                    }
+                    if (response.statusCode() != 503) {
+                        UpdateLagProbe.responded(rrn);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    other.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        double throughput = completed.sum() / ((Math.max(lastResponse.get(), end) - start) / 1e9);
+
+        // Wait for the updater to catch up with the last responses
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainTimeoutSeconds);
+        while (UpdateLagProbe.outstanding() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(5);
+        }
+        long drainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - Math.max(lastResponse.get(), start));
+        int stuck = UpdateLagProbe.outstanding();
+
+        Histogram histogram = latency.getIntervalHistogram();
+        Histogram lag = UpdateLagProbe.intervalHistogram();
+        long otherCount = other.values().stream().mapToLong(LongAdder::sum).sum();
+        return String.format("%8d %8d %9.1f %7d %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f | %9.1f %9.1f %9.1f %9d %6d %6s%s",
+                rate, sent, throughput, succeeded.sum(), shed.sum(), otherCount,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                lag.getValueAtPercentile(50) / 1000.0,
+                lag.getValueAtPercentile(99) / 1000.0,
+                lag.getMaxValue() / 1000.0,
+                drainMillis,
+                stuck,
+                limiterLimit(meterRegistry),
+                other.isEmpty() ? "" : "  other: " + other);
+    }
+
+    // Admission limit at the end of the step, when the limiter is enabled
+    private static String limiterLimit(MeterRegistry meterRegistry) {
+        Gauge limit = meterRegistry.find("transaction.limiter.limit").gauge();
+        return limit == null ? "-" : String.valueOf((long) limit.value());
+    }
+
+    // Self-signed certificate for localhost, used as server key by the application and the stub
+    private static Path generateKeyStore(Path directory) throws IOException, InterruptedException {
+        Path keyStore = directory.resolve("loadtest.p12");
+        keytool("-genkeypair", "-alias", "ssl", "-keyalg", "EC", "-groupname", "secp256r1",
+                "-dname", "CN=localhost", "-ext", "SAN=dns:localhost,ip:127.0.0.1", "-validity", "2",
+                "-storetype", "PKCS12", "-keystore", keyStore.toString(),
+                "-storepass", STORE_PASSWORD, "-keypass", STORE_PASSWORD);
+        return keyStore;
+    }
+
+    // The same certificate as a trusted entry; a key entry alone does not count as a trust anchor
+    private static Path generateTrustStore(Path directory, Path keyStore) throws IOException, InterruptedException {
+        Path certificate = directory.resolve("loadtest.crt");
+        Path trustStore = directory.resolve("loadtest-trust.p12");
+        keytool("-exportcert", "-alias", "ssl", "-keystore", keyStore.toString(), "-storepass", STORE_PASSWORD,
+                "-file", certificate.toString());
+        keytool("-importcert", "-noprompt", "-alias", "loadtest", "-file", certificate.toString(),
+                "-storetype", "PKCS12", "-keystore", trustStore.toString(), "-storepass", STORE_PASSWORD);
+        return trustStore;
+    }
+
+    private static void keytool(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "keytool").toString());
+        command.addAll(List.of(args));
+        Process keytool = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(keytool.getInputStream().readAllBytes());
+        if (keytool.waitFor() != 0) {
+            throw new IllegalStateException("keytool failed: " + output);
+        }
+    }
+
+    private static SSLContext serverSslContext(Path keyStorePath) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(keyStorePath)) {
+            keyStore.load(in, STORE_PASSWORD.toCharArray());
+        }
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagers.init(keyStore, STORE_PASSWORD.toCharArray());
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagers.getKeyManagers(), null, null);
+        return sslContext;
+    }
+}
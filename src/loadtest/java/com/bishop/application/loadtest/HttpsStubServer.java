@@ -0,0 +1,121 @@
+package com.bishop.application.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// HTTPS stand-in for urls.transaction. Each call draws its service time from a latency distribution, then
+// either succeeds, fails with HTTP 500 and a FAILURE body (error rate), or holds the exchange past the client's
+// socket timeout (timeout rate). Exchanges run on virtual threads so the stub never limits concurrency.
+public class HttpsStubServer implements AutoCloseable {
+
+    private static final byte[] SUCCESS_BODY =
+            "{\"rrn\":\"STUB\",\"status\":\"SUCCESS\",\"statusCode\":\"00\",\"statusDesc\":\"Transaction completed successfully\",\"tranId\":\"STUB-1\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FAILURE_BODY =
+            "{\"rrn\":\"STUB\",\"status\":\"FAILURE\",\"statusCode\":\"01\",\"statusDesc\":\"Transaction failed\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    static {
+        // See SlowStubServer: keep idle keep-alive connections instead of closing them under the pooled client
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+    }
+
+    private final HttpsServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long timeoutHoldMillis;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public HttpsStubServer(SSLContext sslContext, LatencyDistribution latency, double errorRate, double timeoutRate,
+                           long timeoutHoldMillis) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.timeoutHoldMillis = timeoutHoldMillis;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpsServer.create(new InetSocketAddress("127.0.0.1", 0), 16384);
+        this.server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public HttpsStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public String url() {
+        return "https://localhost:" + server.getAddress().getPort() + "/api/v1/inbound/transaction";
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+
+        double outcome = ThreadLocalRandom.current().nextDouble();
+        try {
+            if (outcome < timeoutRate) {
+                // Answer only after the client has given up; the late response is discarded with the connection
+                timedOut.increment();
+                Thread.sleep(timeoutHoldMillis);
+                respond(exchange, 504, FAILURE_BODY);
+                return;
+            }
+            Thread.sleep(latency.sampleMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (outcome < timeoutRate + errorRate) {
+            failed.increment();
+            respond(exchange, 500, FAILURE_BODY);
+        } else {
+            succeeded.increment();
+            respond(exchange, 200, SUCCESS_BODY);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
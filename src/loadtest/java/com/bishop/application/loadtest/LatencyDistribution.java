@@ -0,0 +1,78 @@
+package com.bishop.application.loadtest;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Service-time distribution for the stub downstream, parsed from a spec string:
+ * <ul>
+ *     <li>{@code fixed:50} - always 50 ms</li>
+ *     <li>{@code uniform:20:80} - between 20 and 80 ms</li>
+ *     <li>{@code exponential:50} - mean 50 ms</li>
+ *     <li>{@code lognormal:40:0.6} - median 40 ms, sigma 0.6 (a long right tail, like most real services)</li>
+ * </ul>
+ */
+public abstract class LatencyDistribution {
+
+    private final String spec;
+
+    private LatencyDistribution(String spec) {
+        this.spec = spec;
+    }
+
+    public abstract long sampleMillis();
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    public static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().toLowerCase(Locale.ROOT).split(":");
+        try {
+            switch (parts[0]) {
+                case "fixed" -> {
+                    long millis = Long.parseLong(parts[1]);
+                    return new LatencyDistribution(spec) {
+                        @Override
+                        public long sampleMillis() {
+                            return millis;
+                        }
+                    };
+                }
+                case "uniform" -> {
+                    long min = Long.parseLong(parts[1]);
+                    long max = Long.parseLong(parts[2]);
+                    return new LatencyDistribution(spec) {
+                        @Override
+                        public long sampleMillis() {
+                            return ThreadLocalRandom.current().nextLong(min, max + 1);
+                        }
+                    };
+                }
+                case "exponential" -> {
+                    double mean = Double.parseDouble(parts[1]);
+                    return new LatencyDistribution(spec) {
+                        @Override
+                        public long sampleMillis() {
+                            return Math.round(-mean * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+                        }
+                    };
+                }
+                case "lognormal" -> {
+                    double mu = Math.log(Double.parseDouble(parts[1]));
+                    double sigma = Double.parseDouble(parts[2]);
+                    return new LatencyDistribution(spec) {
+                        @Override
+                        public long sampleMillis() {
+                            return Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian()));
+                        }
+                    };
+                }
+                default -> throw new IllegalArgumentException("Unknown latency distribution: " + spec);
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed latency distribution: " + spec, e);
+        }
+    }
+}
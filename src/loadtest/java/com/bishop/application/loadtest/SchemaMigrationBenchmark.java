@@ -0,0 +1,350 @@
+package com.bishop.application.loadtest;
+
+import com.bishop.application.Application;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.metrics.StartupStep;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Startup time and dedup-lookup latency of transaction_details before and after the versioned migrations.
+ * <ul>
+ *     <li>before: the version 1 schema that ddl-auto=update used to build, booted with Flyway off and ddl-auto=update.</li>
+ *     <li>after: every migration applied, booted with Flyway checking its history and ddl-auto=validate.</li>
+ * </ul>
+ * Both use a file-based H2 database in MySQL mode seeded with the same rows. The migrations are MySQL DDL and H2
+ * takes only one MODIFY per ALTER TABLE, so they are applied from a copy adapted for H2 (see h2Migrations). Both
+ * variants use Hibernate's H2 dialect, so the two differ only in schema, Flyway and ddl-auto.
+ * <p>
+ * Lookups run first, over JDBC, with the SQL the application issues: the dedup select, the batch dedup check, the
+ * RRN filter warm-up scan and a reconciliation scan for unresolved rows. Startup is then measured over several boots,
+ * each in a fresh JVM, discarding the first boot of each variant (which in "before" also lets update add whatever the
+ * current mappings declare). Besides the whole context, Spring's startup recorder gives the time spent creating the
+ * Flyway beans (loading Flyway and checking its history) and the entity manager factory (Hibernate's schema update or
+ * validation); whichever of the two opens the first connection also pays for starting the Hikari pool.
+ * <p>
+ * H2 is not MySQL: the numbers show the direction and rough size of each change, not production latencies.
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.bishop.application.loadtest.SchemaMigrationBenchmark}.
+ */
+public class SchemaMigrationBenchmark {
+
+    private static final String[] VARIANTS = {"before", "after"};
+    private static final Pattern MULTI_MODIFY = Pattern.compile("(?is)^(ALTER\\s+TABLE\\s+\\w+)\\s+(MODIFY\\s.*)$");
+    private static final Pattern SEQUENCE_TABLE = Pattern.compile("(?is)^(CREATE\\s+TABLE|INSERT\\s+INTO)\\s+tran_seq\\b.*$");
+    private static final Pattern GUARDED_DROP_INDEX = Pattern.compile("(?is)^SET\\s+@\\w+\\s*=.*'DROP\\s+INDEX\\s+(\\w+)\\s+ON\\s+\\w+'.*$");
+    private static final Pattern PREPARED_STATEMENT = Pattern.compile("(?is)^(PREPARE|EXECUTE|DEALLOCATE)\\s.*$");
+    private static final Pattern SESSION_VARIABLE = Pattern.compile("(?is)^SET\\s+@\\w+\\s*=.*$");
+    private static final int BATCH_CHECK_SIZE = 100;
+
+    private static final String INSERT_SQL = "INSERT INTO transaction_details (id, rrn, sender_name, receiver_name, amount, "
+            + "currency, channel_id, transaction_type, status, status_code, status_desc, tran_id, created_at, updated_at) "
+            + "VALUES (?, ?, 'John Doe', 'Jane Smith', ?, 'KES', 'OMNI', 'CREDIT_TRANSFER', ?, ?, 'Seeded', ?, ?, ?)";
+    // The select Hibernate issues for findByRrnAndTransactionTypeAndCreatedAtGreaterThanEqual
+    private static final String DEDUP_SELECT_SQL = "SELECT id, amount, channel_id, created_at, currency, receiver_name, "
+            + "rrn, sender_name, status, status_code, status_desc, tran_id, transaction_type, updated_at "
+            + "FROM transaction_details WHERE rrn = ? AND transaction_type = ? AND created_at >= ?";
+    private static final String BATCH_CHECK_SQL = "SELECT rrn FROM transaction_details WHERE transaction_type = ? "
+            + "AND created_at >= ? AND rrn IN (" + String.join(", ", Collections.nCopies(BATCH_CHECK_SIZE, "?")) + ")";
+    private static final String WARM_UP_SQL = "SELECT rrn, transaction_type FROM transaction_details WHERE created_at >= ?";
+    private static final String RECONCILIATION_SQL = "SELECT rrn, transaction_type FROM transaction_details "
+            + "WHERE status IN ('INITIALIZED', 'PENDING', 'TIMEOUT') AND created_at < ?";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "boot".equals(args[0])) {
+            boot(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        int rows = Integer.getInteger("benchmark.schema.rows", 200_000);
+        int boots = Integer.getInteger("benchmark.schema.boots", 3);
+        int lookups = Integer.getInteger("benchmark.schema.lookups", 20_000);
+
+        Path workDir = Files.createTempDirectory("schema-benchmark");
+        Path migrations = h2Migrations(workDir.resolve("migrations"));
+        Map<String, String> urls = new HashMap<>();
+        for (String variant : VARIANTS) {
+            String url = "jdbc:h2:file:" + workDir.resolve(variant) + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+            urls.put(variant, url);
+            Flyway.configure()
+                    .dataSource(url, "sa", "")
+                    .locations("filesystem:" + migrations)
+                    .target("before".equals(variant) ? "1" : "latest")
+                    .load()
+                    .migrate();
+            seed(url, rows);
+        }
+
+        System.out.printf("%d rows over 30 days, %d dedup lookups per variant, %d boots per variant after one discarded%n",
+                rows, lookups, boots);
+        System.out.printf("%-16s %-7s %10s %10s %10s%n", "query", "schema", "p50(us)", "p99(us)", "max(us)");
+        for (Lookup lookup : Lookup.values()) {
+            for (String variant : VARIANTS) {
+                Histogram histogram = measure(urls.get(variant), lookup, lookup.iterations(lookups), rows);
+                System.out.printf("%-16s %-7s %10d %10d %10d%n", lookup.label, variant,
+                        histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99), histogram.getMaxValue());
+            }
+        }
+
+        System.out.printf("%n%-7s %-8s %12s %12s %12s%n", "schema", "ddl-auto", "startup(ms)", "flyway(ms)", "hibernate(ms)");
+        for (String variant : VARIANTS) {
+            List<long[]> results = new ArrayList<>();
+            for (int i = 0; i <= boots; i++) {
+                long[] result = startJvm(workDir, urls.get(variant), variant, "before".equals(variant) ? "none" : "filesystem:" + migrations);
+                if (i > 0) {
+                    results.add(result);
+                }
+            }
+            System.out.printf("%-7s %-8s %12d %12d %12d%n", variant, "before".equals(variant) ? "update" : "validate",
+                    median(results, 0), median(results, 1), median(results, 2));
+        }
+    }
+
+    private enum Lookup {
+        DEDUP_SELECT("dedup select", 1),
+        BATCH_CHECK("batch check", 10),
+        WARM_UP_SCAN("warm-up scan", 500),
+        RECONCILIATION("reconciliation", 500);
+
+        private final String label;
+        private final int divisor;
+
+        Lookup(String label, int divisor) {
+            this.label = label;
+            this.divisor = divisor;
+        }
+
+        // Scans are far slower than point lookups, so they run fewer times
+        int iterations(int lookups) {
+            return Math.max(20, lookups / divisor);
+        }
+    }
+
+    // Runs each query once untimed per timed run, so the plan and page cache are warm before recording starts
+    private static Histogram measure(String url, Lookup lookup, int iterations, int rows) throws SQLException {
+        Histogram histogram = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp dedupWindowStart = Timestamp.valueOf(now.minusDays(7));
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             PreparedStatement statement = connection.prepareStatement(switch (lookup) {
+                 case DEDUP_SELECT -> DEDUP_SELECT_SQL;
+                 case BATCH_CHECK -> BATCH_CHECK_SQL;
+                 case WARM_UP_SCAN -> WARM_UP_SQL;
+                 case RECONCILIATION -> RECONCILIATION_SQL;
+             })) {
+            for (int i = 0; i < iterations * 2; i++) {
+                switch (lookup) {
+                    case DEDUP_SELECT -> {
+                        // Half the keys exist, as with retried requests; the rest are new
+                        statement.setString(1, rrn(random.nextInt(rows * 2)));
+                        statement.setString(2, "CREDIT_TRANSFER");
+                        statement.setTimestamp(3, dedupWindowStart);
+                    }
+                    case BATCH_CHECK -> {
+                        statement.setString(1, "CREDIT_TRANSFER");
+                        statement.setTimestamp(2, dedupWindowStart);
+                        for (int key = 0; key < BATCH_CHECK_SIZE; key++) {
+                            statement.setString(3 + key, rrn(random.nextInt(rows * 2)));
+                        }
+                    }
+                    // Scan bounds move a little every run, or H2 would hand back its previous result unchanged
+                    case WARM_UP_SCAN -> statement.setTimestamp(1, Timestamp.valueOf(now.minusDays(1).minusSeconds(random.nextInt(3600))));
+                    case RECONCILIATION -> statement.setTimestamp(1, Timestamp.valueOf(now.minusMinutes(10).minusSeconds(random.nextInt(3600))));
+                }
+                long start = System.nanoTime();
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getString(1);
+                    }
+                }
+                if (i >= iterations) {
+                    histogram.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                }
+            }
+        }
+        return histogram;
+    }
+
+    // Mostly settled rows spread over 30 days, with 1% still INITIALIZED, PENDING or TIMEOUT
+    private static void seed(String url, int rows) throws SQLException {
+        Random random = new Random(7);
+        LocalDateTime now = LocalDateTime.now();
+        String[] unresolved = {"INITIALIZED", "PENDING", "TIMEOUT"};
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+                for (int i = 0; i < rows; i++) {
+                    boolean settled = random.nextInt(100) != 0;
+                    Timestamp createdAt = Timestamp.valueOf(now.minusSeconds(random.nextLong(TimeUnit.DAYS.toSeconds(30))));
+                    insert.setLong(1, i + 1);
+                    insert.setString(2, rrn(i));
+                    insert.setBigDecimal(3, BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+                    insert.setString(4, settled ? "SUCCESS" : unresolved[random.nextInt(unresolved.length)]);
+                    insert.setString(5, settled ? "00" : "002");
+                    insert.setString(6, "FT" + i);
+                    insert.setTimestamp(7, createdAt);
+                    insert.setTimestamp(8, createdAt);
+                    insert.addBatch();
+                    if (i % 1000 == 999) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            try (PreparedStatement sequence = connection.prepareStatement("ALTER SEQUENCE tran_seq RESTART WITH " + (rows + 1L))) {
+                sequence.executeUpdate();
+            }
+            connection.commit();
+        }
+    }
+
+    private static String rrn(int i) {
+        return String.format("RRN%010d", i);
+    }
+
+    // Copy the migrations for H2: "ALTER TABLE t MODIFY a ..., MODIFY b ..." becomes one statement per column, an
+    // index drop guarded through information_schema and a prepared statement becomes DROP INDEX IF EXISTS, and the
+    // tran_seq table Hibernate uses on MySQL becomes the real sequence it expects on H2. Other conditional DDL (the V3
+    // swap of Hibernate's rrn-only unique key) is dropped: V1 already builds these H2 tables with the composite key.
+    private static Path h2Migrations(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath:db/migration/*.sql")) {
+            List<String> statements = new ArrayList<>();
+            String script = resource.getContentAsString(StandardCharsets.UTF_8).replaceAll("(?m)^\\s*--.*$", "");
+            for (String statement : script.split(";")) {
+                String sql = statement.trim();
+                if (sql.isEmpty()) {
+                    continue;
+                }
+                Matcher matcher = MULTI_MODIFY.matcher(sql);
+                Matcher guardedDrop = GUARDED_DROP_INDEX.matcher(sql);
+                if (guardedDrop.matches()) {
+                    statements.add("DROP INDEX IF EXISTS " + guardedDrop.group(1));
+                } else if (PREPARED_STATEMENT.matcher(sql).matches() || SESSION_VARIABLE.matcher(sql).matches()) {
+                    continue;
+                } else if (SEQUENCE_TABLE.matcher(sql).matches()) {
+                    if (sql.regionMatches(true, 0, "CREATE", 0, 6)) {
+                        statements.add("CREATE SEQUENCE tran_seq START WITH 1 INCREMENT BY 10");
+                    }
+                } else if (matcher.matches()) {
+                    for (String clause : matcher.group(2).split(",\\s*(?=MODIFY\\s)")) {
+                        statements.add(matcher.group(1) + " " + clause.trim());
+                    }
+                } else {
+                    statements.add(sql);
+                }
+            }
+            Files.writeString(directory.resolve(resource.getFilename()),
+                    statements.isEmpty() ? "-- Nothing to apply on H2\n" : String.join(";\n", statements) + ";\n");
+        }
+        return directory;
+    }
+
+    private static long[] startJvm(Path workDir, String url, String variant, String flywayLocations)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SchemaMigrationBenchmark.class.getName());
+        command.addAll(List.of("boot", url, variant, flywayLocations, workDir.resolve("journal").toString()));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        long[] result = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("RESULT ")) {
+                result = Arrays.stream(line.substring("RESULT ".length()).split(" ")).mapToLong(Long::parseLong).toArray();
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException(variant + " boot failed with exit code " + process.exitValue());
+        }
+        return result;
+    }
+
+    // Child JVM: start the application once, print its startup times and exit
+    private static void boot(String[] args) {
+        String url = args[0];
+        boolean migrated = "after".equals(args[1]);
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--server.ssl.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate=WARN",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.replica.enabled=false",
+                "--transaction.journal.directory=" + args[3]));
+        if (migrated) {
+            springArgs.add("--spring.flyway.locations=" + args[2]);
+            springArgs.add("--spring.jpa.hibernate.ddl-auto=validate");
+        } else {
+            springArgs.add("--spring.flyway.enabled=false");
+            springArgs.add("--spring.jpa.hibernate.ddl-auto=update");
+        }
+
+        SpringApplication application = new SpringApplication(Application.class);
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(10_000);
+        startup.addFilter(step -> "spring.beans.instantiate".equals(step.getName()));
+        application.setApplicationStartup(startup);
+        long start = System.nanoTime();
+        ConfigurableApplicationContext context = application.run(springArgs.toArray(String[]::new));
+        long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Map<String, Long> beanMillis = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : startup.getBufferedTimeline().getEvents()) {
+            if ("spring.beans.instantiate".equals(event.getStartupStep().getName())) {
+                for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+                    if ("beanName".equals(tag.getKey())) {
+                        beanMillis.put(tag.getValue(), event.getDuration().toMillis());
+                    }
+                }
+            }
+        }
+        context.close();
+        // The entity manager factory step includes Flyway, which it depends on; report Hibernate's share on its own
+        long flywayMillis = beanMillis.getOrDefault("flyway", 0L) + beanMillis.getOrDefault("flywayInitializer", 0L);
+        long hibernateMillis = beanMillis.getOrDefault("&entityManagerFactory", 0L) - flywayMillis;
+        System.out.printf("RESULT %d %d %d%n", startupMillis, flywayMillis, hibernateMillis);
+        System.exit(0);
+    }
+
+    private static long median(List<long[]> results, int column) {
+        long[] values = results.stream().mapToLong(result -> result[column]).sorted().toArray();
+        return values[values.length / 2];
+    }
+}
@@ -0,0 +1,80 @@
+package com.bishop.application.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Downstream stand-in that answers every POST with a successful TransactionResponse after a fixed delay.
+// It serves each exchange on its own virtual thread so the stub itself never limits concurrency.
+public class SlowStubServer implements AutoCloseable {
+
+    private static final byte[] RESPONSE_BODY =
+            "{\"rrn\":\"STUB\",\"status\":\"SUCCESS\",\"statusCode\":\"00\",\"statusDesc\":\"Transaction completed successfully\",\"tranId\":\"STUB-1\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    static {
+        // The JDK server closes keep-alive connections beyond 200 idle ones by default, which the pooled client
+        // then sees as NoHttpResponseException on reuse
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long delayMillis;
+
+    public SlowStubServer(int port, long delayMillis) throws IOException {
+        this.delayMillis = delayMillis;
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 16384);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    // Standalone mode so a benchmark can keep the stub's sockets out of its own file-descriptor budget.
+    // Prints the URL once listening, then serves until the process is killed.
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        SlowStubServer stub = new SlowStubServer(port, delayMillis).start();
+        System.out.println("READY " + stub.url());
+        Thread.currentThread().join();
+    }
+
+    public SlowStubServer start() {
+        server.start();
+        return this;
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/inbound/transaction";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+        }
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, RESPONSE_BODY.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(RESPONSE_BODY);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
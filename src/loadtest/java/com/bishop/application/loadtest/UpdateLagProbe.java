@@ -0,0 +1,114 @@
+package com.bishop.application.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the asynchronous status update trails the response the channel received.
+ * <p>
+ * The harness reports each response; an H2 row trigger reports the moment a row first leaves INITIALIZED, which is
+ * when the write-behind buffer or journal applier actually reaches the database. Whichever side arrives second
+ * records the gap, so the lag is exact regardless of the update path the application is configured with. An update
+ * that lands before the client has read its response counts as zero lag.
+ */
+public final class UpdateLagProbe {
+
+    private static final Map<String, Mark> MARKS = new ConcurrentHashMap<>();
+    private static final Recorder LAG = new Recorder(TimeUnit.MINUTES.toMicros(5), 3);
+
+    private UpdateLagProbe() {
+    }
+
+    // Attach the trigger once Hibernate has created the table
+    public static void install(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TRIGGER IF NOT EXISTS update_lag_probe AFTER UPDATE ON transaction_details "
+                    + "FOR EACH ROW CALL '" + StatusTrigger.class.getName() + "'");
+        }
+    }
+
+    public static void responded(String rrn) {
+        mark(rrn, true);
+    }
+
+    // Responses still waiting for their status update
+    public static int outstanding() {
+        int count = 0;
+        for (Mark mark : MARKS.values()) {
+            if (mark.response) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static Histogram intervalHistogram() {
+        return LAG.getIntervalHistogram();
+    }
+
+    public static void reset() {
+        MARKS.clear();
+        LAG.reset();
+    }
+
+    private static void mark(String rrn, boolean response) {
+        long now = System.nanoTime();
+        MARKS.compute(rrn, (key, previous) -> {
+            if (previous == null) {
+                return new Mark(response, now);
+            }
+            if (previous.response != response) {
+                long lagNanos = response ? 0 : now - previous.nanos;
+                LAG.recordValue(TimeUnit.NANOSECONDS.toMicros(lagNanos));
+                return null;
+            }
+            return previous;
+        });
+    }
+
+    private record Mark(boolean response, long nanos) {
+    }
+
+    public static final class StatusTrigger implements Trigger {
+        private int rrnIndex;
+        private int statusIndex;
+
+        @Override
+        public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                         boolean before, int type) throws SQLException {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT LOWER(COLUMN_NAME), ORDINAL_POSITION "
+                    + "FROM INFORMATION_SCHEMA.COLUMNS WHERE LOWER(TABLE_SCHEMA) = LOWER(?) AND LOWER(TABLE_NAME) = LOWER(?)")) {
+                statement.setString(1, schemaName);
+                statement.setString(2, tableName);
+                try (ResultSet columns = statement.executeQuery()) {
+                    while (columns.next()) {
+                        switch (columns.getString(1)) {
+                            case "rrn" -> rrnIndex = columns.getInt(2) - 1;
+                            case "status" -> statusIndex = columns.getInt(2) - 1;
+                            default -> {
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // Only the first move away from INITIALIZED is the asynchronous update of interest
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) {
+            if ("INITIALIZED".equals(oldRow[statusIndex]) && !"INITIALIZED".equals(newRow[statusIndex])) {
+                mark((String) newRow[rrnIndex], false);
+            }
+        }
+    }
+}
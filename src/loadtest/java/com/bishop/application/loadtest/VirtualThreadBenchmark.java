@@ -0,0 +1,256 @@
+package com.bishop.application.loadtest;
+
+import com.bishop.application.Application;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the application on platform threads against the application on virtual threads: POST /api/v1/transaction
+ * through Tomcat, the dedup insert, the blocking downstream call to a slow stub and the status update on taskExecutor,
+ * with only {@code spring.threads.virtual.enabled} differing between the two modes.
+ * <p>
+ * Each (mode, concurrency) pair boots the application in its own JVM, on an in-memory H2 database in MySQL mode and
+ * pointed at a {@link SlowStubServer} that runs in a further JVM. This JVM is the load driver, so the heap, RSS and
+ * thread counts reported are the application's alone. Tomcat's connection limit and the downstream connection pool are
+ * raised to the offered concurrency in both modes, and the admission limiter is off, so neither caps the comparison.
+ * Run with {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.bishop.application.loadtest.VirtualThreadBenchmark}.
+ */
+public class VirtualThreadBenchmark {
+
+    private static final String[] MODES = {"platform", "virtual"};
+    private static final String REQUEST_TEMPLATE =
+            "{\"rrn\":\"%s\",\"transactionType\":\"CREDIT-TRANSFER\",\"senderName\":\"John Doe\","
+                    + "\"receiverName\":\"Jane Smith\",\"amount\":1500.00,\"currency\":\"KES\",\"channelId\":\"OMNI\"}";
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"statistic\"\\s*:\\s*\"VALUE\"\\s*,\\s*\"value\"\\s*:\\s*([0-9.Ee+-]+)");
+
+    public static void main(String[] args) throws Exception {
+        long durationSeconds = Long.getLong("benchmark.duration-seconds", 20);
+        long delayMillis = Long.getLong("benchmark.downstream-delay-ms", 200);
+        int[] concurrencyLevels = Arrays.stream(System.getProperty("benchmark.concurrency", "1000,5000,10000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+        if (args.length == 4 && "app".equals(args[0])) {
+            runApplication(args[1], Integer.parseInt(args[2]), args[3]);
+            return;
+        }
+
+        Process stub = startJvm(List.of(), SlowStubServer.class, "0", String.valueOf(delayMillis));
+        try {
+            String stubUrl = awaitReady(stub);
+            System.out.printf("Downstream stub at %s answering after %d ms, %d s per run%n", stubUrl, delayMillis, durationSeconds);
+            System.out.printf("%-9s %8s %10s %9s %9s %9s %10s %10s %8s%n",
+                    "mode", "inflight", "req/s", "p50(ms)", "p99(ms)", "max(ms)", "heap(MB)", "rss(MB)", "threads");
+            for (int concurrency : concurrencyLevels) {
+                for (String mode : MODES) {
+                    Process app = startJvm(List.of("-Xmx1g", "-Xss512k"),
+                            VirtualThreadBenchmark.class, "app", mode, String.valueOf(concurrency), stubUrl);
+                    try {
+                        URI base = URI.create("http://127.0.0.1:" + awaitReady(app));
+                        discardOutput(app);
+                        System.out.println(drive(app, base, mode, concurrency, durationSeconds));
+                    } catch (IllegalStateException e) {
+                        System.out.printf("%-9s %8d  run failed: %s%n", mode, concurrency, e.getMessage());
+                    } finally {
+                        app.destroy();
+                        app.waitFor();
+                    }
+                }
+            }
+        } finally {
+            stub.destroy();
+        }
+        // The driver's HTTP client leaves non-daemon threads behind
+        System.exit(0);
+    }
+
+    // Child JVM: the application under test, with only the thread model differing between modes
+    private static void runApplication(String mode, int concurrency, String stubUrl) throws IOException {
+        Path journal = Files.createTempDirectory("vt-benchmark-journal");
+        String connections = String.valueOf(concurrency + 1000);
+        ConfigurableApplicationContext context = SpringApplication.run(Application.class,
+                "--server.port=0",
+                "--server.ssl.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hibernate=WARN",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--server.tomcat.max-connections=" + connections,
+                "--server.tomcat.virtual-threads.max-connections=" + connections,
+                "--http.client.pool.max-total=" + concurrency,
+                "--http.client.pool.max-per-route=" + concurrency,
+                "--transaction.limiter.enabled=false",
+                "--spring.datasource.url=jdbc:h2:mem:vtbenchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.replica.enabled=false",
+                // The migrations are MySQL DDL; H2 gets the same tables and indexes from the entity mappings
+                "--spring.flyway.enabled=false",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--urls.transaction=" + stubUrl,
+                "--transaction.journal.directory=" + journal);
+        System.out.println("READY " + ((WebServerApplicationContext) context).getWebServer().getPort());
+        // Serves until the driver destroys this process
+    }
+
+    // Closed-loop load: each of the concurrency workers sends its next request as soon as the previous one returns
+    private static String drive(Process app, URI base, String mode, int concurrency, long durationSeconds) throws Exception {
+        URI target = base.resolve("/api/v1/transaction");
+        Recorder recorder = new Recorder(TimeUnit.MINUTES.toMicros(5), 3);
+        LongAdder completed = new LongAdder();
+        Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+        AtomicLong sequence = new AtomicLong();
+        long warmUpEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(2, durationSeconds / 5));
+        long end = warmUpEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(executor)
+                    .build();
+
+            Runnable worker = () -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    String rrn = String.format("VT%010d", sequence.incrementAndGet());
+                    HttpRequest request = HttpRequest.newBuilder(target)
+                            .timeout(Duration.ofSeconds(60))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(String.format(REQUEST_TEMPLATE, rrn)))
+                            .build();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.computeIfAbsent(String.valueOf(response.statusCode()), key -> new LongAdder()).increment();
+                        } else if (start >= warmUpEnd) {
+                            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                            completed.increment();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        failures.computeIfAbsent(e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            };
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(worker);
+            }
+
+            // Sample the application while the load is running rather than after the workers have stopped
+            long midpoint = warmUpEnd + (end - warmUpEnd) / 2;
+            Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(midpoint - System.nanoTime())));
+            double heapMb = heapUsedMb(client, base);
+            long rssKb = readStatusField(app.pid(), "VmRSS");
+            long osThreads = readStatusField(app.pid(), "Threads");
+
+            Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime())));
+            Histogram histogram = recorder.getIntervalHistogram();
+            return String.format("%-9s %8d %10.1f %9.1f %9.1f %9.1f %10.1f %10.1f %8d%s",
+                    mode,
+                    concurrency,
+                    completed.sum() / (double) durationSeconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    heapMb,
+                    rssKb / 1024.0,
+                    osThreads,
+                    failures.isEmpty() ? "" : "  failed: " + failures);
+        }
+    }
+
+    // Heap in use inside the application, read from its actuator metrics endpoint
+    private static double heapUsedMb(HttpClient client, URI base) {
+        try {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(base.resolve("/actuator/metrics/jvm.memory.used?tag=area:heap")).timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = METRIC_VALUE.matcher(response.body());
+            return matcher.find() ? Double.parseDouble(matcher.group(1)) / (1024.0 * 1024.0) : 0;
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    // Start a fresh JVM with the same classpath
+    private static Process startJvm(List<String> jvmArgs, Class<?> mainClass, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(List.of(args));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    // Wait for the child's READY line and return what follows it
+    private static String awaitReady(Process process) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith("READY ")) {
+                return line.substring("READY ".length());
+            }
+        }
+        throw new IllegalStateException("child JVM exited before it was ready");
+    }
+
+    // Keep the child from blocking on a full stdout pipe
+    private static void discardOutput(Process process) {
+        Thread.ofVirtual().start(() -> {
+            try {
+                process.getInputStream().transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                // The child has exited
+            }
+        });
+    }
+
+    // Linux-only /proc status field of another process (VmRSS in kB, Threads as a count); reports 0 elsewhere
+    private static long readStatusField(long pid, String field) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith(field + ":")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bishop.application.config;
+
+import com.bishop.application.service.AdmissionControlService;
+import com.bishop.application.service.JsonCodecService;
+import com.bishop.application.web.filter.AdmissionControlFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class AdmissionControlConfigs {
+
+    // Only the transaction endpoint is limited; actuator health checks and docs are never shed
+    @Bean
+    @ConditionalOnProperty(name = "transaction.limiter.enabled", havingValue = "true")
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionControlService admissionControlService,
+                                                                                 JsonCodecService jsonCodecService) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionControlFilter(admissionControlService, jsonCodecService));
+        registration.addUrlPatterns("/api/v1/transaction");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -1,29 +1,53 @@
 package com.bishop.application.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableAsync
 public class AsyncConfigs implements AsyncConfigurer {
     private static final Logger log = LoggerFactory.getLogger(AsyncConfigs.class);
 
+    private final boolean virtualThreads;
+    private final int virtualThreadConcurrencyLimit;
+    private final MeterRegistry meterRegistry;
+
+    public AsyncConfigs(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                        @Value("${spring.datasource.hikari.maximum-pool-size:10}") int virtualThreadConcurrencyLimit,
+                        MeterRegistry meterRegistry) {
+        this.virtualThreads = virtualThreads;
+        this.virtualThreadConcurrencyLimit = virtualThreadConcurrencyLimit;
+        this.meterRegistry = meterRegistry;
+    }
+
     // Provide a custom ThreadPoolTaskExecutor for @Async methods
     @Override
     @Bean(name = "taskExecutor")
     @Primary
     public TaskExecutor getAsyncExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor();
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
         executor.setCorePoolSize(50); // Number of threads to keep in the pool
@@ -31,6 +55,7 @@ public class AsyncConfigs implements AsyncConfigurer {
         executor.setQueueCapacity(10000); // Size of the queue before rejecting tasks
         executor.setKeepAliveSeconds(60); // Time to keep idle threads alive
         executor.setThreadNamePrefix("AsyncExecutor-"); // Prefix for thread names
+        executor.setTaskDecorator(taskWaitDecorator());
 
         // Custom handler for rejected tasks
         executor.setRejectedExecutionHandler((r, ex) -> {
@@ -43,9 +68,68 @@ public class AsyncConfigs implements AsyncConfigurer {
         executor.setAwaitTerminationSeconds(60);
 
         executor.initialize();
+
+        // Queue depth and busy threads show whether status updates are keeping up with responses
+        Gauge.builder("transaction.executor.queue.depth", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .description("Tasks waiting in the async executor queue")
+                .tag("name", "taskExecutor")
+                .register(meterRegistry);
+        Gauge.builder("transaction.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Async executor threads currently running a task")
+                .tag("name", "taskExecutor")
+                .register(meterRegistry);
+        Gauge.builder("transaction.executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .description("Threads currently in the async executor pool")
+                .tag("name", "taskExecutor")
+                .register(meterRegistry);
         return executor;
     }
 
+    // One virtual thread per task. Async tasks only do database work, so the Hikari pool size is the real
+    // concurrency cap; extra submitters block cheaply here instead of queueing up for a connection.
+    private TaskExecutor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("AsyncExecutor-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(virtualThreadConcurrencyLimit);
+        executor.setTaskDecorator(taskWaitDecorator());
+        executor.setTaskTerminationTimeout(60000); // Ensure graceful shutdown
+        log.info("Async executor running on virtual threads, concurrency limited to {}", virtualThreadConcurrencyLimit);
+        return executor;
+    }
+
+    // Completes async-client transactions off the HTTP client's IO reactor. A completion hands its status update to
+    // taskExecutor, which on virtual threads blocks submitters at its concurrency limit; if completions held those
+    // slots too, a full set of them would wait forever on each other. They get uncapped virtual threads instead.
+    @Bean(name = "completionExecutor")
+    public TaskExecutor completionExecutor() {
+        if (!virtualThreads) {
+            // The pool queues instead of blocking, so a task submitting to its own executor cannot stall it
+            return getAsyncExecutor();
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("CompletionExecutor-");
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(60000); // Ensure graceful shutdown
+        return executor;
+    }
+
+    // Time from submission until a thread picks the task up; on virtual threads this is the wait at the concurrency limit
+    private TaskDecorator taskWaitDecorator() {
+        Timer taskWait = Timer.builder("transaction.executor.task.wait")
+                .description("Time an async task waited between submission and the start of its execution")
+                .tag("name", "taskExecutor")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(10_000))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry);
+        return task -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                taskWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            };
+        };
+    }
+
     // Provide custom exception handling for uncaught async errors
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
@@ -0,0 +1,88 @@
+package com.bishop.application.config;
+
+import com.bishop.application.util.ReplicaFallbackDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Read/write split: transactions marked readOnly run on the replica pool, everything else on the primary.
+// Boot's DataSource auto-configuration backs off once this defines the DataSource bean.
+@Configuration
+@ConditionalOnProperty(name = "spring.datasource.replica.enabled", havingValue = "true")
+public class DataSourceConfigs {
+
+    // Same pool Boot would otherwise create from spring.datasource.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    // The replica has its own pool settings under spring.datasource.replica.hikari; credentials default to the primary's
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                             @Value("${spring.datasource.replica.url}") String url,
+                                             @Value("${spring.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                             @Value("${spring.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setPoolName("HikariReplica");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaFallbackDataSource readOnlyDataSource(@Qualifier("replicaDataSource") HikariDataSource replica,
+                                                        @Qualifier("primaryDataSource") HikariDataSource primary,
+                                                        @Value("${spring.datasource.replica.max-lag-seconds:5}") long maxLagSeconds,
+                                                        @Value("${spring.datasource.replica.check-interval-ms:2000}") long checkIntervalMillis,
+                                                        @Value("${spring.datasource.replica.lag-query:SHOW REPLICA STATUS}") String lagQuery,
+                                                        @Value("${spring.datasource.replica.lag-column:Seconds_Behind_Source}") String lagColumn,
+                                                        MeterRegistry meterRegistry) {
+        ReplicaFallbackDataSource dataSource =
+                new ReplicaFallbackDataSource(replica, primary, lagQuery, lagColumn, maxLagSeconds, checkIntervalMillis);
+
+        Gauge.builder("datasource.replica.lag.seconds", dataSource, ReplicaFallbackDataSource::getLagSeconds)
+                .description("Replication lag reported by the last check (-1 when unknown)")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", dataSource, current -> current.isReplicaUsable() ? 1 : 0)
+                .description("1 while read-only transactions are served by the replica")
+                .register(meterRegistry);
+        FunctionCounter.builder("datasource.replica.reads", dataSource, ReplicaFallbackDataSource::getReplicaReads)
+                .tag("target", "replica")
+                .description("Read-only connections handed out, by the pool that served them")
+                .register(meterRegistry);
+        FunctionCounter.builder("datasource.replica.reads", dataSource, ReplicaFallbackDataSource::getFallbackReads)
+                .tag("target", "primary")
+                .description("Read-only connections handed out, by the pool that served them")
+                .register(meterRegistry);
+        return dataSource;
+    }
+
+    // The lazy proxy defers fetching a physical connection until the first statement. By then the transaction
+    // manager has applied readOnly, so a read-only transaction is served from the replica side and any other
+    // transaction from the primary.
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("readOnlyDataSource") ReplicaFallbackDataSource readOnly) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(readOnly);
+        return dataSource;
+    }
+}
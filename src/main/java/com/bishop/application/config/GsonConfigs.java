@@ -1,25 +0,0 @@
-package com.bishop.application.config;
-
-import com.google.gson.*;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-
-import java.lang.reflect.Type;
-import java.time.LocalDateTime;
-
-@Configuration
-public class GsonConfigs {
-
-    @Bean
-    public Gson gson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(LocalDateTime.class, new JsonSerializer<LocalDateTime>() {
-                    @Override
-                    public JsonElement serialize(LocalDateTime src, Type typeOfSrc, JsonSerializationContext context) {
-                        return new JsonPrimitive(src.toString());
-                    }
-                })
-                .setPrettyPrinting()
-                .create();
-    }
-}
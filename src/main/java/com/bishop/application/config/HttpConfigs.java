@@ -1,5 +1,13 @@
 package com.bishop.application.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.apache.http.HeaderElement;
 import org.apache.http.HeaderElementIterator;
 import org.apache.http.HttpResponse;
@@ -24,54 +32,62 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.annotation.Lazy;
 
 import javax.net.ssl.SSLContext;
 import java.io.FileInputStream;
-import java.io.IOException;
 import java.security.KeyStore;
-import java.util.concurrent.TimeUnit;
 
 @Configuration
 public class HttpConfigs {
 
     private static final Logger log = LoggerFactory.getLogger(HttpConfigs.class);
 
-    private static final int CONNECT_TIMEOUT = 15000;
-    private static final int REQUEST_TIMEOUT = 15000;
-    private static final int SOCKET_TIMEOUT = 30000;
-    private static final int MAX_TOTAL_CONNECTIONS = 200;
-    private static final int DEFAULT_MAX_PER_ROUTE = 50;
-    private static final int DEFAULT_KEEP_ALIVE_TIME_MILLIS = 30000;
-    private static final int CLOSE_IDLE_CONNECTION_WAIT_TIME_SECS = 30;
-
     private final String keystoreLocation;
     private final String keystorePassword;
     private final String keystoreType;
     private final boolean skipHostnameVerification;
+    private final int connectTimeout;
+    private final int requestTimeout;
+    private final int socketTimeout;
+    private final long defaultKeepAliveMillis;
+    private final HttpConnectionPoolManager poolManager;
 
     public HttpConfigs(@Value("${server.ssl.key-store}") String keystoreLocation,
                        @Value("${server.ssl.key-store-password}") String keystorePassword,
                        @Value("${server.ssl.key-store-type}") String keystoreType,
-                       @Value("${http.ssl.skip-hostname-verification:false}") boolean skipHostnameVerification) {
+                       @Value("${http.ssl.skip-hostname-verification:false}") boolean skipHostnameVerification,
+                       @Value("${http.client.connect-timeout-ms:15000}") int connectTimeout,
+                       @Value("${http.client.request-timeout-ms:15000}") int requestTimeout,
+                       @Value("${http.client.socket-timeout-ms:30000}") int socketTimeout,
+                       @Value("${http.client.default-keep-alive-ms:30000}") long defaultKeepAliveMillis,
+                       HttpConnectionPoolManager poolManager) {
 
         this.keystoreLocation = keystoreLocation;
         this.keystorePassword = keystorePassword;
         this.keystoreType = keystoreType;
         this.skipHostnameVerification = skipHostnameVerification;
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.socketTimeout = socketTimeout;
+        this.defaultKeepAliveMillis = defaultKeepAliveMillis;
+        this.poolManager = poolManager;
     }
 
+    // Nothing injects the hostname-verifying client today; lazy so its keystore load and pool only happen on first use
     @Bean("connectionManagerForEnabledHostnameVerification")
+    @Lazy
     public PoolingHttpClientConnectionManager connectionManagerForEnabledHostnameVerification() {
-        return buildConnectionManager(false);
+        return buildConnectionManager("closeableHttpClient1", false);
     }
 
     @Bean("connectionManagerForDisabledHostnameVerification")
     public PoolingHttpClientConnectionManager connectionManagerForDisabledHostnameVerification() {
-        return buildConnectionManager(true);
+        return buildConnectionManager("closeableHttpClient2", true);
     }
 
     @Bean("closeableHttpClient1")
+    @Lazy
     public CloseableHttpClient closeableHttpClient1(
             PoolingHttpClientConnectionManager connectionManagerForEnabledHostnameVerification) {
         return buildHttpClient(connectionManagerForEnabledHostnameVerification);
@@ -83,17 +99,9 @@ public class HttpConfigs {
         return buildHttpClient(connectionManagerForDisabledHostnameVerification);
     }
 
-    private PoolingHttpClientConnectionManager buildConnectionManager(boolean disableHostnameVerification) {
-        FileInputStream keystoreFis = null;
-
+    private PoolingHttpClientConnectionManager buildConnectionManager(String name, boolean disableHostnameVerification) {
         try {
-            KeyStore keyStore = KeyStore.getInstance(keystoreType);
-            keystoreFis = new FileInputStream(keystoreLocation);
-            keyStore.load(keystoreFis, keystorePassword.toCharArray());
-
-            SSLContext sslContext = SSLContexts.custom()
-                    .loadKeyMaterial(keyStore, keystorePassword.toCharArray())
-                    .build();
+            SSLContext sslContext = buildSslContext();
 
             SSLConnectionSocketFactory socketFactory;
             if (disableHostnameVerification || skipHostnameVerification) {
@@ -113,28 +121,73 @@ public class HttpConfigs {
                     .register("http", PlainConnectionSocketFactory.INSTANCE)
                     .build();
 
-            PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager(registry);
-            pool.setMaxTotal(MAX_TOTAL_CONNECTIONS);
-            pool.setDefaultMaxPerRoute(DEFAULT_MAX_PER_ROUTE);
-            return pool;
+            return poolManager.create(name, registry);
 
         } catch (Exception e) {
             log.error("Could not initialize SSL connection manager", e);
-            return new PoolingHttpClientConnectionManager();  // fallback
-        } finally {
-            try {
-                if (keystoreFis != null) keystoreFis.close();
-            } catch (IOException e) {
-                log.error("Could not close keystoreFis FileInputStream: " + e.getMessage());
-            }
+            return poolManager.create(name, RegistryBuilder.<ConnectionSocketFactory>create()  // fallback to system defaults
+                    .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                    .register("http", PlainConnectionSocketFactory.INSTANCE)
+                    .build());
         }
     }
 
+    // Non-blocking client for the asynchronous adapter path, with the same TLS material, pool limits and timeouts.
+    // Lazy so the IO reactor threads only start when http.client.async.enabled is set.
+    @Bean(name = "closeableHttpAsyncClient", destroyMethod = "close")
+    @Lazy
+    public CloseableHttpAsyncClient closeableHttpAsyncClient() {
+        PoolingAsyncClientConnectionManagerBuilder poolBuilder = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolManager.getMaxTotal())
+                .setMaxConnPerRoute(poolManager.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                        .setSocketTimeout(Timeout.ofMilliseconds(socketTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(poolManager.getValidateAfterInactivityMillis()))
+                        .build());
+        try {
+            // Mirrors closeableHttpClient2, which the blocking adapter uses
+            poolBuilder.setTlsStrategy(ClientTlsStrategyBuilder.create()
+                    .setSslContext(buildSslContext())
+                    .setHostnameVerifier(org.apache.hc.client5.http.ssl.NoopHostnameVerifier.INSTANCE)
+                    .build());
+            log.warn("Hostname verification DISABLED for the async pool.");
+        } catch (Exception e) {
+            log.error("Could not initialize SSL context for the async connection manager", e);  // fallback to system defaults
+        }
+
+        PoolingAsyncClientConnectionManager pool = poolBuilder.build();
+        poolManager.monitor("closeableHttpAsyncClient", pool);
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(pool)
+                .setDefaultRequestConfig(org.apache.hc.client5.http.config.RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(requestTimeout))
+                        .setResponseTimeout(Timeout.ofMilliseconds(socketTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(poolManager.getIdleTimeoutSeconds()))
+                .build();
+        client.start();
+        return client;
+    }
+
+    // Load the client key material from the configured keystore
+    private SSLContext buildSslContext() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(keystoreType);
+        try (FileInputStream keystoreFis = new FileInputStream(keystoreLocation)) {
+            keyStore.load(keystoreFis, keystorePassword.toCharArray());
+        }
+        return SSLContexts.custom()
+                .loadKeyMaterial(keyStore, keystorePassword.toCharArray())
+                .build();
+    }
+
     private CloseableHttpClient buildHttpClient(PoolingHttpClientConnectionManager cm) {
         RequestConfig config = RequestConfig.custom()
-                .setConnectionRequestTimeout(REQUEST_TIMEOUT)
-                .setConnectTimeout(CONNECT_TIMEOUT)
-                .setSocketTimeout(SOCKET_TIMEOUT)
+                .setConnectionRequestTimeout(requestTimeout)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
                 .build();
 
         return HttpClients.custom()
@@ -155,30 +208,7 @@ public class HttpConfigs {
                     return Long.parseLong(header.getValue()) * 1000;
                 }
             }
-            return DEFAULT_KEEP_ALIVE_TIME_MILLIS;
+            return defaultKeepAliveMillis;
         };
     }
-
-    @Scheduled(fixedDelay = 20000)
-    public void idleConnectionMonitor(
-            PoolingHttpClientConnectionManager connectionManagerForEnabledHostnameVerification,
-            PoolingHttpClientConnectionManager connectionManagerForDisabledHostnameVerification) {
-        cleanIdleConnections(connectionManagerForEnabledHostnameVerification, "secureMgr");
-        cleanIdleConnections(connectionManagerForDisabledHostnameVerification, "insecureMgr");
-    }
-
-    private void cleanIdleConnections(PoolingHttpClientConnectionManager manager, String name) {
-        try {
-            int leased = manager.getTotalStats().getLeased();
-            int available = manager.getTotalStats().getAvailable();
-
-            if (leased > 0 || available > 0) {
-                log.info("Cleaning idle/expired connections in {}...", name);
-                manager.closeExpiredConnections();
-                manager.closeIdleConnections(CLOSE_IDLE_CONNECTION_WAIT_TIME_SECS, TimeUnit.SECONDS);
-            }
-        } catch (Exception e) {
-            log.error("Failed to clean connections for {}: {}", name, e.getMessage());
-        }
-    }
 }
@@ -0,0 +1,196 @@
+package com.bishop.application.config;
+
+import com.bishop.application.util.InstrumentedPoolingConnectionManager;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// Builds the outbound HTTP connection pools from configuration and looks after them while they live:
+// a daemon thread evicts expired and idle connections, and every pool publishes totals and per-route gauges
+@Component
+public class HttpConnectionPoolManager {
+    private static final Logger log = LoggerFactory.getLogger(HttpConnectionPoolManager.class);
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final int validateAfterInactivityMillis;
+    private final long idleTimeoutSeconds;
+    private final MeterRegistry meterRegistry;
+
+    private final List<ManagedPool> pools = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService evictor;
+
+    @Autowired
+    public HttpConnectionPoolManager(@Value("${http.client.pool.max-total:200}") int maxTotal,
+                                     @Value("${http.client.pool.max-per-route:50}") int maxPerRoute,
+                                     @Value("${http.client.pool.validate-after-inactivity-ms:2000}") int validateAfterInactivityMillis,
+                                     @Value("${http.client.pool.idle-timeout-secs:30}") long idleTimeoutSeconds,
+                                     @Value("${http.client.pool.eviction-interval-secs:5}") long evictionIntervalSeconds,
+                                     MeterRegistry meterRegistry) {
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+        this.meterRegistry = meterRegistry;
+
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HttpPoolEvictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictor.scheduleWithFixedDelay(this::maintain, evictionIntervalSeconds, evictionIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Blocking HttpClient 4 pool with lease-wait timing, stale-connection checks and background eviction
+    public PoolingHttpClientConnectionManager create(String name, Registry<ConnectionSocketFactory> socketFactoryRegistry) {
+        Timer leaseWait = Timer.builder("http.client.pool.lease.wait")
+                .tag("pool", name)
+                .description("Time spent waiting to lease a connection from the pool")
+                .register(meterRegistry);
+
+        PoolingHttpClientConnectionManager pool = new InstrumentedPoolingConnectionManager(socketFactoryRegistry, leaseWait);
+        pool.setMaxTotal(maxTotal);
+        pool.setDefaultMaxPerRoute(maxPerRoute);
+        // Check a pooled connection before reuse once it has been idle this long, so a server-side close is
+        // caught here rather than surfacing as NoHttpResponseException on the request
+        pool.setValidateAfterInactivity(validateAfterInactivityMillis);
+
+        register(new ManagedPool(name, pool::getTotalStats, () -> {
+            List<RouteStats> routes = new ArrayList<>();
+            pool.getRoutes().forEach(route -> routes.add(new RouteStats(route.getTargetHost().toHostString(), () -> pool.getStats(route))));
+            return routes;
+        }, () -> {
+            pool.closeExpiredConnections();
+            pool.closeIdleConnections(idleTimeoutSeconds, TimeUnit.SECONDS);
+        }));
+        log.info("HTTP connection pool {} created: maxTotal={}, maxPerRoute={}", name, maxTotal, maxPerRoute);
+        return pool;
+    }
+
+    // The HttpClient 5 async client evicts its own connections, so its pool is only instrumented
+    public void monitor(String name, PoolingAsyncClientConnectionManager pool) {
+        register(new ManagedPool(name, () -> toPoolStats(pool.getTotalStats()), () -> {
+            List<RouteStats> routes = new ArrayList<>();
+            pool.getRoutes().forEach(route -> routes.add(new RouteStats(route.getTargetHost().toHostString(), () -> toPoolStats(pool.getStats(route)))));
+            return routes;
+        }, () -> {
+        }));
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    public int getValidateAfterInactivityMillis() {
+        return validateAfterInactivityMillis;
+    }
+
+    public long getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    private void register(ManagedPool pool) {
+        pools.add(pool);
+        totalGauge(pool, "http.client.pool.leased", "Connections currently leased from the pool", PoolStats::getLeased);
+        totalGauge(pool, "http.client.pool.available", "Idle connections kept alive in the pool", PoolStats::getAvailable);
+        totalGauge(pool, "http.client.pool.pending", "Requests waiting for a connection from the pool", PoolStats::getPending);
+        totalGauge(pool, "http.client.pool.max", "Maximum connections the pool will open", PoolStats::getMax);
+    }
+
+    private void totalGauge(ManagedPool pool, String name, String description, ToIntFunction<PoolStats> value) {
+        Gauge.builder(name, pool, current -> value.applyAsInt(current.totals.get()))
+                .tag("pool", pool.name)
+                .tag("route", "all")
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    // Evict, then refresh the set of per-route gauges; routes are only known once a request has used them
+    private void maintain() {
+        for (ManagedPool pool : pools) {
+            try {
+                pool.evict.run();
+                List<RouteStats> routes = pool.routes.get();
+                // Gauges only hold their source weakly, so keep the route list reachable until the next sweep
+                pool.currentRoutes = routes;
+                pool.routeLeased.register(rows(pool, routes, PoolStats::getLeased), true);
+                pool.routeAvailable.register(rows(pool, routes, PoolStats::getAvailable), true);
+                pool.routePending.register(rows(pool, routes, PoolStats::getPending), true);
+            } catch (Exception e) {
+                log.error("Failed to maintain HTTP connection pool {}: {}", pool.name, e.getMessage());
+            }
+        }
+    }
+
+    private static List<MultiGauge.Row<?>> rows(ManagedPool pool, List<RouteStats> routes, ToIntFunction<PoolStats> value) {
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(routes.size());
+        for (RouteStats route : routes) {
+            rows.add(MultiGauge.Row.of(Tags.of("pool", pool.name, "route", route.route), route, current -> value.applyAsInt(current.stats.get())));
+        }
+        return rows;
+    }
+
+    private static PoolStats toPoolStats(org.apache.hc.core5.pool.PoolStats stats) {
+        return new PoolStats(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+    }
+
+    private record RouteStats(String route, Supplier<PoolStats> stats) {
+    }
+
+    private final class ManagedPool {
+        private final String name;
+        private final Supplier<PoolStats> totals;
+        private final Supplier<List<RouteStats>> routes;
+        private final Runnable evict;
+        private final MultiGauge routeLeased;
+        private final MultiGauge routeAvailable;
+        private final MultiGauge routePending;
+        private volatile List<RouteStats> currentRoutes = List.of();
+
+        private ManagedPool(String name, Supplier<PoolStats> totals,
+                            Supplier<List<RouteStats>> routes, Runnable evict) {
+            this.name = name;
+            this.totals = totals;
+            this.routes = routes;
+            this.evict = evict;
+            this.routeLeased = routeGauge("http.client.pool.route.leased", "Connections leased per route");
+            this.routeAvailable = routeGauge("http.client.pool.route.available", "Idle connections per route");
+            this.routePending = routeGauge("http.client.pool.route.pending", "Requests waiting for a connection per route");
+        }
+
+        private MultiGauge routeGauge(String name, String description) {
+            return MultiGauge.builder(name).description(description).register(meterRegistry);
+        }
+    }
+}
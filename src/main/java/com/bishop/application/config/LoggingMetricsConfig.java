@@ -0,0 +1,47 @@
+package com.bishop.application.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.bishop.application.config.formatter.MeteredAsyncAppender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Iterator;
+
+@Configuration
+public class LoggingMetricsConfig {
+
+    // Publish drop counts and queue depth for the async appenders configured on the root logger (prod profile)
+    @Bean
+    public MeterBinder asyncLogAppenderMetrics() {
+        return registry -> {
+            if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext)) {
+                return;
+            }
+            Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+            for (Iterator<Appender<ILoggingEvent>> it = root.iteratorForAppenders(); it.hasNext(); ) {
+                if (!(it.next() instanceof MeteredAsyncAppender appender)) {
+                    continue;
+                }
+                FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getDroppedCount)
+                        .tag("appender", appender.getName())
+                        .description("Log events dropped by the async appender instead of blocking the caller")
+                        .register(registry);
+                Gauge.builder("logging.async.queue.size", appender, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                        .tag("appender", appender.getName())
+                        .description("Log events waiting for the async appender worker")
+                        .register(registry);
+                Gauge.builder("logging.async.queue.remaining", appender, MeteredAsyncAppender::getRemainingCapacity)
+                        .tag("appender", appender.getName())
+                        .description("Free slots left in the async appender queue")
+                        .register(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package com.bishop.application.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TomcatConfigs {
+    private static final Logger log = LoggerFactory.getLogger(TomcatConfigs.class);
+
+    // With platform threads only server.tomcat.threads.max connections are served at once and the rest wait inside
+    // Tomcat, so server.tomcat.max-connections stays near its default. On virtual threads every accepted connection
+    // gets its own thread, so the higher virtual-threads limit applies instead.
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadConnectionLimit(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${server.tomcat.virtual-threads.max-connections:20000}") int virtualThreadMaxConnections) {
+        return factory -> {
+            if (!virtualThreads) {
+                return;
+            }
+            // Runs after Spring Boot's own Tomcat customizer (order 0), so this value wins over server.tomcat.max-connections
+            factory.addConnectorCustomizers(connector -> connector.setProperty("maxConnections", String.valueOf(virtualThreadMaxConnections)));
+            log.info("Tomcat running on virtual threads, accepting up to {} connections", virtualThreadMaxConnections);
+        };
+    }
+}
@@ -32,14 +32,49 @@ public class CRLFLogConverter extends CompositeConverter<ILoggingEvent> {
         ELEMENTS = Collections.unmodifiableMap(ansiElements);
     }
 
+    private String replacement = "_";
+
+    // Resolve the (optionally colored) replacement once instead of on every event
     @Override
-    protected String transform(ILoggingEvent event, String in) {
+    public void start() {
         AnsiElement element = ELEMENTS.get(getFirstOption());
+        replacement = element == null ? "_" : toAnsiString("_", element);
+        super.start();
+    }
+
+    @Override
+    protected String transform(ILoggingEvent event, String in) {
         if ((event.getMarker() != null && event.getMarker().contains(CRLF_SAFE_MARKER)) || isLoggerSafe(event)) {
             return in;
         }
-        String replacement = element == null ? "_" : toAnsiString("_", element);
-        return in.replaceAll("[\n\r\t]", replacement);
+        return sanitize(in, replacement);
+    }
+
+    // Replace line breaks and tabs; scans first so the common case returns the input without copying
+    public static String sanitize(String in, String replacement) {
+        int length = in.length();
+        int i = 0;
+        while (i < length && !isLineBreakOrTab(in.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return in;
+        }
+        StringBuilder out = new StringBuilder(length + 8);
+        out.append(in, 0, i);
+        for (; i < length; i++) {
+            char c = in.charAt(i);
+            if (isLineBreakOrTab(c)) {
+                out.append(replacement);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static boolean isLineBreakOrTab(char c) {
+        return c == '\n' || c == '\r' || c == '\t';
     }
 
     protected boolean isLoggerSafe(ILoggingEvent event) {
@@ -0,0 +1,63 @@
+package com.bishop.application.config.formatter;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+
+import java.time.format.DateTimeFormatter;
+
+// One JSON object per line with no ANSI codes. JSON string escaping already covers CR, LF and tabs,
+// so messages need no separate CRLF pass.
+public class JsonLogLayout extends LayoutBase<ILoggingEvent> {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"timestamp\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(event.getInstant(), json);
+        json.append("\",\"level\":\"").append(event.getLevel().toString());
+        json.append("\",\"thread\":\"");
+        appendEscaped(json, event.getThreadName());
+        json.append("\",\"logger\":\"");
+        appendEscaped(json, event.getLoggerName());
+        json.append("\",\"message\":\"");
+        appendEscaped(json, event.getFormattedMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            json.append("\",\"exception\":\"");
+            appendEscaped(json, ThrowableProxyUtil.asString(throwable));
+        }
+        json.append("\"}").append(CoreConstants.LINE_SEPARATOR);
+        return json.toString();
+    }
+
+    // Copy runs of safe characters in bulk and escape only quotes, backslashes and control characters
+    static void appendEscaped(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, start, i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+            start = i + 1;
+        }
+        out.append(value, start, length);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bishop.application.config.formatter;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// AsyncAppender that counts the events it drops, either because the queue passed the discarding threshold
+// or because it was full with neverBlock set. LoggingMetricsConfig publishes the count.
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    // Only called once the queue is below the discarding threshold, so true means the event is dropped
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            droppedEvents.increment();
+        }
+        return discardable;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // The base class drops silently when a non-blocking offer fails; a full queue is the best signal we have
+        // here, so the count is approximate while the worker is draining concurrently
+        if (isNeverBlock() && getRemainingCapacity() == 0
+                && !(getDiscardingThreshold() > 0 && super.isDiscardable(event))) {
+            droppedEvents.increment();
+        }
+        super.append(event);
+    }
+
+    public long getDroppedCount() {
+        return droppedEvents.sum();
+    }
+}
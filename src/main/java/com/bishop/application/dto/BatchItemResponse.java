@@ -0,0 +1,43 @@
+package com.bishop.application.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+// One NDJSON result line of the batch endpoint: the TransactionResponse the single endpoint would have returned,
+// plus the input line it answers and the HTTP status the single endpoint would have used
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({
+        "line",
+        "httpStatus"
+})
+public class BatchItemResponse {
+
+    @JsonProperty("line")
+    private final int line;
+
+    @JsonProperty("httpStatus")
+    private final int httpStatus;
+
+    @JsonUnwrapped
+    private final TransactionResponse response;
+
+    public BatchItemResponse(int line, int httpStatus, TransactionResponse response) {
+        this.line = line;
+        this.httpStatus = httpStatus;
+        this.response = response;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public TransactionResponse getResponse() {
+        return response;
+    }
+}
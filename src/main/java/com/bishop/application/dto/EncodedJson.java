@@ -0,0 +1,24 @@
+package com.bishop.application.dto;
+
+import java.nio.charset.StandardCharsets;
+
+// A value serialized once as compact UTF-8 JSON. The same bytes are sent on the wire and rendered in log lines,
+// so callers must treat the array as read-only.
+public final class EncodedJson {
+
+    private final byte[] bytes;
+
+    public EncodedJson(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    // Decoded only when a log statement actually renders this argument
+    @Override
+    public String toString() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,86 @@
+package com.bishop.application.dto;
+
+import com.bishop.application.enums.TransactionType;
+
+import java.time.LocalDateTime;
+
+// Immutable status change waiting to be written to transaction_details by the write-behind stage
+public class PendingStatusUpdate {
+
+    private final String rrn;
+    private final TransactionType transactionType;
+    private final String status;
+    private final String statusCode;
+    private final String statusDesc;
+    private final String tranId;
+    private final LocalDateTime updatedAt;
+    private final long enqueuedAtNanos;
+
+    public PendingStatusUpdate(String rrn,
+                               TransactionType transactionType,
+                               String status,
+                               String statusCode,
+                               String statusDesc,
+                               String tranId,
+                               LocalDateTime updatedAt,
+                               long enqueuedAtNanos) {
+        this.rrn = rrn;
+        this.transactionType = transactionType;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.statusDesc = statusDesc;
+        this.tranId = tranId;
+        this.updatedAt = updatedAt;
+        this.enqueuedAtNanos = enqueuedAtNanos;
+    }
+
+    // Build a pending update from the response returned to the channel
+    public static PendingStatusUpdate from(String rrn, TransactionType type, TransactionResponse response) {
+        return new PendingStatusUpdate(
+                rrn,
+                type,
+                response.getStatus(),
+                response.getStatusCode(),
+                response.getStatusDesc(),
+                response.getTranId(),
+                LocalDateTime.now(),
+                System.nanoTime());
+    }
+
+    // Key used to coalesce several updates for the same transaction into one row write
+    public String coalescingKey() {
+        return transactionType.name() + ':' + rrn;
+    }
+
+    public String getRrn() {
+        return rrn;
+    }
+
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getStatusCode() {
+        return statusCode;
+    }
+
+    public String getStatusDesc() {
+        return statusDesc;
+    }
+
+    public String getTranId() {
+        return tranId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public long getEnqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+}
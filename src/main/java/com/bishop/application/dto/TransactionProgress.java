@@ -0,0 +1,18 @@
+package com.bishop.application.dto;
+
+import com.bishop.application.enums.ProcessingStage;
+
+// Furthest stage one transaction request has reached. The controller keeps it as a request attribute and the
+// request processor advances it, so the exception handler can tell whether there is a record to update.
+public class TransactionProgress {
+
+    private ProcessingStage stage = ProcessingStage.RECEIVED;
+
+    public ProcessingStage getStage() {
+        return stage;
+    }
+
+    public void advanceTo(ProcessingStage stage) {
+        this.stage = stage;
+    }
+}
@@ -0,0 +1,93 @@
+package com.bishop.application.dto;
+
+import com.bishop.application.enums.TransactionType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+
+// Read-only status projection of a transaction_details row, as cached and returned by the status lookup endpoint
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({
+        "rrn",
+        "transactionType",
+        "status",
+        "statusCode",
+        "statusDesc",
+        "tranId",
+        "updatedAt"
+})
+public class TransactionStatusView {
+
+    private final String rrn;
+    private final TransactionType transactionType;
+    private final String status;
+    private final String statusCode;
+    private final String statusDesc;
+    private final String tranId;
+    private final LocalDateTime updatedAt;
+
+    // Also used as a JPQL constructor expression, so the parameter order matches the projection query
+    public TransactionStatusView(String rrn,
+                                 TransactionType transactionType,
+                                 String status,
+                                 String statusCode,
+                                 String statusDesc,
+                                 String tranId,
+                                 LocalDateTime updatedAt) {
+        this.rrn = rrn;
+        this.transactionType = transactionType;
+        this.status = status;
+        this.statusCode = statusCode;
+        this.statusDesc = statusDesc;
+        this.tranId = tranId;
+        this.updatedAt = updatedAt;
+    }
+
+    public static TransactionStatusView from(PendingStatusUpdate update) {
+        return new TransactionStatusView(
+                update.getRrn(),
+                update.getTransactionType(),
+                update.getStatus(),
+                update.getStatusCode(),
+                update.getStatusDesc(),
+                update.getTranId(),
+                update.getUpdatedAt());
+    }
+
+    @JsonProperty("rrn")
+    public String getRrn() {
+        return rrn;
+    }
+
+    @JsonProperty("transactionType")
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    @JsonProperty("status")
+    public String getStatus() {
+        return status;
+    }
+
+    @JsonProperty("statusCode")
+    public String getStatusCode() {
+        return statusCode;
+    }
+
+    @JsonProperty("statusDesc")
+    public String getStatusDesc() {
+        return statusDesc;
+    }
+
+    @JsonProperty("tranId")
+    public String getTranId() {
+        return tranId;
+    }
+
+    @JsonProperty("updatedAt")
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
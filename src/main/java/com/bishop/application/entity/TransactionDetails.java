@@ -4,13 +4,21 @@ import com.bishop.application.enums.TransactionType;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction_details", indexes = {
-        @Index(name = "idx_transaction_type", columnList = "transactionType")
+// The schema is owned by the Flyway migrations in db/migration; these mappings mirror them and are validated at startup.
+// With transaction.partitioning enabled, TransactionPartitionServiceImpl replaces the unique key and primary key with
+// partition-compatible ones and partitions the table by created_at
+@Table(name = "transaction_details", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rrn_transaction_type", columnNames = {"rrn", "transactionType"})
+}, indexes = {
+        @Index(name = "idx_created_at_rrn_type", columnList = "created_at, rrn, transactionType"),
+        @Index(name = "idx_status_created_at", columnList = "status, created_at, rrn, transactionType")
 })
 public class TransactionDetails {
     private static final long serialVersionUID = 1L;
@@ -20,26 +28,28 @@ public class TransactionDetails {
     @SequenceGenerator(name = "tran_seq", sequenceName = "tran_seq", allocationSize = 10)
     private Long id;
 
-    @Column(name = "rrn", nullable = false, unique = true)
+    @Column(name = "rrn", nullable = false, length = 20)
     private String rrn;
 
-    @Column(name = "sender_name", nullable = false)
+    @Column(name = "sender_name", nullable = false, length = 100)
     private String senderName;
 
-    @Column(name = "receiver_name", nullable = false)
+    @Column(name = "receiver_name", nullable = false, length = 100)
     private String receiverName;
 
-    @Column(nullable = false, precision = 18, scale = 2)
+    @Column(nullable = false, precision = 20, scale = 2)
     private BigDecimal amount;
 
-    @Column(name = "currency", nullable = false)
+    @Column(name = "currency", nullable = false, length = 3)
     private String currency;
 
-    @Column(name = "channel_id", nullable = false)
+    @Column(name = "channel_id", nullable = false, length = 20)
     private String channelId;
 
+    // A VARCHAR rather than Hibernate's native ENUM column, so a new type needs no table rewrite
     @Enumerated(EnumType.STRING)
-    @Column(name = "transactionType", nullable = false)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "transactionType", nullable = false, length = 32)
     private TransactionType transactionType;
 
     @Column(name = "status")
@@ -54,7 +64,7 @@ public class TransactionDetails {
     @Column(name = "tran_id")
     private String tranId;
 
-    @Column(name = "created_at")
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at")
@@ -0,0 +1,8 @@
+package com.bishop.application.enums;
+
+public enum DeduplicationMode {
+    // SELECT by (rrn, transactionType) first, then INSERT when no record was found
+    SELECT_THEN_INSERT,
+    // INSERT straight away and let the (rrn, transaction_type) unique key reject duplicates
+    INSERT_FIRST
+}
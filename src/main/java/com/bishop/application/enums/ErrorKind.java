@@ -0,0 +1,48 @@
+package com.bishop.application.enums;
+
+// Every way a transaction request can fail, with the HTTP status and transaction status the channel receives.
+// Messages that take a detail end in ". " so the detail can be appended as is.
+public enum ErrorKind {
+    // Bean validation or request parsing rejected the input
+    FIELD_VALIDATION(400, TransactionStatus.FAILURE, "Internal Error: Field Validation Failed. "),
+    // The downstream call failed before an answer arrived, other than by timing out
+    HTTP_CALL_FAILED(400, TransactionStatus.FAILURE, "Internal Error: HTTP Call To The URL Was Unsuccessful. "),
+    // Unexpected failure with no more specific kind
+    PROCESSING_FAILURE(400, TransactionStatus.FAILURE, "Internal Error: Could not process the request. "),
+    // Status lookup for an unknown RRN and type
+    TRANSACTION_NOT_FOUND(404, TransactionStatus.FAILURE, "Transaction Not Found: No transaction exists with the given RRN and type."),
+    // The RRN has already been processed for this type
+    DUPLICATE_RECORD(409, TransactionStatus.FAILURE, "De-Dup! The request is a duplicate and has already been processed."),
+    // No usable answer from the downstream in time, or an empty one
+    TIMEOUT(408, TransactionStatus.TIMEOUT, "Did not receive a response from remote service, possibly due to timeout. "),
+    // Saving the initial record failed
+    DATABASE_ERROR(400, TransactionStatus.FAILURE, "Internal Database Error: Error occurred while saving transaction: "),
+    // The downstream answered with a body that could not be mapped
+    RESPONSE_PROCESSING_FAILURE(400, TransactionStatus.FAILURE, "Internal Error: Could not process the received response. "),
+    // The circuit breaker is open, so the request was neither saved nor sent
+    CIRCUIT_OPEN(503, TransactionStatus.FAILURE, "Downstream Unavailable: Circuit breaker is open, the request was not sent. "),
+    // The admission limiter shed the request before it was read
+    SERVICE_OVERLOADED(503, TransactionStatus.FAILURE, "Service Overloaded: Too many transactions in flight, retry later.");
+
+    private final int httpStatus;
+    private final TransactionStatus transactionStatus;
+    private final String message;
+
+    ErrorKind(int httpStatus, TransactionStatus transactionStatus, String message) {
+        this.httpStatus = httpStatus;
+        this.transactionStatus = transactionStatus;
+        this.message = message;
+    }
+
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public TransactionStatus getTransactionStatus() {
+        return transactionStatus;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bishop.application.enums;
+
+public enum JournalFsyncPolicy {
+    // Force each record to disk before the append returns
+    PER_WRITE,
+    // Force the active segment on a fixed interval, so one fsync covers every record written in between
+    INTERVAL,
+    // Leave flushing to the OS; records survive a JVM crash but not a host crash
+    NONE
+}
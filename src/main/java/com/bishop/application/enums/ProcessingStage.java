@@ -0,0 +1,25 @@
+package com.bishop.application.enums;
+
+public enum ProcessingStage {
+    // Request accepted by the controller, nothing checked yet
+    RECEIVED,
+    // Input fields passed validation
+    VALIDATED,
+    // The dedup SELECT found no existing record (SELECT_THEN_INSERT mode only; INSERT_FIRST dedups on the insert)
+    DEDUPED,
+    // The initial record for this request is committed
+    PERSISTED,
+    // The downstream call has been issued
+    DISPATCHED;
+
+    private final String tagValue = name().toLowerCase();
+
+    public String getTagValue() {
+        return tagValue;
+    }
+
+    // Only a request that committed its own record has a row for a status update to change
+    public boolean hasRecord() {
+        return compareTo(PERSISTED) >= 0;
+    }
+}
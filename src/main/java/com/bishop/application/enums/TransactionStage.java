@@ -0,0 +1,26 @@
+package com.bishop.application.enums;
+
+public enum TransactionStage {
+    // Whole POST /api/v1/transaction processing, from validation to the downstream response being mapped
+    TOTAL,
+    // Validation, circuit breaker permission, dedup and the initial insert including its commit
+    PREPARE,
+    // The dedup SELECT by (rrn, transactionType)
+    DEDUP_SELECT,
+    // saveAndFlush of the initial record
+    INSERT,
+    // Downstream call until the response head has arrived
+    DOWNSTREAM_CALL,
+    // Reading and mapping the downstream JSON body
+    RESPONSE_PARSE,
+    // Handing the status update to the journal, write-behind buffer or executor
+    STATUS_HANDOFF,
+    // The status UPDATE statement(s) themselves
+    STATUS_UPDATE;
+
+    private final String tagValue = name().toLowerCase();
+
+    public String getTagValue() {
+        return tagValue;
+    }
+}
@@ -1,5 +1,7 @@
 package com.bishop.application.enums;
 
+import java.util.List;
+
 public enum TransactionStatus {
 
     INITIALIZED("001", "Transaction initialized"),
@@ -8,6 +10,9 @@ public enum TransactionStatus {
     FAILURE("01", "Transaction failed"),
     TIMEOUT("-3", "Transaction timed out");
 
+    // Longest list returned by allowedPredecessors, used to size fixed-arity SQL guards
+    public static final int MAX_PREDECESSORS = 3;
+
     private final String code;
     private final String description;
 
@@ -23,4 +28,36 @@ public enum TransactionStatus {
     public String getDescription() {
         return description;
     }
+
+    // Resolve a stored or received status name, returning null for values outside this enum
+    public static TransactionStatus fromName(String name) {
+        if (name == null) {
+            return null;
+        }
+        for (TransactionStatus status : values()) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    // Statuses a record may currently hold for it to move to the given target status.
+    // SUCCESS and FAILURE are final; TIMEOUT can still be resolved to a final status later.
+    public static List<String> allowedPredecessors(String targetStatus) {
+        TransactionStatus target = fromName(targetStatus);
+        if (target == null) {
+            return List.of(INITIALIZED.name(), PENDING.name());
+        }
+        return switch (target) {
+            case INITIALIZED -> List.of();
+            case PENDING -> List.of(INITIALIZED.name());
+            case TIMEOUT -> List.of(INITIALIZED.name(), PENDING.name());
+            case SUCCESS, FAILURE -> List.of(INITIALIZED.name(), PENDING.name(), TIMEOUT.name());
+        };
+    }
+
+    public static boolean isTransitionAllowed(String currentStatus, String targetStatus) {
+        return allowedPredecessors(targetStatus).contains(currentStatus);
+    }
 }
@@ -1,15 +1,34 @@
 package com.bishop.application.exception;
 
+import com.bishop.application.enums.ErrorKind;
+
+// Expected failure of a transaction request. It is control flow rather than a bug, so it is built without a stack
+// trace or suppression list; during a downstream outage every request ends in one of these.
 public class CustomException extends Exception {
-    private final String message;
+    private final ErrorKind kind;
+    private final String detail;
+
+    public CustomException(ErrorKind kind) {
+        this(kind, null);
+    }
+
+    public CustomException(ErrorKind kind, String detail) {
+        super(null, null, false, false);
+        this.kind = kind;
+        this.detail = detail;
+    }
+
+    public ErrorKind getKind() {
+        return kind;
+    }
 
-    public CustomException(String message) {
-        super(message);
-        this.message = message;
+    // Cause-specific text appended to the kind's message, or null for the constant message
+    public String getDetail() {
+        return detail;
     }
 
     @Override
     public String getMessage() {
-        return message;
+        return detail == null ? kind.getMessage() : kind.getMessage() + detail;
     }
 }
@@ -1,69 +1,80 @@
 package com.bishop.application.exception;
 
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionProgress;
 import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.enums.ErrorKind;
 import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.JsonCodecService;
+import com.bishop.application.service.TransactionMetricsService;
 import com.bishop.application.service.TransactionUpdateService;
-import com.google.gson.Gson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
-import static com.bishop.application.config.ApplicationConstants.*;
-import static com.bishop.application.enums.TransactionStatus.FAILURE;
-import static com.bishop.application.enums.TransactionStatus.TIMEOUT;
-
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
-    private final Gson gson;
+    private final JsonCodecService jsonCodecService;
     private final TransactionUpdateService transactionUpdateService;
+    private final TransactionMetricsService transactionMetricsService;
+    private final Map<ErrorKind, ErrorResponse> constantResponses = new EnumMap<>(ErrorKind.class);
 
     @Autowired
-    public GlobalExceptionHandler(Gson gson,
-                                  TransactionUpdateService transactionUpdateService) {
-        this.gson = gson;
+    public GlobalExceptionHandler(JsonCodecService jsonCodecService,
+                                  TransactionUpdateService transactionUpdateService,
+                                  TransactionMetricsService transactionMetricsService) {
+        this.jsonCodecService = jsonCodecService;
         this.transactionUpdateService = transactionUpdateService;
+        this.transactionMetricsService = transactionMetricsService;
+
+        for (ErrorKind kind : ErrorKind.values()) {
+            constantResponses.put(kind, new ErrorResponse(generateResponse(kind, kind.getMessage()), jsonCodecService));
+        }
     }
 
     @ExceptionHandler(CustomException.class)
-    public ResponseEntity<?> handleCustomExceptions(CustomException e, WebRequest request) {
-        String exceptionMessage = e.getMessage();
-        log.info("Complete Exception Message: " + exceptionMessage);
+    public ResponseEntity<byte[]> handleCustomExceptions(CustomException e, WebRequest request) {
+        ErrorKind kind = e.getKind();
+        log.info("Complete Exception Message: {}", e.getMessage());
 
         String rrn = (String) request.getAttribute("rrn", WebRequest.SCOPE_REQUEST);
         TransactionType type = (TransactionType) request.getAttribute("type", WebRequest.SCOPE_REQUEST);
-
-        // Parse error code and error message from the exception
-        Map<String, String> errorMap = getErrorDesc(exceptionMessage);
-        String errorMessage = errorMap.getOrDefault("message", "An unexpected error occurred");
-        String httpStatusCode = errorMap.getOrDefault("code", String.valueOf(DEFAULT_HTTP_STATUS_CODE));
-
-        // Validate HTTP status code (must be between 100-599)
-        if ("0".equals(httpStatusCode) || httpStatusCode.isBlank()) {
-            httpStatusCode = String.valueOf(DEFAULT_HTTP_STATUS_CODE);
-        }
-        if (Integer.parseInt(httpStatusCode) < 100 || Integer.parseInt(httpStatusCode) > 599) {
-            httpStatusCode = String.valueOf(DEFAULT_HTTP_STATUS_CODE);
+        TransactionProgress progress = (TransactionProgress) request.getAttribute("progress", WebRequest.SCOPE_REQUEST);
+
+        // Constant errors reuse the response and bytes built at startup; only a detail needs a fresh encode
+        ErrorResponse errorResponse = e.getDetail() == null
+                ? constantResponses.get(kind)
+                : new ErrorResponse(generateResponse(kind, e.getMessage()), jsonCodecService);
+
+        // Update database asynchronously with failed status, but only once this request has committed its own record.
+        // Earlier failures (validation, open circuit, duplicate, failed insert) have nothing to update, and for a
+        // duplicate the row belongs to the original request. A status lookup carries no progress at all.
+        if (progress != null) {
+            if (progress.getStage().hasRecord()) {
+                updateDatabaseRecord(rrn, errorResponse.response, type);
+            } else {
+                transactionMetricsService.recordStatusUpdateAvoided(type, progress.getStage(), kind);
+            }
         }
 
-        // Generate TransactionResponse object for the failure
-        TransactionResponse response = generateResponse(errorMessage, rrn);
-
-        // Update database asynchronously with failed status
-        updateDatabaseRecord(rrn, response, type);
+        if (type != null) {
+            transactionMetricsService.recordOutcome(type, kind.getHttpStatus());
+        }
 
-        // Log and return the error response
-        log.info("{}: Returned {} Response To Channel: {}", rrn, type, gson.toJson(response));
-        return new ResponseEntity<>(response, HttpStatus.valueOf(Integer.parseInt(httpStatusCode)));
+        log.info("{}: Returned {} Response To Channel: {}", rrn, type, errorResponse.body);
+        return ResponseEntity.status(kind.getHttpStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorResponse.body.getBytes());
     }
 
     // No @Transactional here because database update is handled asynchronously in background thread
@@ -71,44 +82,23 @@ public class GlobalExceptionHandler {
         transactionUpdateService.updateDbStatus(rrn, response, type);
     }
 
-    // Create a failure response based on error type
-    private TransactionResponse generateResponse(String errorMessage, String rrn) {
-        String errorCode = String.valueOf(FAILURE.getCode());
-        String errorStatus = FAILURE.name();
-
-        // Special handling for timeout errors
-        if (errorMessage.contains("timeout")
-                || errorMessage.contains("time out")
-                || errorMessage.contains("timed out")) {
-            errorCode = String.valueOf(TIMEOUT.getCode());
-            errorStatus = TIMEOUT.name();
-        }
-
+    // Create the failure response the channel receives for an error kind
+    private static TransactionResponse generateResponse(ErrorKind kind, String errorMessage) {
         TransactionResponse transactionResponse = new TransactionResponse();
-        transactionResponse.setStatus(errorStatus);
-        transactionResponse.setStatusCode(errorCode);
+        transactionResponse.setStatus(kind.getTransactionStatus().name());
+        transactionResponse.setStatusCode(kind.getTransactionStatus().getCode());
         transactionResponse.setStatusDesc(errorMessage);
-
         return transactionResponse;
     }
 
-    // Parse the error string into a map with code and message parts
-    private Map<String, String> getErrorDesc(String errorMessage) {
-        Map<String, String> errorMap = new HashMap<>();
-
-        if (errorMessage == null || errorMessage.isEmpty()) {
-            errorMessage = DEFAULT_PROCESSING_FAILURE;
-        }
-
-        String[] parts = errorMessage.split("\\|", 2); // Split into two parts: code and message
+    // A failure response together with its encoded body; shared instances are never modified
+    private static final class ErrorResponse {
+        private final TransactionResponse response;
+        private final EncodedJson body;
 
-        if (parts.length == 2) {
-            errorMap.put("code", parts[0]);
-            errorMap.put("message", parts[1]);
-        } else {
-            errorMap.put("code", "400");
-            errorMap.put("message", "Internal Error: Could not process the request");
+        private ErrorResponse(TransactionResponse response, JsonCodecService jsonCodecService) {
+            this.response = response;
+            this.body = jsonCodecService.encode(response);
         }
-        return errorMap;
     }
 }
@@ -0,0 +1,41 @@
+package com.bishop.application.jfr;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Emitted when a status update is picked up for writing. The wait is taken from the update's timestamp rather than
+// the event's own duration, because it starts on the response thread and may even span a restart (journal replay).
+@Name("com.bishop.transaction.AsyncQueueWait")
+@Label("Transaction Async Queue Wait")
+public class AsyncQueueWaitEvent extends TransactionEvent {
+
+    @Label("Queue Wait")
+    @Description("Time from handing the status update off to it being picked up for the database write")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    @Label("Path")
+    @Description("Where the update waited: executor, write-behind or journal")
+    String path;
+
+    public static void emit(List<PendingStatusUpdate> updates, String path) {
+        AsyncQueueWaitEvent probe = new AsyncQueueWaitEvent();
+        if (!probe.isEnabled()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (PendingStatusUpdate update : updates) {
+            AsyncQueueWaitEvent event = new AsyncQueueWaitEvent();
+            event.queueWait = Math.max(0, Duration.between(update.getUpdatedAt(), now).toNanos());
+            event.path = path;
+            event.complete(update.getRrn(), update.getTransactionType(), update.getStatus());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.bishop.application.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Duplicate check before the initial insert: the RRN filter probe and, when it cannot rule the RRN out, the SELECT
+@Name("com.bishop.transaction.DedupCheck")
+@Label("Transaction Dedup Check")
+public class DedupCheckEvent extends TransactionEvent {
+}
@@ -0,0 +1,34 @@
+package com.bishop.application.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Outbound HTTP call to the transaction service, split into the wait for a pooled connection and the time on the wire
+@Name("com.bishop.transaction.DownstreamCall")
+@Label("Transaction Downstream Call")
+public class DownstreamCallEvent extends TransactionEvent {
+
+    @Label("Connection Wait")
+    @Description("Time spent waiting to lease a connection from the pool; zero on the async client, which does not expose it")
+    @Timespan(Timespan.NANOSECONDS)
+    long connectionWait;
+
+    @Label("Wire Time")
+    @Description("Time from holding a connection until the response arrived or the call failed")
+    @Timespan(Timespan.NANOSECONDS)
+    long wireTime;
+
+    @Label("HTTP Status")
+    int httpStatus;
+
+    public void setTimings(long connectionWaitNanos, long totalNanos) {
+        this.connectionWait = connectionWaitNanos;
+        this.wireTime = Math.max(0, totalNanos - connectionWaitNanos);
+    }
+
+    public void setHttpStatus(int httpStatus) {
+        this.httpStatus = httpStatus;
+    }
+}
@@ -0,0 +1,10 @@
+package com.bishop.application.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Insert of the INITIALIZED record, including the commit of its transaction
+@Name("com.bishop.transaction.InitialInsert")
+@Label("Transaction Initial Insert")
+public class InitialInsertEvent extends TransactionEvent {
+}
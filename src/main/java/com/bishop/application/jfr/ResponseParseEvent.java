@@ -0,0 +1,10 @@
+package com.bishop.application.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Reading and mapping the downstream response into the channel response
+@Name("com.bishop.transaction.ResponseParse")
+@Label("Transaction Response Parse")
+public class ResponseParseEvent extends TransactionEvent {
+}
@@ -0,0 +1,49 @@
+package com.bishop.application.jfr;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Database write that applies a status update. Updates written in one batch share its duration and carry its size.
+@Name("com.bishop.transaction.StatusUpdateCommit")
+@Label("Transaction Status Update Commit")
+public class StatusUpdateCommitEvent extends TransactionEvent {
+
+    @Label("Status")
+    @Description("Status the update moves the record to")
+    String status;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    // Begin one event per update, or return an empty list when the recording does not want them
+    public static List<StatusUpdateCommitEvent> beginAll(List<PendingStatusUpdate> updates) {
+        StatusUpdateCommitEvent probe = new StatusUpdateCommitEvent();
+        if (!probe.isEnabled()) {
+            return List.of();
+        }
+        List<StatusUpdateCommitEvent> events = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            StatusUpdateCommitEvent event = new StatusUpdateCommitEvent();
+            event.begin();
+            events.add(event);
+        }
+        return events;
+    }
+
+    public static void completeAll(List<StatusUpdateCommitEvent> events, List<PendingStatusUpdate> updates, String outcome) {
+        for (int i = 0; i < events.size(); i++) {
+            events.get(i).complete(updates.get(i), updates.size(), outcome);
+        }
+    }
+
+    public void complete(PendingStatusUpdate update, int batchSize, String outcome) {
+        this.status = update.getStatus();
+        this.batchSize = batchSize;
+        complete(update.getRrn(), update.getTransactionType(), outcome);
+    }
+}
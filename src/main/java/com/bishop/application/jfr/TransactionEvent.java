@@ -0,0 +1,36 @@
+package com.bishop.application.jfr;
+
+import com.bishop.application.enums.TransactionType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+// Common fields of the transaction lifecycle events, so a recording can be filtered down to a single RRN.
+// Stack traces are off: the stage is known from the event type, and walking the stack is most of an event's cost.
+@Category({"Bishop", "Transaction"})
+@StackTrace(false)
+public abstract class TransactionEvent extends Event {
+
+    @Label("RRN")
+    String rrn;
+
+    @Label("Transaction Type")
+    String transactionType;
+
+    @Label("Outcome")
+    @Description("Result of the stage, for example success, duplicate, timeout or error")
+    String outcome;
+
+    // Stop the clock and, if the recording wants this event, fill in the request details and commit it
+    public void complete(String rrn, TransactionType type, String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.rrn = rrn;
+            this.transactionType = type == null ? null : type.name();
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
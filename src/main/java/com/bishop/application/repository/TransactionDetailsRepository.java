@@ -1,14 +1,45 @@
 package com.bishop.application.repository;
 
-
+import com.bishop.application.dto.TransactionStatusView;
 import com.bishop.application.entity.TransactionDetails;
 import com.bishop.application.enums.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
+// Lookups by (rrn, transactionType) are bounded by createdAt >= since, the start of the dedup window: the pair is
+// only unique within it once the table is partitioned, and the bound lets MySQL prune older partitions
 public interface TransactionDetailsRepository extends JpaRepository<TransactionDetails, Long> {
     @Transactional(readOnly = true)
-    Optional<TransactionDetails> findByRrnAndTransactionType(String rrn, TransactionType type);
+    Optional<TransactionDetails> findByRrnAndTransactionTypeAndCreatedAtGreaterThanEqual(String rrn, TransactionType type, LocalDateTime since);
+
+    // Status columns only, without loading or managing the full entity
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.bishop.application.dto.TransactionStatusView(t.rrn, t.transactionType, t.status, t.statusCode, "
+            + "t.statusDesc, t.tranId, t.updatedAt) FROM TransactionDetails t "
+            + "WHERE t.rrn = :rrn AND t.transactionType = :type AND t.createdAt >= :since")
+    Optional<TransactionStatusView> findStatusByRrnAndTransactionType(@Param("rrn") String rrn,
+                                                                      @Param("type") TransactionType type,
+                                                                      @Param("since") LocalDateTime since);
+
+    // Single-statement status update, only applied while the row is in one of the allowed source statuses
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE TransactionDetails t SET t.status = :status, t.statusCode = :statusCode, t.statusDesc = :statusDesc, "
+            + "t.tranId = :tranId, t.updatedAt = :updatedAt "
+            + "WHERE t.rrn = :rrn AND t.transactionType = :type AND t.createdAt >= :since AND t.status IN :currentStatuses")
+    int updateStatusIfCurrentIn(@Param("rrn") String rrn,
+                                @Param("type") TransactionType type,
+                                @Param("status") String status,
+                                @Param("statusCode") String statusCode,
+                                @Param("statusDesc") String statusDesc,
+                                @Param("tranId") String tranId,
+                                @Param("updatedAt") LocalDateTime updatedAt,
+                                @Param("since") LocalDateTime since,
+                                @Param("currentStatuses") Collection<String> currentStatuses);
 }
@@ -0,0 +1,11 @@
+package com.bishop.application.service;
+
+public interface AdmissionControlService {
+    boolean tryAcquire();
+
+    void release();
+
+    void recordDownstreamLatency(long rttNanos, boolean timedOut);
+
+    int getRetryAfterSeconds();
+}
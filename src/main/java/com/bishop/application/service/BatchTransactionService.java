@@ -0,0 +1,11 @@
+package com.bishop.application.service;
+
+import com.bishop.application.enums.TransactionType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface BatchTransactionService {
+    void processBatch(InputStream requestBody, OutputStream responseBody, TransactionType type) throws IOException;
+}
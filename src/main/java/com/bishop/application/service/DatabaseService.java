@@ -1,15 +1,27 @@
 package com.bishop.application.service;
 
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.dto.TransactionStatusView;
 import com.bishop.application.entity.TransactionDetails;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 public interface DatabaseService {
     void checkTransactionExists(String rrn, TransactionType type) throws CustomException;
 
     void saveInitialCreditTransferEntity(String rrn, TransactionDetails entity) throws CustomException;
 
-    TransactionDetails getSavedRecord(String rrn, TransactionType type);
+    Set<String> findExistingRrns(Collection<String> rrns, TransactionType type);
+
+    void saveInitialEntities(List<TransactionDetails> entities) throws CustomException;
+
+    TransactionStatusView getTransactionStatus(String rrn, TransactionType type);
+
+    boolean updateTransactionStatus(PendingStatusUpdate update);
 
-    void updateTransactionRecord(String rrn, TransactionDetails entity);
+    int batchUpdateTransactionStatus(List<PendingStatusUpdate> updates);
 }
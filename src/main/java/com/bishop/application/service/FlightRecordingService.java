@@ -0,0 +1,10 @@
+package com.bishop.application.service;
+
+import java.io.IOException;
+import java.time.Duration;
+
+public interface FlightRecordingService {
+    boolean isEnabled();
+
+    byte[] dump(Duration window) throws IOException;
+}
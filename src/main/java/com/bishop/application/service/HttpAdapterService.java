@@ -1,10 +1,19 @@
 package com.bishop.application.service;
 
+import com.bishop.application.dto.EncodedJson;
 import com.bishop.application.dto.TransactionRequest;
 import com.bishop.application.dto.TransactionResponse;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface HttpAdapterService {
-    TransactionResponse sendHttpTransactionRequest(TransactionRequest transactionRequest, TransactionType type) throws CustomException;
+    void acquireDownstreamPermission(String rrn) throws CustomException;
+
+    void releaseDownstreamPermission();
+
+    TransactionResponse sendHttpTransactionRequest(TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type) throws CustomException;
+
+    CompletableFuture<TransactionResponse> sendHttpTransactionRequestAsync(TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type);
 }
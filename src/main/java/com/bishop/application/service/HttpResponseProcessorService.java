@@ -3,8 +3,11 @@ package com.bishop.application.service;
 import com.bishop.application.dto.TransactionResponse;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.http.client.methods.CloseableHttpResponse;
 
 public interface HttpResponseProcessorService {
     TransactionResponse processTransactionResponse(String rrn, CloseableHttpResponse response, TransactionType type) throws CustomException;
+
+    TransactionResponse processTransactionResponse(String rrn, SimpleHttpResponse response, TransactionType type) throws CustomException;
 }
@@ -0,0 +1,7 @@
+package com.bishop.application.service;
+
+import com.bishop.application.dto.EncodedJson;
+
+public interface JsonCodecService {
+    EncodedJson encode(Object value);
+}
@@ -1,11 +1,16 @@
 package com.bishop.application.service;
 
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionProgress;
 import com.bishop.application.dto.TransactionRequest;
 import com.bishop.application.dto.TransactionResponse;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
-import org.springframework.validation.BindingResult;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface RequestProcessorService {
-    TransactionResponse processTransactionRequest(String rrn, TransactionRequest transactionRequest, BindingResult bindingResult, TransactionType type) throws CustomException;
+    TransactionResponse processTransactionRequest(String rrn, TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type, TransactionProgress progress) throws CustomException;
+
+    CompletableFuture<TransactionResponse> processTransactionRequestAsync(String rrn, TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type, TransactionProgress progress) throws CustomException;
 }
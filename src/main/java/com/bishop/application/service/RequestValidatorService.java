@@ -0,0 +1,7 @@
+package com.bishop.application.service;
+
+import com.bishop.application.dto.TransactionRequest;
+
+public interface RequestValidatorService {
+    String firstViolation(TransactionRequest request);
+}
@@ -0,0 +1,11 @@
+package com.bishop.application.service;
+
+import com.bishop.application.enums.TransactionType;
+
+public interface RrnFilterService {
+    boolean isDefinitelyNew(String rrn, TransactionType type);
+
+    void recordInserted(String rrn, TransactionType type);
+
+    void recordFalsePositive();
+}
@@ -0,0 +1,11 @@
+package com.bishop.application.service;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+
+import java.io.IOException;
+
+public interface StatusUpdateJournalService {
+    boolean isEnabled();
+
+    void append(PendingStatusUpdate update) throws IOException;
+}
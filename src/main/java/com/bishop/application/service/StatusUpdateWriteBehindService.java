@@ -0,0 +1,9 @@
+package com.bishop.application.service;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+
+public interface StatusUpdateWriteBehindService {
+    boolean isEnabled();
+
+    void enqueue(PendingStatusUpdate update);
+}
@@ -0,0 +1,19 @@
+package com.bishop.application.service;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.ProcessingStage;
+import com.bishop.application.enums.TransactionStage;
+import com.bishop.application.enums.TransactionType;
+
+import java.util.List;
+
+public interface TransactionMetricsService {
+    void recordStage(TransactionStage stage, TransactionType type, long startNanos, boolean success);
+
+    void recordOutcome(TransactionType type, int httpStatus);
+
+    void recordStatusUpdatesCommitted(List<PendingStatusUpdate> updates);
+
+    void recordStatusUpdateAvoided(TransactionType type, ProcessingStage stage, ErrorKind kind);
+}
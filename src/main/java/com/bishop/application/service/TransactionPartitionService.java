@@ -0,0 +1,5 @@
+package com.bishop.application.service;
+
+public interface TransactionPartitionService {
+    void runMaintenance();
+}
@@ -0,0 +1,14 @@
+package com.bishop.application.service;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.dto.TransactionStatusView;
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.TransactionType;
+
+public interface TransactionStatusCacheService {
+    TransactionStatusView getStatus(String rrn, TransactionType type);
+
+    void recordInserted(TransactionDetails entity);
+
+    void recordStatusUpdate(PendingStatusUpdate update);
+}
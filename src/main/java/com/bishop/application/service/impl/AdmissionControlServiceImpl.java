@@ -0,0 +1,92 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.service.AdmissionControlService;
+import com.bishop.application.util.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AdmissionControlServiceImpl implements AdmissionControlService {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlServiceImpl.class);
+
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final AdaptiveConcurrencyLimit limit;
+
+    private final Counter accepted;
+    private final Counter rejected;
+
+    @Autowired
+    public AdmissionControlServiceImpl(@Value("${transaction.limiter.enabled:false}") boolean enabled,
+                                       @Value("${transaction.limiter.initial-limit:20}") int initialLimit,
+                                       @Value("${transaction.limiter.min-limit:4}") int minLimit,
+                                       @Value("${transaction.limiter.max-limit:200}") int maxLimit,
+                                       @Value("${transaction.limiter.tolerance:1.5}") double tolerance,
+                                       @Value("${transaction.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                       @Value("${transaction.limiter.window-ms:100}") long windowMillis,
+                                       @Value("${transaction.limiter.window-min-samples:10}") int windowMinSamples,
+                                       @Value("${transaction.limiter.retry-after-seconds:1}") int retryAfterSeconds,
+                                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, backoffRatio, windowMillis, windowMinSamples);
+
+        this.accepted = Counter.builder("transaction.limiter.requests")
+                .tag("result", "accepted")
+                .description("Transaction requests admitted by the concurrency limiter")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transaction.limiter.requests")
+                .tag("result", "rejected")
+                .description("Transaction requests shed with 503 because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("transaction.limiter.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive in-flight limit for transaction requests")
+                .register(meterRegistry);
+        Gauge.builder("transaction.limiter.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Transaction requests currently holding a limiter slot")
+                .register(meterRegistry);
+        Gauge.builder("transaction.limiter.rtt.baseline", limit, current -> current.getLongRttNanos() / 1_000_000.0)
+                .baseUnit("milliseconds")
+                .description("Long-term average downstream latency the limiter compares each window against")
+                .register(meterRegistry);
+
+        if (enabled) {
+            log.info("Transaction concurrency limiter enabled: initialLimit={}, minLimit={}, maxLimit={}",
+                    limit.getLimit(), minLimit, maxLimit);
+        }
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        if (limit.tryAcquire()) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    @Override
+    public void release() {
+        limit.release();
+    }
+
+    // Called by the HTTP adapter for every downstream call, blocking or async
+    @Override
+    public void recordDownstreamLatency(long rttNanos, boolean timedOut) {
+        if (enabled) {
+            limit.onSample(rttNanos, timedOut);
+        }
+    }
+
+    @Override
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,329 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.BatchItemResponse;
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.exception.CustomException;
+import com.bishop.application.service.BatchTransactionService;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.HttpAdapterService;
+import com.bishop.application.service.JsonCodecService;
+import com.bishop.application.service.RequestValidatorService;
+import com.bishop.application.service.RrnFilterService;
+import com.bishop.application.service.TransactionMapperService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.TransactionUpdateService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Service
+public class BatchTransactionServiceImpl implements BatchTransactionService {
+    private static final Logger log = LoggerFactory.getLogger(BatchTransactionServiceImpl.class);
+
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectReader requestReader;
+    private final RequestValidatorService requestValidatorService;
+    private final JsonCodecService jsonCodecService;
+    private final DatabaseService databaseService;
+    private final RrnFilterService rrnFilterService;
+    private final HttpAdapterService httpAdapterService;
+    private final TransactionMapperService transactionMapperService;
+    private final TransactionUpdateService transactionUpdateService;
+    private final TransactionMetricsService transactionMetricsService;
+    private final int chunkSize;
+    private final int maxConcurrency;
+    private final boolean asyncClientEnabled;
+
+    @Autowired
+    public BatchTransactionServiceImpl(ObjectMapper objectMapper,
+                                       RequestValidatorService requestValidatorService,
+                                       JsonCodecService jsonCodecService,
+                                       DatabaseService databaseService,
+                                       RrnFilterService rrnFilterService,
+                                       HttpAdapterService httpAdapterService,
+                                       TransactionMapperService transactionMapperService,
+                                       TransactionUpdateService transactionUpdateService,
+                                       TransactionMetricsService transactionMetricsService,
+                                       @Value("${transaction.batch.chunk-size:100}") int chunkSize,
+                                       @Value("${transaction.batch.max-concurrency:32}") int maxConcurrency,
+                                       @Value("${http.client.async.enabled:false}") boolean asyncClientEnabled) {
+        this.requestReader = objectMapper.readerFor(TransactionRequest.class);
+        this.requestValidatorService = requestValidatorService;
+        this.jsonCodecService = jsonCodecService;
+        this.databaseService = databaseService;
+        this.rrnFilterService = rrnFilterService;
+        this.httpAdapterService = httpAdapterService;
+        this.transactionMapperService = transactionMapperService;
+        this.transactionUpdateService = transactionUpdateService;
+        this.transactionMetricsService = transactionMetricsService;
+        this.chunkSize = chunkSize;
+        this.maxConcurrency = maxConcurrency;
+        this.asyncClientEnabled = asyncClientEnabled;
+    }
+
+    // Lines are read, validated and persisted a chunk at a time. The reader blocks once maxConcurrency downstream
+    // calls are in flight, so the request body is consumed no faster than the downstream can take it.
+    @Override
+    public void processBatch(InputStream requestBody, OutputStream responseBody, TransactionType type) throws IOException {
+        ResultWriter writer = new ResultWriter(responseBody, type);
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        int lineNumber = 0;
+        int accepted = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(requestBody, StandardCharsets.UTF_8));
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                List<BatchItem> chunk = new ArrayList<>(chunkSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    BatchItem item = parse(lineNumber, line, writer);
+                    if (item == null) {
+                        continue;
+                    }
+                    chunk.add(item);
+                    if (chunk.size() >= chunkSize) {
+                        accepted += processChunk(chunk, type, inFlight, executor, writer);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                accepted += processChunk(chunk, type, inFlight, executor, writer);
+            } finally {
+                // Transactions already sent downstream still get their status update, even if reading failed
+                inFlight.acquireUninterruptibly(maxConcurrency);
+            }
+        }
+        log.info("Batch of {} lines processed, {} transactions sent downstream", lineNumber, accepted);
+    }
+
+    // Parse and validate one line; invalid lines are answered immediately and never reach the database
+    private BatchItem parse(int lineNumber, String line, ResultWriter writer) {
+        TransactionRequest request;
+        try {
+            request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            writer.write(lineNumber, null, ErrorKind.PROCESSING_FAILURE, "Malformed JSON line.");
+            return null;
+        }
+
+        String violation = requestValidatorService.firstViolation(request);
+        if (violation != null) {
+            writer.write(lineNumber, request.getRrn(), ErrorKind.FIELD_VALIDATION, violation);
+            return null;
+        }
+        return new BatchItem(lineNumber, request);
+    }
+
+    private int processChunk(List<BatchItem> chunk, TransactionType type, Semaphore inFlight, ExecutorService executor, ResultWriter writer) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+
+        // Take a circuit breaker permission per item, as the single endpoint does, before any database work
+        List<BatchItem> admitted = new ArrayList<>(chunk.size());
+        Set<String> seen = new HashSet<>();
+        for (BatchItem item : chunk) {
+            String rrn = item.request.getRrn();
+            if (!seen.add(rrn)) {
+                writer.write(item.line, rrn, ErrorKind.DUPLICATE_RECORD, null);
+                continue;
+            }
+            try {
+                httpAdapterService.acquireDownstreamPermission(rrn);
+                admitted.add(item);
+            } catch (CustomException e) {
+                writer.write(item.line, rrn, e);
+            }
+        }
+
+        // One IN (...) query for the RRNs the filter cannot already prove new
+        List<String> unproven = new ArrayList<>();
+        for (BatchItem item : admitted) {
+            if (!rrnFilterService.isDefinitelyNew(item.request.getRrn(), type)) {
+                unproven.add(item.request.getRrn());
+            }
+        }
+        Set<String> existing;
+        try {
+            existing = databaseService.findExistingRrns(unproven, type);
+        } catch (Exception e) {
+            log.error("Batch dedup query failed: {}", e.getMessage());
+            rejectAll(admitted, ErrorKind.DATABASE_ERROR, e.getMessage(), writer);
+            return 0;
+        }
+
+        List<BatchItem> fresh = new ArrayList<>(admitted.size());
+        for (BatchItem item : admitted) {
+            if (existing.contains(item.request.getRrn())) {
+                log.error("{}: Duplicate transaction found for RRN: {}", item.request.getRrn(), item.request.getRrn());
+                httpAdapterService.releaseDownstreamPermission();
+                writer.write(item.line, item.request.getRrn(), ErrorKind.DUPLICATE_RECORD, null);
+            } else {
+                fresh.add(item);
+            }
+        }
+
+        List<BatchItem> persisted = persist(fresh, type, writer);
+        for (BatchItem item : persisted) {
+            inFlight.acquireUninterruptibly();
+            dispatch(item, type, executor).whenCompleteAsync((response, failure) -> {
+                try {
+                    if (failure == null) {
+                        complete(item, response, type, writer);
+                    } else {
+                        fail(item, failure, type, writer);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            }, executor);
+        }
+        return persisted.size();
+    }
+
+    // Insert the chunk as one JDBC batch; if that fails (typically a row inserted concurrently by another request),
+    // fall back to one insert per record so only the offending records fail
+    private List<BatchItem> persist(List<BatchItem> items, TransactionType type, ResultWriter writer) {
+        if (items.isEmpty()) {
+            return items;
+        }
+        List<TransactionDetails> entities = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            entities.add(transactionMapperService.mapRequestToEntity(item.request, type));
+        }
+        try {
+            databaseService.saveInitialEntities(entities);
+            return items;
+        } catch (CustomException e) {
+            log.warn("Batch insert of {} records failed, retrying one by one: {}", items.size(), e.getMessage());
+        }
+
+        List<BatchItem> persisted = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            String rrn = item.request.getRrn();
+            try {
+                databaseService.saveInitialCreditTransferEntity(rrn, transactionMapperService.mapRequestToEntity(item.request, type));
+                persisted.add(item);
+            } catch (CustomException e) {
+                httpAdapterService.releaseDownstreamPermission();
+                writer.write(item.line, rrn, e);
+            }
+        }
+        return persisted;
+    }
+
+    // Blocking calls run on virtual threads; completion handlers are moved there too, off the async client's IO reactor
+    private CompletableFuture<TransactionResponse> dispatch(BatchItem item, TransactionType type, ExecutorService executor) {
+        EncodedJson encodedRequest = jsonCodecService.encode(item.request);
+        if (asyncClientEnabled) {
+            return httpAdapterService.sendHttpTransactionRequestAsync(item.request, encodedRequest, type);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return httpAdapterService.sendHttpTransactionRequest(item.request, encodedRequest, type);
+            } catch (CustomException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private void complete(BatchItem item, TransactionResponse response, TransactionType type, ResultWriter writer) {
+        String rrn = item.request.getRrn();
+        transactionUpdateService.updateDbStatus(rrn, response, type);
+        writer.write(item.line, 200, response);
+    }
+
+    // Same failure response and status update the single endpoint's exception handler produces
+    private void fail(BatchItem item, Throwable failure, TransactionType type, ResultWriter writer) {
+        String rrn = item.request.getRrn();
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        TransactionResponse response = cause instanceof CustomException customException
+                ? writer.write(item.line, rrn, customException)
+                : writer.write(item.line, rrn, ErrorKind.PROCESSING_FAILURE, cause.getMessage());
+        transactionUpdateService.updateDbStatus(rrn, response, type);
+    }
+
+    private void rejectAll(List<BatchItem> items, ErrorKind kind, String detail, ResultWriter writer) {
+        for (BatchItem item : items) {
+            httpAdapterService.releaseDownstreamPermission();
+            writer.write(item.line, item.request.getRrn(), kind, detail);
+        }
+    }
+
+    private record BatchItem(int line, TransactionRequest request) {
+    }
+
+    // Serialises result lines from concurrent completions onto the response stream and flushes each one,
+    // so the channel sees results as they complete. Once the channel goes away the remaining results are only logged.
+    private final class ResultWriter {
+        private final OutputStream out;
+        private final TransactionType type;
+        private boolean broken;
+
+        private ResultWriter(OutputStream out, TransactionType type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        TransactionResponse write(int line, String rrn, CustomException e) {
+            return write(line, rrn, e.getKind(), e.getDetail());
+        }
+
+        // Write a failure line for an error kind and return the response it carried
+        TransactionResponse write(int line, String rrn, ErrorKind kind, String detail) {
+            TransactionResponse response = new TransactionResponse();
+            response.setRrn(rrn);
+            response.setStatus(kind.getTransactionStatus().name());
+            response.setStatusCode(kind.getTransactionStatus().getCode());
+            response.setStatusDesc(detail == null ? kind.getMessage() : kind.getMessage() + detail);
+            write(line, kind.getHttpStatus(), response);
+            return response;
+        }
+
+        synchronized void write(int line, int httpStatus, TransactionResponse response) {
+            transactionMetricsService.recordOutcome(type, httpStatus);
+            if (broken) {
+                log.info("{}: Batch line {} completed with status {} after the channel disconnected", response.getRrn(), line, response.getStatus());
+                return;
+            }
+            try {
+                out.write(jsonCodecService.encode(new BatchItemResponse(line, httpStatus, response)).getBytes());
+                out.write(NEWLINE);
+                out.flush();
+            } catch (IOException e) {
+                broken = true;
+                log.error("Batch response stream closed by the channel: {}", e.getMessage());
+            }
+        }
+    }
+}
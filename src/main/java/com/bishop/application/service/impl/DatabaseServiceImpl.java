@@ -1,90 +1,335 @@
 package com.bishop.application.service.impl;
 
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.dto.TransactionStatusView;
 import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionStage;
+import com.bishop.application.enums.TransactionStatus;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
 import com.bishop.application.repository.TransactionDetailsRepository;
 import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.RrnFilterService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.TransactionStatusCacheService;
 import jakarta.persistence.PersistenceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
-
-import static com.bishop.application.config.ApplicationConstants.*;
+import java.util.Set;
 
 @Service
 public class DatabaseServiceImpl implements DatabaseService {
     private static final Logger log = LoggerFactory.getLogger(DatabaseServiceImpl.class);
 
+    private static final int MYSQL_DUPLICATE_ENTRY_ERROR_CODE = 1062;
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    private static final String BATCH_STATUS_UPDATE_SQL =
+            "UPDATE transaction_details SET status = ?, status_code = ?, status_desc = ?, tran_id = ?, updated_at = ? "
+                    + "WHERE rrn = ? AND transaction_type = ? AND created_at >= ? AND status IN (?, ?, ?)";
+
+    private static final String FIND_EXISTING_RRNS_SQL =
+            "SELECT rrn FROM transaction_details WHERE transaction_type = ? AND created_at >= ? AND rrn IN (%s)";
+    private static final String INSERT_DEDUP_KEY_SQL =
+            "INSERT INTO transaction_dedup_keys (rrn, transaction_type, created_at) VALUES (?, ?, ?)";
+
+    // Lower bound used while the unique key makes (rrn, transaction_type) unique for all time
+    private static final LocalDateTime UNBOUNDED_WINDOW_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
     private final TransactionTemplate transactionTemplate;
     private final TransactionDetailsRepository transactionDetailsRepository;
+    private final RrnFilterService rrnFilterService;
+    private final TransactionStatusCacheService transactionStatusCacheService;
+    private final TransactionMetricsService transactionMetricsService;
+    private final boolean partitioningEnabled;
+    private final Duration dedupRetentionWindow;
 
     @Autowired
-    public DatabaseServiceImpl(@Qualifier("Transactional") TransactionTemplate transactionTemplate,
-                               @Lazy TransactionDetailsRepository transactionMasterRepository) {
+    public DatabaseServiceImpl(JdbcTemplate jdbcTemplate,
+                               @Qualifier("Transactional") TransactionTemplate transactionTemplate,
+                               @Lazy TransactionDetailsRepository transactionMasterRepository,
+                               RrnFilterService rrnFilterService,
+                               TransactionStatusCacheService transactionStatusCacheService,
+                               TransactionMetricsService transactionMetricsService,
+                               @Value("${transaction.partitioning.enabled:false}") boolean partitioningEnabled,
+                               @Value("${transaction.dedup.retention-window:7d}") Duration dedupRetentionWindow) {
+        this.jdbcTemplate = jdbcTemplate;
         this.transactionTemplate = transactionTemplate;
         this.transactionDetailsRepository = transactionMasterRepository;
+        this.rrnFilterService = rrnFilterService;
+        this.transactionStatusCacheService = transactionStatusCacheService;
+        this.transactionMetricsService = transactionMetricsService;
+        this.partitioningEnabled = partitioningEnabled;
+        this.dedupRetentionWindow = dedupRetentionWindow;
     }
 
     // Use @Transactional(readOnly = true) because this is a pure database read operation
     @Override
     @Transactional(readOnly = true)
     public void checkTransactionExists(String rrn, TransactionType type) throws CustomException {
-        Optional<TransactionDetails> optional = transactionDetailsRepository.findByRrnAndTransactionType(rrn, type);
+        // A miss in the RRN filter proves the record does not exist, so the SELECT can be skipped
+        if (rrnFilterService.isDefinitelyNew(rrn, type)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Optional<TransactionDetails> optional;
+        boolean success = false;
+        try {
+            optional = transactionDetailsRepository.findByRrnAndTransactionTypeAndCreatedAtGreaterThanEqual(rrn, type, dedupWindowStart());
+            success = true;
+        } finally {
+            transactionMetricsService.recordStage(TransactionStage.DEDUP_SELECT, type, start, success);
+        }
 
         if (optional.isPresent()) {
             log.error("{}: Duplicate transaction found for RRN: {}", rrn, rrn);
-            throw new CustomException(DUPLICATE_RECORD);
+            throw new CustomException(ErrorKind.DUPLICATE_RECORD);
         }
+        rrnFilterService.recordFalsePositive();
     }
 
     // Use @Transactional because we want the saveAndFlush operation to happen inside a database transaction
+    // (rollbackFor because CustomException is checked and the failed flush must not be committed)
     @Override
-    @Transactional
+    @Transactional(rollbackFor = CustomException.class)
     public void saveInitialCreditTransferEntity(String rrn, TransactionDetails entity) throws CustomException {
+        long start = System.nanoTime();
         try {
+            claimDedupKeys(List.of(entity));
             transactionDetailsRepository.saveAndFlush(entity);
+            transactionMetricsService.recordStage(TransactionStage.INSERT, entity.getTransactionType(), start, true);
+            afterCommit(() -> recordInserted(entity));
             log.info("{}: Successfully persisted initial transaction record with RRN: {}", rrn, rrn);
         } catch (DataIntegrityViolationException e) {
+            transactionMetricsService.recordStage(TransactionStage.INSERT, entity.getTransactionType(), start, false);
+            // The (rrn, transaction_type) unique key, or the dedup key once partitioned, rejected the insert,
+            // so this is a duplicate request
+            if (isDuplicateKeyViolation(e)) {
+                log.error("{}: Duplicate transaction rejected by unique key for RRN: {}", rrn, rrn);
+                throw new CustomException(ErrorKind.DUPLICATE_RECORD);
+            }
             log.error("{}: Integrity violation when saving transaction entity: {}", rrn, e.getMessage());
-            throw new CustomException(DEFAULT_DATABASE_ERROR + e.getMessage());
+            throw new CustomException(ErrorKind.DATABASE_ERROR, e.getMessage());
         } catch (PersistenceException | DataAccessException e) {
+            transactionMetricsService.recordStage(TransactionStage.INSERT, entity.getTransactionType(), start, false);
             log.error("{}: Persistence error occurred: {}", rrn, e.getMessage());
-            throw new CustomException(DEFAULT_DATABASE_ERROR + e.getMessage());
+            throw new CustomException(ErrorKind.DATABASE_ERROR, e.getMessage());
         } catch (Exception e) {
+            transactionMetricsService.recordStage(TransactionStage.INSERT, entity.getTransactionType(), start, false);
             log.error("{}: Unexpected error occurred: {}", rrn, e.getMessage());
-            throw new CustomException(DEFAULT_DATABASE_ERROR + e.getMessage());
+            throw new CustomException(ErrorKind.DATABASE_ERROR, e.getMessage());
         }
     }
 
-    // Use @Transactional(readOnly = true) because we are fetching a record, no data is modified
+    // One IN (...) query for a whole chunk of RRNs instead of a SELECT per transaction
     @Override
     @Transactional(readOnly = true)
-    public TransactionDetails getSavedRecord(String rrn, TransactionType type) {
-        Optional<TransactionDetails> optionalTransactionDetails = transactionDetailsRepository.findByRrnAndTransactionType(rrn, type);
-        return optionalTransactionDetails.orElse(null);
+    public Set<String> findExistingRrns(Collection<String> rrns, TransactionType type) {
+        if (rrns.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Object[] args = new Object[rrns.size() + 2];
+        args[0] = type.name();
+        args[1] = Timestamp.valueOf(dedupWindowStart());
+        int i = 2;
+        for (String rrn : rrns) {
+            args[i++] = rrn;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(rrns.size(), "?"));
+        return new HashSet<>(jdbcTemplate.queryForList(String.format(FIND_EXISTING_RRNS_SQL, placeholders), String.class, args));
     }
 
-    // No @Transactional because this method runs inside an async thread (TransactionTemplate manually handles transaction here)
+    // All entities are inserted in one transaction; hibernate.jdbc.batch_size turns the flush into JDBC batches.
+    // Any failure rolls back the whole chunk, so the caller can retry the records one by one.
     @Override
-    public void updateTransactionRecord(String rrn, TransactionDetails entity) {
+    @Transactional(rollbackFor = CustomException.class)
+    public void saveInitialEntities(List<TransactionDetails> entities) throws CustomException {
         try {
-            // Explicitly manage transaction boundary inside a background thread
-            transactionTemplate.executeWithoutResult(status -> {
-                transactionDetailsRepository.save(entity);
-            });
-            log.info("{}: Transaction updated successfully.", rrn);
+            claimDedupKeys(entities);
+            transactionDetailsRepository.saveAll(entities);
+            transactionDetailsRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateKeyViolation(e)) {
+                throw new CustomException(ErrorKind.DUPLICATE_RECORD);
+            }
+            throw new CustomException(ErrorKind.DATABASE_ERROR, e.getMessage());
         } catch (Exception e) {
-            log.error("{}: Failed to update transaction record. Exception occurred: {}", rrn, e.getMessage());
+            throw new CustomException(ErrorKind.DATABASE_ERROR, e.getMessage());
+        }
+        afterCommit(() -> entities.forEach(this::recordInserted));
+    }
+
+    // The filter and the status cache only learn about rows that exist: a commit that fails after the flush must not
+    // leave GET /api/v1/transaction/{rrn} serving an INITIALIZED record until the cache entry expires
+    private void recordInserted(TransactionDetails entity) {
+        rrnFilterService.recordInserted(entity.getRrn(), entity.getTransactionType());
+        transactionStatusCacheService.recordInserted(entity);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Use @Transactional(readOnly = true) because this reads the status columns only
+    // (with the replica enabled this is the status-cache miss path and reads the replica, so the answer can lag the
+    // primary by up to max-lag-seconds: a just-inserted row may be missing and a just-completed one still INITIALIZED)
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionStatusView getTransactionStatus(String rrn, TransactionType type) {
+        return transactionDetailsRepository.findStatusByRrnAndTransactionType(rrn, type, dedupWindowStart()).orElse(null);
+    }
+
+    // No @Transactional because this method runs inside an async thread (TransactionTemplate manually handles transaction here)
+    @Override
+    public boolean updateTransactionStatus(PendingStatusUpdate update) {
+        List<String> currentStatuses = TransactionStatus.allowedPredecessors(update.getStatus());
+        if (currentStatuses.isEmpty()) {
+            return false;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Integer updated = transactionTemplate.execute(status -> transactionDetailsRepository.updateStatusIfCurrentIn(
+                    update.getRrn(),
+                    update.getTransactionType(),
+                    update.getStatus(),
+                    update.getStatusCode(),
+                    update.getStatusDesc(),
+                    update.getTranId(),
+                    update.getUpdatedAt(),
+                    dedupWindowStart(),
+                    currentStatuses));
+            success = true;
+            return updated != null && updated > 0;
+        } finally {
+            transactionMetricsService.recordStage(TransactionStage.STATUS_UPDATE, update.getTransactionType(), start, success);
+        }
+    }
+
+    // No @Transactional because this runs on the write-behind flusher thread (TransactionTemplate wraps the whole batch)
+    @Override
+    public int batchUpdateTransactionStatus(List<PendingStatusUpdate> updates) {
+        if (updates.isEmpty()) {
+            return 0;
+        }
+
+        // One JDBC batch and one commit for all updates, without re-reading the rows first
+        long start = System.nanoTime();
+        Timestamp windowStart = Timestamp.valueOf(dedupWindowStart());
+        int[][] results;
+        boolean success = false;
+        try {
+            results = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                    BATCH_STATUS_UPDATE_SQL, updates, updates.size(), (ps, update) -> {
+                        ps.setString(1, update.getStatus());
+                        ps.setString(2, update.getStatusCode());
+                        ps.setString(3, update.getStatusDesc());
+                        ps.setString(4, update.getTranId());
+                        ps.setTimestamp(5, Timestamp.valueOf(update.getUpdatedAt()));
+                        ps.setString(6, update.getRrn());
+                        ps.setString(7, update.getTransactionType().name());
+                        ps.setTimestamp(8, windowStart);
+                        setAllowedCurrentStatuses(ps, 9, update.getStatus());
+                    }));
+            success = true;
+        } finally {
+            // The whole batch is one statement execution; it counts once for every type it carried
+            EnumSet<TransactionType> types = EnumSet.noneOf(TransactionType.class);
+            updates.forEach(update -> types.add(update.getTransactionType()));
+            for (TransactionType type : types) {
+                transactionMetricsService.recordStage(TransactionStage.STATUS_UPDATE, type, start, success);
+            }
+        }
+
+        int updated = 0;
+        if (results != null) {
+            for (int[] batch : results) {
+                for (int count : batch) {
+                    // Drivers may report SUCCESS_NO_INFO (-2) for rewritten batches
+                    updated += Math.max(count, 0);
+                }
+            }
+        }
+        return updated;
+    }
+
+    // Start of the dedup window. Without partitioning the unique key keeps (rrn, transaction_type) unique for all time;
+    // a partitioned table cannot carry that key, so the pair is unique, and looked up, only within the retention window
+    private LocalDateTime dedupWindowStart() {
+        return partitioningEnabled ? LocalDateTime.now().minus(dedupRetentionWindow) : UNBOUNDED_WINDOW_START;
+    }
+
+    // On a partitioned table the dedup key table takes over from the unique key: inserting a key that is already
+    // there fails with a duplicate-key error, in the same transaction as the records themselves
+    private void claimDedupKeys(List<TransactionDetails> entities) {
+        if (!partitioningEnabled) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_DEDUP_KEY_SQL, entities, entities.size(), (ps, entity) -> {
+            ps.setString(1, entity.getRrn());
+            ps.setString(2, entity.getTransactionType().name());
+            ps.setTimestamp(3, Timestamp.valueOf(entity.getCreatedAt()));
+        });
+    }
+
+    // Walk the cause chain for the driver's duplicate-key error (MySQL 1062, or SQLState 23505 on other databases)
+    private boolean isDuplicateKeyViolation(Throwable e) {
+        if (e instanceof DuplicateKeyException) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null && cause.getCause() != cause; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && (sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY_ERROR_CODE
+                            || UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bind the transition guard into a fixed number of placeholders so every row shares one batched statement
+    private void setAllowedCurrentStatuses(PreparedStatement ps, int firstIndex, String targetStatus) throws SQLException {
+        List<String> currentStatuses = TransactionStatus.allowedPredecessors(targetStatus);
+        for (int i = 0; i < TransactionStatus.MAX_PREDECESSORS; i++) {
+            // Repeat the last allowed status to fill unused slots; NULL never matches when none are allowed
+            String value = currentStatuses.isEmpty() ? null : currentStatuses.get(Math.min(i, currentStatuses.size() - 1));
+            ps.setString(firstIndex + i, value);
         }
     }
 }
@@ -0,0 +1,115 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.jfr.AsyncQueueWaitEvent;
+import com.bishop.application.jfr.DedupCheckEvent;
+import com.bishop.application.jfr.DownstreamCallEvent;
+import com.bishop.application.jfr.InitialInsertEvent;
+import com.bishop.application.jfr.ResponseParseEvent;
+import com.bishop.application.jfr.StatusUpdateCommitEvent;
+import com.bishop.application.service.FlightRecordingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Keeps a continuous, size- and age-bounded flight recording of the transaction lifecycle events, so the detail of
+// any recent slow request can be pulled from production after the fact without turning on debug logging
+@Service
+public class FlightRecordingServiceImpl implements FlightRecordingService {
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingServiceImpl.class);
+
+    private static final String NO_JDK_SETTINGS = "none";
+    private static final List<Class<? extends Event>> TRANSACTION_EVENTS = List.of(
+            DedupCheckEvent.class,
+            InitialInsertEvent.class,
+            DownstreamCallEvent.class,
+            ResponseParseEvent.class,
+            AsyncQueueWaitEvent.class,
+            StatusUpdateCommitEvent.class);
+
+    private final boolean enabled;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration threshold;
+
+    private Recording recording;
+
+    @Autowired
+    public FlightRecordingServiceImpl(@Value("${transaction.jfr.enabled:false}") boolean enabled,
+                                      @Value("${transaction.jfr.settings:default}") String settings,
+                                      @Value("${transaction.jfr.max-age-minutes:30}") long maxAgeMinutes,
+                                      @Value("${transaction.jfr.max-size-mb:64}") long maxSizeMb,
+                                      @Value("${transaction.jfr.threshold-ms:0}") long thresholdMillis) {
+        this.enabled = enabled;
+        this.settings = settings;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024L * 1024L;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    // Start recording before the first request; "none" records only the transaction events, any other value names
+    // a JDK settings file (default or profile) whose events are recorded alongside them, GC pauses included
+    @PostConstruct
+    public void start() throws IOException, ParseException {
+        if (!enabled) {
+            return;
+        }
+        recording = NO_JDK_SETTINGS.equals(settings) ? new Recording() : new Recording(Configuration.getConfiguration(settings));
+        recording.setName("transactions");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        for (Class<? extends Event> eventType : TRANSACTION_EVENTS) {
+            recording.enable(eventType).withThreshold(threshold);
+        }
+        recording.start();
+        log.info("Flight recording started: settings={}, maxAge={}, maxSize={} bytes, threshold={}",
+                settings, maxAge, maxSizeBytes, threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return recording != null;
+    }
+
+    // Snapshot the recording, then keep only events that ended inside the window
+    @Override
+    public byte[] dump(Duration window) throws IOException {
+        Path snapshot = Files.createTempFile("transactions-", ".jfr");
+        Path sliced = Files.createTempFile("transactions-window-", ".jfr");
+        try {
+            recording.dump(snapshot);
+            Instant cutoff = Instant.now().minus(window);
+            try (RecordingFile recordingFile = new RecordingFile(snapshot)) {
+                recordingFile.write(sliced, event -> !event.getEndTime().isBefore(cutoff));
+            }
+            return Files.readAllBytes(sliced);
+        } finally {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(sliced);
+        }
+    }
+}
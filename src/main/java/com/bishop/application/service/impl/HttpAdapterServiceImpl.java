@@ -1,75 +1,124 @@
 package com.bishop.application.service.impl;
 
+import com.bishop.application.dto.EncodedJson;
 import com.bishop.application.dto.TransactionRequest;
 import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionStage;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
+import com.bishop.application.jfr.DownstreamCallEvent;
+import com.bishop.application.jfr.ResponseParseEvent;
+import com.bishop.application.service.AdmissionControlService;
 import com.bishop.application.service.HttpAdapterService;
 import com.bishop.application.service.HttpResponseProcessorService;
-import com.google.gson.Gson;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.util.InstrumentedPoolingConnectionManager;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.bishop.application.config.ApplicationConstants.*;
+import static com.bishop.application.util.Timeouts.isTimeout;
 
 @Service
 public class HttpAdapterServiceImpl implements HttpAdapterService {
     private static final Logger log = LoggerFactory.getLogger(HttpAdapterServiceImpl.class);
 
-    private final Gson gson;
     private final String transactionUrl;
     private final CloseableHttpClient closeableHttpClient;
     private final HttpResponseProcessorService httpResponseProcessorService;
+    private final ObjectProvider<CloseableHttpAsyncClient> asyncHttpClientProvider;
+    private final AdmissionControlService admissionControlService;
+    private final CircuitBreaker circuitBreaker;
+    private final TransactionMetricsService transactionMetricsService;
 
     @Autowired
-    public HttpAdapterServiceImpl(Gson gson,
-                                  @Value("${urls.transaction}") String transactionUrl,
+    public HttpAdapterServiceImpl(@Value("${urls.transaction}") String transactionUrl,
                                   @Qualifier("closeableHttpClient2") CloseableHttpClient closeableHttpClient,
-                                  HttpResponseProcessorService httpResponseProcessorService) {
-        this.gson = gson;
+                                  HttpResponseProcessorService httpResponseProcessorService,
+                                  @Qualifier("closeableHttpAsyncClient") ObjectProvider<CloseableHttpAsyncClient> asyncHttpClientProvider,
+                                  AdmissionControlService admissionControlService,
+                                  CircuitBreakerRegistry circuitBreakerRegistry,
+                                  TransactionMetricsService transactionMetricsService) {
         this.transactionUrl = transactionUrl;
         this.closeableHttpClient = closeableHttpClient;
         this.httpResponseProcessorService = httpResponseProcessorService;
+        this.asyncHttpClientProvider = asyncHttpClientProvider;
+        this.admissionControlService = admissionControlService;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(TRANSACTION_CIRCUIT_BREAKER);
+        this.transactionMetricsService = transactionMetricsService;
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker {} for {} moved {}", event.getCircuitBreakerName(), transactionUrl, event.getStateTransition()));
     }
 
+    // Callers take the permission before their own database work, so an open circuit costs no insert
     @Override
-    public TransactionResponse sendHttpTransactionRequest(TransactionRequest transactionRequest, TransactionType type) throws CustomException {
+    public void acquireDownstreamPermission(String rrn) throws CustomException {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            log.warn("{}: Circuit breaker is {}, not sending request to {}", rrn, circuitBreaker.getState(), transactionUrl);
+            throw new CustomException(ErrorKind.CIRCUIT_OPEN);
+        }
+    }
+
+    // Hand back a permission when the request fails before the downstream call is made
+    @Override
+    public void releaseDownstreamPermission() {
+        circuitBreaker.releasePermission();
+    }
+
+    @Override
+    public TransactionResponse sendHttpTransactionRequest(TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type) throws CustomException {
         String rrn = transactionRequest.getRrn();
         CloseableHttpResponse response = null;
 
         try {
-            // Build HTTP Post Request with necessary headers
-            HttpPost httpPost = getPostRequestHeaders(transactionUrl, new StringEntity(gson.toJson(transactionRequest)));
+            // Build HTTP Post Request from the bytes the controller already encoded and logged
+            HttpPost httpPost = getPostRequestHeaders(transactionUrl, new ByteArrayEntity(encodedRequest.getBytes(), org.apache.http.entity.ContentType.APPLICATION_JSON));
 
             // Send HTTP request
             log.info("{}: Sending {} Post HTTP Request Via: {}", rrn, type, transactionUrl);
-            response = closeableHttpClient.execute(httpPost);
+            DownstreamCallEvent callEvent = new DownstreamCallEvent();
+            InstrumentedPoolingConnectionManager.takeLeaseWaitNanos();
+            callEvent.begin();
+            long start = System.nanoTime();
+            try {
+                response = closeableHttpClient.execute(httpPost);
+            } catch (IOException | RuntimeException e) {
+                recordOutcome(start, type, e);
+                completeCallEvent(callEvent, rrn, type, start, InstrumentedPoolingConnectionManager.takeLeaseWaitNanos(), 0, e);
+                throw e;
+            }
+            recordOutcome(start, type, null);
+            completeCallEvent(callEvent, rrn, type, start, InstrumentedPoolingConnectionManager.takeLeaseWaitNanos(),
+                    response.getStatusLine().getStatusCode(), null);
 
             // Process the HTTP response
-            return httpResponseProcessorService.processTransactionResponse(rrn, response, type);
+            return processResponse(rrn, response, type);
 
         } catch (CustomException | IOException e) {
-            log.error("{}: Exception occurred when sending HTTP request: {}", rrn, e.getMessage());
-
-            String errorDescription = e.getMessage();
-            if (errorDescription != null
-                    && (errorDescription.contains("timeout")
-                            || errorDescription.contains("time out")
-                            || errorDescription.contains("timed out"))) {
-                throw new CustomException(TIMEOUT_ERROR + e.getMessage());
-            }
-            throw new CustomException(HTTP_ERROR + e.getMessage());
+            throw toHttpException(rrn, e);
 
         } finally {
             // Close the HTTP response to release resources
@@ -83,11 +132,120 @@ public class HttpAdapterServiceImpl implements HttpAdapterService {
         }
     }
 
+    @Override
+    public CompletableFuture<TransactionResponse> sendHttpTransactionRequestAsync(TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type) {
+        String rrn = transactionRequest.getRrn();
+        CompletableFuture<TransactionResponse> result = new CompletableFuture<>();
+
+        // Build HTTP Post Request from the bytes the controller already encoded and logged
+        SimpleHttpRequest httpPost = SimpleRequestBuilder.post(transactionUrl)
+                .setBody(encodedRequest.getBytes(), ContentType.APPLICATION_JSON)
+                .build();
+
+        // Send HTTP request; the callback runs on an IO reactor thread once the response is fully buffered
+        log.info("{}: Sending {} Async Post HTTP Request Via: {}", rrn, type, transactionUrl);
+        DownstreamCallEvent callEvent = new DownstreamCallEvent();
+        callEvent.begin();
+        long start = System.nanoTime();
+        FutureCallback<SimpleHttpResponse> callback = new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                recordOutcome(start, type, null);
+                completeCallEvent(callEvent, rrn, type, start, 0, response.getCode(), null);
+                ResponseParseEvent parseEvent = new ResponseParseEvent();
+                parseEvent.begin();
+                long parseStart = System.nanoTime();
+                try {
+                    result.complete(httpResponseProcessorService.processTransactionResponse(rrn, response, type));
+                    transactionMetricsService.recordStage(TransactionStage.RESPONSE_PARSE, type, parseStart, true);
+                    parseEvent.complete(rrn, type, "success");
+                } catch (CustomException e) {
+                    transactionMetricsService.recordStage(TransactionStage.RESPONSE_PARSE, type, parseStart, false);
+                    parseEvent.complete(rrn, type, "failure");
+                    result.completeExceptionally(toHttpException(rrn, e));
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                recordOutcome(start, type, e);
+                completeCallEvent(callEvent, rrn, type, start, 0, 0, e);
+                result.completeExceptionally(toHttpException(rrn, e));
+            }
+
+            @Override
+            public void cancelled() {
+                circuitBreaker.releasePermission();
+                result.completeExceptionally(toHttpException(rrn, new CancellationException("HTTP request was cancelled")));
+            }
+        };
+        try {
+            asyncHttpClientProvider.getObject().execute(httpPost, callback);
+        } catch (RuntimeException e) {
+            // The client refused the request outright (for example after shutdown); still settle the permission
+            callback.failed(e);
+        }
+        return result;
+    }
+
+    private TransactionResponse processResponse(String rrn, CloseableHttpResponse response, TransactionType type) throws CustomException {
+        ResponseParseEvent event = new ResponseParseEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            TransactionResponse transactionResponse = httpResponseProcessorService.processTransactionResponse(rrn, response, type);
+            success = true;
+            return transactionResponse;
+        } finally {
+            transactionMetricsService.recordStage(TransactionStage.RESPONSE_PARSE, type, start, success);
+            event.complete(rrn, type, success ? "success" : "failure");
+        }
+    }
+
+    // Per-request trace of the call for the flight recording; the stage timer only keeps the aggregate
+    private void completeCallEvent(DownstreamCallEvent event, String rrn, TransactionType type, long start,
+                                   long connectionWaitNanos, int httpStatus, Exception failure) {
+        event.setTimings(connectionWaitNanos, System.nanoTime() - start);
+        event.setHttpStatus(httpStatus);
+        event.complete(rrn, type, failure == null ? "success" : isTimeout(failure) ? "timeout" : "error");
+    }
+
+    // Record a call for the circuit breaker, the admission limiter and the stage timer. Any answer counts as a success
+    // for the breaker; transport failures count against it. The limiter only takes answers and timeouts, because
+    // refused connections and resets return quickly and would understate the downstream latency.
+    private void recordOutcome(long start, TransactionType type, Exception failure) {
+        transactionMetricsService.recordStage(TransactionStage.DOWNSTREAM_CALL, type, start, failure == null);
+        long durationNanos = System.nanoTime() - start;
+        if (failure == null) {
+            circuitBreaker.onSuccess(durationNanos, TimeUnit.NANOSECONDS);
+        } else {
+            circuitBreaker.onError(durationNanos, TimeUnit.NANOSECONDS, failure);
+        }
+        if (failure == null || isTimeout(failure)) {
+            admissionControlService.recordDownstreamLatency(durationNanos, failure != null);
+        }
+    }
+
+    // Map a failed call to the same error kinds for both the blocking and the async client; a failure that is
+    // already typed (an empty or unreadable response) keeps its kind instead of being wrapped again
+    private CustomException toHttpException(String rrn, Exception e) {
+        log.error("{}: Exception occurred when sending HTTP request: {}", rrn, e.getMessage());
+
+        if (e instanceof CustomException customException) {
+            return customException;
+        }
+        if (isTimeout(e)) {
+            return new CustomException(ErrorKind.TIMEOUT, e.getMessage());
+        }
+        return new CustomException(ErrorKind.HTTP_CALL_FAILED, e.getMessage());
+    }
+
     // Helper method to build an HTTP Post Request with headers
-    private HttpPost getPostRequestHeaders(String url, StringEntity stringEntity) {
+    private HttpPost getPostRequestHeaders(String url, ByteArrayEntity entity) {
         HttpPost httpPost = new HttpPost(url);
-        httpPost.setEntity(stringEntity);
-        httpPost.setHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE);
+        httpPost.setEntity(entity);
+        httpPost.setHeader(entity.getContentType());
         return httpPost;
     }
 }
@@ -1,31 +1,49 @@
 package com.bishop.application.service.impl;
 
 import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.enums.ErrorKind;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
 import com.bishop.application.service.HttpResponseProcessorService;
+import com.bishop.application.util.CapturingInputStream;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.entity.ContentType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 import static com.bishop.application.config.ApplicationConstants.*;
+import static com.bishop.application.util.Timeouts.isTimeout;
 
 @Service
 public class HttpResponseProcessorServiceImpl implements HttpResponseProcessorService {
     private static final Logger log = LoggerFactory.getLogger(HttpResponseProcessorServiceImpl.class);
 
-    private final ObjectMapper objectMapper;
+    private final ObjectReader responseReader;
+    private final boolean logResponseBody;
+    private final int maxLoggedBodyBytes;
 
     @Autowired
-    public HttpResponseProcessorServiceImpl(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+    public HttpResponseProcessorServiceImpl(ObjectMapper objectMapper,
+                                            @Value("${http.response.log-body.enabled:false}") boolean logResponseBody,
+                                            @Value("${http.response.log-body.max-bytes:2048}") int maxLoggedBodyBytes) {
+        this.responseReader = objectMapper.readerFor(TransactionResponse.class);
+        this.logResponseBody = logResponseBody;
+        this.maxLoggedBodyBytes = maxLoggedBodyBytes;
     }
 
     @Override
@@ -36,31 +54,113 @@ public class HttpResponseProcessorServiceImpl implements HttpResponseProcessorSe
             int statusCode = response.getStatusLine().getStatusCode();
             String httpStatusMsg = response.getStatusLine().getReasonPhrase();
 
-            // Validate if response entity is empty or status is invalid
-            if (entity == null || entity.getContentLength() == 0 || statusCode == 0) {
-                throw new CustomException(TIMEOUT_ERROR);
+            // Validate if response entity is missing or status is invalid
+            if (entity == null || statusCode == 0) {
+                throw new CustomException(ErrorKind.TIMEOUT);
             }
 
-            // Convert response entity to String
-            String responseString = EntityUtils.toString(entity);
+            log.info(HTTP_RESPONSE_LOG_TEMPLATE, rrn, statusCode, httpStatusMsg);
 
-            // Log the raw HTTP response
-            log.info(String.format(HTTP_RESPONSE_LOG_TEMPLATE, statusCode, httpStatusMsg, responseString));
+            // Closing the content stream consumes any remainder so the pooled connection can be reused
+            try (InputStream content = entity.getContent()) {
+                if (content == null) {
+                    throw new CustomException(ErrorKind.TIMEOUT);
+                }
+                CapturingInputStream capture = shouldLogBody() ? new CapturingInputStream(content, maxLoggedBodyBytes) : null;
 
-            // Map response JSON to TransactionResponse object
-            return composeResponseObject(responseString);
+                // Peek one byte so an empty body is detected whether it was sent with Content-Length: 0 or chunked
+                PushbackInputStream body = new PushbackInputStream(capture != null ? capture : content, 1);
+                int firstByte = body.read();
+                if (firstByte == -1) {
+                    throw new CustomException(ErrorKind.TIMEOUT);
+                }
+                body.unread(firstByte);
 
-        } catch (CustomException | IOException e) {
-            throw new CustomException(DEFAULT_PROCESSING_FAILURE + e.getMessage());
+                ContentType contentType = ContentType.getLenient(entity);
+                Charset charset = getCharset(contentType == null ? null : contentType.getCharset());
+                try {
+                    // Map response JSON to TransactionResponse object straight from the socket stream
+                    return composeResponseObject(body, charset);
+                } finally {
+                    if (capture != null) {
+                        log.info(HTTP_RESPONSE_BODY_LOG_TEMPLATE, rrn, capture.isTruncated() ? " (truncated)" : "", capture.getCaptured(charset));
+                    }
+                }
+            }
+
+        } catch (IOException e) {
+            throw readFailure(e);
+        }
+    }
+
+    // Same checks as the blocking variant, for a response already buffered by the async client
+    @Override
+    public TransactionResponse processTransactionResponse(String rrn, SimpleHttpResponse response, TransactionType type) throws CustomException {
+        try {
+            int statusCode = response.getCode();
+            String httpStatusMsg = response.getReasonPhrase();
+            byte[] body = response.getBodyBytes();
+
+            // Validate if response body is empty or status is invalid
+            if (body == null || body.length == 0 || statusCode == 0) {
+                throw new CustomException(ErrorKind.TIMEOUT);
+            }
+
+            log.info(HTTP_RESPONSE_LOG_TEMPLATE, rrn, statusCode, httpStatusMsg);
+
+            Charset charset = getCharset(response.getContentType() == null ? null : response.getContentType().getCharset());
+            try {
+                // Map response JSON to TransactionResponse object without decoding it to a String first
+                return composeResponseObject(body, charset);
+            } finally {
+                if (shouldLogBody()) {
+                    int length = Math.min(body.length, maxLoggedBodyBytes);
+                    log.info(HTTP_RESPONSE_BODY_LOG_TEMPLATE, rrn, length < body.length ? " (truncated)" : "", new String(body, 0, length, charset));
+                }
+            }
+
+        } catch (IOException e) {
+            throw readFailure(e);
         }
     }
 
-    private TransactionResponse composeResponseObject(String responseString) throws CustomException {
+    // A read that times out partway through the body leaves the outcome unknown, like any other timeout
+    private CustomException readFailure(IOException e) {
+        return new CustomException(isTimeout(e) ? ErrorKind.TIMEOUT : ErrorKind.PROCESSING_FAILURE, e.getMessage());
+    }
+
+    // UTF-8 bodies go to Jackson as raw bytes; any other declared charset is decoded first
+    private TransactionResponse composeResponseObject(InputStream body, Charset charset) throws CustomException, IOException {
         try {
-            return objectMapper.readValue(responseString, TransactionResponse.class);
-        } catch (Exception e) {
+            if (StandardCharsets.UTF_8.equals(charset)) {
+                return responseReader.readValue(body);
+            }
+            return responseReader.readValue(new InputStreamReader(body, charset));
+        } catch (JsonProcessingException e) {
             log.error("Failed to parse TransactionResponse: {}", e.getMessage());
-            throw new CustomException(DEFAULT_RESPONSE_PROCESSING_FAILURE);
+            throw new CustomException(ErrorKind.RESPONSE_PROCESSING_FAILURE);
         }
     }
+
+    private TransactionResponse composeResponseObject(byte[] body, Charset charset) throws CustomException, IOException {
+        try {
+            if (StandardCharsets.UTF_8.equals(charset)) {
+                return responseReader.readValue(body);
+            }
+            return responseReader.readValue(new String(body, charset));
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse TransactionResponse: {}", e.getMessage());
+            throw new CustomException(ErrorKind.RESPONSE_PROCESSING_FAILURE);
+        }
+    }
+
+    // JSON defaults to UTF-8 when the response does not declare a charset
+    private Charset getCharset(Charset declared) {
+        return declared != null ? declared : StandardCharsets.UTF_8;
+    }
+
+    // Only copy body bytes when they would actually be written
+    private boolean shouldLogBody() {
+        return logResponseBody && maxLoggedBodyBytes > 0 && log.isInfoEnabled();
+    }
 }
@@ -0,0 +1,31 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.service.JsonCodecService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class JsonCodecServiceImpl implements JsonCodecService {
+
+    private final ObjectWriter writer;
+
+    @Autowired
+    public JsonCodecServiceImpl(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    // Jackson encodes into its recycled per-thread buffer and copies out a single exact-size UTF-8 array
+    @Override
+    public EncodedJson encode(Object value) {
+        try {
+            return new EncodedJson(writer.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not encode " + value.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+}
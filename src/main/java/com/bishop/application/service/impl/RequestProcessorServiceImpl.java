@@ -1,27 +1,34 @@
 package com.bishop.application.service.impl;
 
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionProgress;
 import com.bishop.application.dto.TransactionRequest;
 import com.bishop.application.dto.TransactionResponse;
 import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.DeduplicationMode;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.ProcessingStage;
+import com.bishop.application.enums.TransactionStage;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
+import com.bishop.application.jfr.DedupCheckEvent;
+import com.bishop.application.jfr.InitialInsertEvent;
 import com.bishop.application.service.DatabaseService;
 import com.bishop.application.service.HttpAdapterService;
 import com.bishop.application.service.RequestProcessorService;
+import com.bishop.application.service.RequestValidatorService;
 import com.bishop.application.service.TransactionMapperService;
+import com.bishop.application.service.TransactionMetricsService;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.validation.BindingResult;
-import org.springframework.validation.ObjectError;
 
-import java.util.List;
-
-import static com.bishop.application.config.ApplicationConstants.FIELD_VALIDATION_ERROR;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class RequestProcessorServiceImpl implements RequestProcessorService {
@@ -30,58 +37,142 @@ public class RequestProcessorServiceImpl implements RequestProcessorService {
     private final DatabaseService databaseService;
     private final HttpAdapterService httpAdapterService;
     private final TransactionMapperService transactionMapperService;
+    private final DeduplicationMode deduplicationMode;
+    private final TransactionMetricsService transactionMetricsService;
+    private final RequestValidatorService requestValidatorService;
 
     @Autowired
     public RequestProcessorServiceImpl(DatabaseService databaseService,
                                        @Qualifier("closeableHttpClient2") CloseableHttpClient closeableHttpClient,
                                        HttpAdapterService httpAdapterService,
-                                       TransactionMapperService transactionMapperService) {
+                                       TransactionMapperService transactionMapperService,
+                                       @Value("${transaction.dedup.mode:SELECT_THEN_INSERT}") DeduplicationMode deduplicationMode,
+                                       TransactionMetricsService transactionMetricsService,
+                                       RequestValidatorService requestValidatorService) {
         this.databaseService = databaseService;
         this.httpAdapterService = httpAdapterService;
         this.transactionMapperService = transactionMapperService;
+        this.deduplicationMode = deduplicationMode;
+        this.transactionMetricsService = transactionMetricsService;
+        this.requestValidatorService = requestValidatorService;
     }
 
     @Override
-    public TransactionResponse processTransactionRequest(String rrn, TransactionRequest transactionRequest, BindingResult bindingResult, TransactionType type) throws CustomException {
-        // Validate input fields manually
-        checkForInputValidationErrors(bindingResult);
+    public TransactionResponse processTransactionRequest(String rrn, TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type, TransactionProgress progress) throws CustomException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            prepareTransaction(rrn, transactionRequest, type, progress);
 
-        // Check if transaction already exists
-        checkTransactionExists(rrn, type);
+            // Send the HTTP request to external service
+            progress.advanceTo(ProcessingStage.DISPATCHED);
+            TransactionResponse response = httpAdapterService.sendHttpTransactionRequest(transactionRequest, encodedRequest, type);
+            success = true;
+            return response;
+        } finally {
+            transactionMetricsService.recordStage(TransactionStage.TOTAL, type, start, success);
+        }
+    }
 
-        // Prepare entity to be persisted
-        TransactionDetails entity = transactionMapperService.mapRequestToEntity(transactionRequest, type);
+    // Validation, dedup and the initial insert still run on the calling thread; only the downstream call is asynchronous
+    @Override
+    public CompletableFuture<TransactionResponse> processTransactionRequestAsync(String rrn, TransactionRequest transactionRequest, EncodedJson encodedRequest, TransactionType type, TransactionProgress progress) throws CustomException {
+        long start = System.nanoTime();
+        try {
+            prepareTransaction(rrn, transactionRequest, type, progress);
+        } catch (CustomException | RuntimeException e) {
+            transactionMetricsService.recordStage(TransactionStage.TOTAL, type, start, false);
+            throw e;
+        }
 
-        // Persist initial transaction record
-        persistInitialEntity(entity, rrn);
+        // Send the HTTP request to external service without blocking the calling thread
+        progress.advanceTo(ProcessingStage.DISPATCHED);
+        return httpAdapterService.sendHttpTransactionRequestAsync(transactionRequest, encodedRequest, type)
+                .whenComplete((response, failure) -> transactionMetricsService.recordStage(TransactionStage.TOTAL, type, start, failure == null));
+    }
 
-        // Send the HTTP request to external service
-        return httpAdapterService.sendHttpTransactionRequest(transactionRequest, type);
+    private void prepareTransaction(String rrn, TransactionRequest transactionRequest, TransactionType type, TransactionProgress progress) throws CustomException {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            prepareTransactionSteps(rrn, transactionRequest, type, progress);
+            success = true;
+        } finally {
+            transactionMetricsService.recordStage(TransactionStage.PREPARE, type, start, success);
+        }
     }
 
-    private void checkForInputValidationErrors(BindingResult bindingResult) throws CustomException {
-        if (!bindingResult.hasErrors()) {
-            return;
+    private void prepareTransactionSteps(String rrn, TransactionRequest transactionRequest, TransactionType type, TransactionProgress progress) throws CustomException {
+        // Validate input fields, reporting the first violation
+        checkForInputValidationErrors(transactionRequest);
+        progress.advanceTo(ProcessingStage.VALIDATED);
+
+        // Fail fast while the downstream circuit is open, before any database work
+        httpAdapterService.acquireDownstreamPermission(rrn);
+        try {
+            // Check if transaction already exists (in INSERT_FIRST mode the unique key on the insert does this)
+            if (deduplicationMode == DeduplicationMode.SELECT_THEN_INSERT) {
+                checkTransactionExists(rrn, type);
+                progress.advanceTo(ProcessingStage.DEDUPED);
+            }
+
+            // Prepare entity to be persisted
+            TransactionDetails entity = transactionMapperService.mapRequestToEntity(transactionRequest, type);
+
+            // Persist initial transaction record
+            persistInitialEntity(entity, rrn);
+            progress.advanceTo(ProcessingStage.PERSISTED);
+        } catch (CustomException | RuntimeException e) {
+            // The downstream call will not be made, so the permission goes back unused
+            httpAdapterService.releaseDownstreamPermission();
+            throw e;
+        }
+    }
+
+    private void checkForInputValidationErrors(TransactionRequest transactionRequest) throws CustomException {
+        String violation = requestValidatorService.firstViolation(transactionRequest);
+        if (violation != null) {
+            throw new CustomException(ErrorKind.FIELD_VALIDATION, violation);
         }
-        List<ObjectError> allErrors = bindingResult.getAllErrors();
-        throw new CustomException(FIELD_VALIDATION_ERROR + allErrors.get(0).getDefaultMessage());
     }
 
     // Use @Transactional(readOnly = true) because we are only reading from the database (no modification)
     @Transactional(readOnly = true)
     public void checkTransactionExists(String rrn, TransactionType type) throws CustomException {
         log.info("{}: Checking transaction by RRN: {} and type: {}", rrn, rrn, type);
-        databaseService.checkTransactionExists(rrn, type);
+        DedupCheckEvent event = new DedupCheckEvent();
+        event.begin();
+        try {
+            databaseService.checkTransactionExists(rrn, type);
+            event.complete(rrn, type, "new");
+        } catch (CustomException | RuntimeException e) {
+            event.complete(rrn, type, outcomeOf(e));
+            throw e;
+        }
     }
 
     // Use @Transactional because we are saving a new record to the database
     @Transactional
     public void persistInitialEntity(TransactionDetails entity, String rrn) throws CustomException {
+        log.info("{}: Saving the initial credit transfer record in the database", rrn);
+        InitialInsertEvent event = new InitialInsertEvent();
+        event.begin();
         try {
-            log.info("{}: Saving the initial credit transfer record in the database", rrn);
             databaseService.saveInitialCreditTransferEntity(rrn, entity);
-        } catch (Exception e) {
-            throw new CustomException(e.getMessage());
+            event.complete(rrn, entity.getTransactionType(), "success");
+        } catch (CustomException e) {
+            event.complete(rrn, entity.getTransactionType(), outcomeOf(e));
+            throw e;
+        } catch (RuntimeException e) {
+            // Only the commit itself can still fail outside the service's own error mapping
+            event.complete(rrn, entity.getTransactionType(), outcomeOf(e));
+            throw new CustomException(ErrorKind.DATABASE_ERROR, e.getMessage());
         }
     }
+
+    // Outcome recorded on the flight recorder events for a failed database step
+    private static String outcomeOf(Exception e) {
+        return e instanceof CustomException customException && customException.getKind() == ErrorKind.DUPLICATE_RECORD
+                ? "duplicate" : "error";
+    }
 }
@@ -0,0 +1,166 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.service.RequestValidatorService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+// The constraints declared on TransactionRequest, hand-specialized into straight-line checks in declaration order
+// that stop at the first violation. Every @Pattern there is a single ASCII character class, so a match is one table
+// lookup per character. Messages are the annotation messages; RequestValidatorConformanceTest checks both against
+// Hibernate Validator, so a constraint changed on the DTO must be changed here too.
+// With the fast path disabled, requests go through Bean Validation and the first violation it returns is reported.
+@Service
+public class RequestValidatorServiceImpl implements RequestValidatorService {
+
+    private static final boolean[] RRN_CHARS = allowed("A-Z", "a-z", "0-9", "-");
+    private static final boolean[] TRANSACTION_TYPE_CHARS = allowed("A-Z", "a-z", "_", "-");
+    private static final boolean[] NAME_CHARS = allowed("A-Z", "a-z", "0-9", " ", ".", "'", "-");
+    private static final boolean[] CURRENCY_CHARS = allowed("A-Z");
+    private static final boolean[] CHANNEL_ID_CHARS = allowed("A-Z", "a-z", "0-9", "_", "-");
+
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("0.01");
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 18;
+    private static final int MAX_AMOUNT_FRACTION_DIGITS = 2;
+
+    private final Validator validator;
+    private final boolean fastPathEnabled;
+
+    @Autowired
+    public RequestValidatorServiceImpl(Validator validator,
+                                       @Value("${transaction.validation.fast-path.enabled:true}") boolean fastPathEnabled) {
+        this.validator = validator;
+        this.fastPathEnabled = fastPathEnabled;
+    }
+
+    // Message of the first violated constraint, or null when the request is valid
+    @Override
+    public String firstViolation(TransactionRequest request) {
+        return fastPathEnabled ? checkFields(request) : beanValidation(request);
+    }
+
+    private String beanValidation(TransactionRequest request) {
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private static String checkFields(TransactionRequest request) {
+        String rrn = request.getRrn();
+        if (isBlank(rrn)) {
+            return "RRN is required";
+        }
+        if (rrn.length() < 8 || rrn.length() > 20) {
+            return "RRN must be between 8 and 20 characters";
+        }
+        if (!matches(rrn, RRN_CHARS)) {
+            return "RRN must only contain letters, numbers, and dashes";
+        }
+
+        String transactionType = request.getTransactionType();
+        if (isBlank(transactionType)) {
+            return "Transaction type is required";
+        }
+        if (!matches(transactionType, TRANSACTION_TYPE_CHARS)) {
+            return "Transaction Type must be letters and underscores only";
+        }
+
+        String senderName = request.getSenderName();
+        if (isBlank(senderName)) {
+            return "Sender name is required";
+        }
+        if (senderName.length() > 100) {
+            return "Sender name must not exceed 100 characters";
+        }
+        if (!matches(senderName, NAME_CHARS)) {
+            return "Sender name contains invalid characters";
+        }
+
+        String receiverName = request.getReceiverName();
+        if (isBlank(receiverName)) {
+            return "Receiver name is required";
+        }
+        if (receiverName.length() > 100) {
+            return "Receiver name must not exceed 100 characters";
+        }
+        if (!matches(receiverName, NAME_CHARS)) {
+            return "Receiver name contains invalid characters";
+        }
+
+        BigDecimal amount = request.getAmount();
+        if (amount == null) {
+            return "Amount is required";
+        }
+        if (amount.compareTo(MIN_AMOUNT) < 0) {
+            return "Amount must be greater than zero";
+        }
+        // As Hibernate Validator counts them for a BigDecimal: trailing zeros are not stripped, so 1.500 has 3 fraction digits
+        if (amount.precision() - amount.scale() > MAX_AMOUNT_INTEGER_DIGITS || amount.scale() > MAX_AMOUNT_FRACTION_DIGITS) {
+            return "Amount must be a valid number with up to two decimal places";
+        }
+
+        String currency = request.getCurrency();
+        if (isBlank(currency)) {
+            return "Currency is required";
+        }
+        if (currency.length() != 3) {
+            return "Currency must be a 3-letter ISO code";
+        }
+        if (!matches(currency, CURRENCY_CHARS)) {
+            return "Currency must be uppercase 3-letter code";
+        }
+
+        String channelId = request.getChannelId();
+        if (isBlank(channelId)) {
+            return "Channel ID is required";
+        }
+        if (channelId.length() > 20) {
+            return "Channel ID must not exceed 20 characters";
+        }
+        if (!matches(channelId, CHANNEL_ID_CHARS)) {
+            return "Channel ID must only contain letters, numbers, dashes, and underscores";
+        }
+        return null;
+    }
+
+    // @NotBlank: null, or nothing left after String.trim(), which strips every char up to and including space
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ^[class]+$ over the whole value; callers have already rejected the empty string as blank
+    private static boolean matches(String value, boolean[] allowed) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= allowed.length || !allowed[c]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lookup table for ASCII characters from single characters ("_") and ranges ("A-Z")
+    private static boolean[] allowed(String... members) {
+        boolean[] table = new boolean[128];
+        for (String member : members) {
+            char last = member.length() == 3 ? member.charAt(2) : member.charAt(0);
+            for (char c = member.charAt(0); c <= last; c++) {
+                table[c] = true;
+            }
+        }
+        return table;
+    }
+}
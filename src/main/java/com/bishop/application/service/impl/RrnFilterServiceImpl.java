@@ -0,0 +1,210 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.enums.DeduplicationMode;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.RrnFilterService;
+import com.bishop.application.util.OffHeapBloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class RrnFilterServiceImpl implements RrnFilterService {
+    private static final Logger log = LoggerFactory.getLogger(RrnFilterServiceImpl.class);
+
+    // Makes MySQL Connector/J stream rows one at a time instead of buffering the whole result set
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final String WARM_UP_SQL =
+            "SELECT rrn, transaction_type FROM transaction_details WHERE created_at >= ?";
+
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration rotationInterval;
+    private final boolean warmUpEnabled;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    private final Counter definitelyNew;
+    private final Counter possibleDuplicate;
+    private final Counter falsePositives;
+
+    private final ScheduledExecutorService scheduler;
+
+    // Keys are written to the current generation and looked up in both; rotation drops the previous one
+    private volatile Generations generations;
+    private volatile boolean ready;
+
+    @Autowired
+    public RrnFilterServiceImpl(@Value("${transaction.dedup.filter.enabled:false}") boolean enabled,
+                                @Value("${transaction.dedup.filter.expected-insertions:1000000}") long expectedInsertions,
+                                @Value("${transaction.dedup.filter.false-positive-rate:0.001}") double falsePositiveRate,
+                                @Value("${transaction.dedup.filter.rotation-interval:24h}") Duration rotationInterval,
+                                @Value("${transaction.dedup.filter.warm-up:true}") boolean warmUpEnabled,
+                                @Value("${transaction.dedup.mode:SELECT_THEN_INSERT}") DeduplicationMode deduplicationMode,
+                                DataSource dataSource,
+                                MeterRegistry meterRegistry) {
+        // The filter only saves the dedup SELECT; INSERT_FIRST has none, so the memory and warm-up scan would buy nothing
+        if (enabled && deduplicationMode != DeduplicationMode.SELECT_THEN_INSERT) {
+            log.warn("RRN filter disabled: transaction.dedup.mode is {}, which has no dedup SELECT to skip", deduplicationMode);
+            enabled = false;
+        }
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rotationInterval = rotationInterval;
+        this.warmUpEnabled = warmUpEnabled;
+
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(MYSQL_STREAMING_FETCH_SIZE);
+
+        this.definitelyNew = Counter.builder("transaction.dedup.filter.lookups")
+                .tag("result", "definitely_new")
+                .description("Dedup checks answered by the RRN filter without a database query")
+                .register(meterRegistry);
+        this.possibleDuplicate = Counter.builder("transaction.dedup.filter.lookups")
+                .tag("result", "possible_duplicate")
+                .description("Dedup checks the RRN filter passed on to the database")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("transaction.dedup.filter.false_positives")
+                .description("Possible duplicates that the database query showed to be new")
+                .register(meterRegistry);
+        Gauge.builder("transaction.dedup.filter.memory", this, RrnFilterServiceImpl::sizeInBytes)
+                .baseUnit("bytes")
+                .description("Off-heap memory held by the RRN filter generations")
+                .register(meterRegistry);
+
+        if (enabled) {
+            this.generations = new Generations(newFilter(), null);
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "RrnFilterMaintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("RRN filter enabled: expectedInsertions={}, falsePositiveRate={}, rotationInterval={}, {} bytes per generation",
+                    expectedInsertions, falsePositiveRate, rotationInterval, generations.current.sizeInBytes());
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    // Warm the filter from existing rows once the datasource is up, then rotate it on a fixed window
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        long intervalMillis = rotationInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::rotate, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        if (warmUpEnabled) {
+            scheduler.execute(this::warmUp);
+        } else {
+            ready = true;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isDefinitelyNew(String rrn, TransactionType type) {
+        // Until warm-up completes a miss proves nothing, so every check still goes to the database
+        if (!ready) {
+            return false;
+        }
+        long hash = OffHeapBloomFilter.hash(rrn, type.name());
+        Generations current = generations;
+        boolean mightContain = current.current.mightContain(hash)
+                || (current.previous != null && current.previous.mightContain(hash));
+        if (mightContain) {
+            possibleDuplicate.increment();
+            return false;
+        }
+        definitelyNew.increment();
+        return true;
+    }
+
+    @Override
+    public void recordInserted(String rrn, TransactionType type) {
+        if (enabled) {
+            generations.current.put(OffHeapBloomFilter.hash(rrn, type.name()));
+        }
+    }
+
+    @Override
+    public void recordFalsePositive() {
+        if (ready) {
+            falsePositives.increment();
+        }
+    }
+
+    // Stream keys created within the last window into the current generation
+    private void warmUp() {
+        long start = System.nanoTime();
+        LocalDateTime since = LocalDateTime.now().minus(rotationInterval);
+        LongAdder warmedUpKeys = new LongAdder();
+        try {
+            OffHeapBloomFilter filter = generations.current;
+            streamingJdbcTemplate.query(WARM_UP_SQL, resultSet -> {
+                filter.put(OffHeapBloomFilter.hash(resultSet.getString(1), resultSet.getString(2)));
+                warmedUpKeys.increment();
+            }, Timestamp.valueOf(since));
+            ready = true;
+            log.info("RRN filter warmed up with {} keys created since {} in {} ms",
+                    warmedUpKeys.sum(), since, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            // Leave the filter out of the dedup path; every check keeps going to the database
+            log.error("RRN filter warm-up failed, dedup checks will query the database: {}", e.getMessage());
+        }
+    }
+
+    // Scheduled every rotation interval once the application is ready
+    void rotate() {
+        Generations previous = generations;
+        generations = new Generations(newFilter(), previous.current);
+        log.info("RRN filter rotated, keys older than {} now fall back to the unique key on insert", rotationInterval.multipliedBy(2));
+    }
+
+    private OffHeapBloomFilter newFilter() {
+        return OffHeapBloomFilter.create(expectedInsertions, falsePositiveRate);
+    }
+
+    private double sizeInBytes() {
+        Generations current = generations;
+        if (current == null) {
+            return 0;
+        }
+        return current.current.sizeInBytes() + (current.previous == null ? 0 : current.previous.sizeInBytes());
+    }
+
+    private static final class Generations {
+        private final OffHeapBloomFilter current;
+        private final OffHeapBloomFilter previous;
+
+        private Generations(OffHeapBloomFilter current, OffHeapBloomFilter previous) {
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
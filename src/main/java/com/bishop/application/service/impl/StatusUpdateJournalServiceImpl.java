@@ -0,0 +1,325 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.enums.JournalFsyncPolicy;
+import com.bishop.application.enums.TransactionStatus;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.jfr.AsyncQueueWaitEvent;
+import com.bishop.application.jfr.StatusUpdateCommitEvent;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.StatusUpdateJournalService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.util.MappedJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+@Service
+public class StatusUpdateJournalServiceImpl implements StatusUpdateJournalService {
+    private static final Logger log = LoggerFactory.getLogger(StatusUpdateJournalServiceImpl.class);
+
+    private static final byte RECORD_VERSION = 1;
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5000;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final JournalFsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final DatabaseService databaseService;
+    private final TransactionMetricsService transactionMetricsService;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer appendLatency;
+    private final DistributionSummary applySize;
+    private final Counter failedUpdates;
+
+    private MappedJournal journal;
+    private ScheduledExecutorService fsyncScheduler;
+    private Thread drainer;
+    private volatile boolean running;
+    private volatile boolean drainerIdle;
+
+    @Autowired
+    public StatusUpdateJournalServiceImpl(@Value("${transaction.journal.enabled:false}") boolean enabled,
+                                          @Value("${transaction.journal.directory:data/journal}") String directory,
+                                          @Value("${transaction.journal.segment-size-mb:64}") int segmentSizeMb,
+                                          @Value("${transaction.journal.fsync-policy:INTERVAL}") JournalFsyncPolicy fsyncPolicy,
+                                          @Value("${transaction.journal.fsync-interval-ms:10}") long fsyncIntervalMillis,
+                                          @Value("${transaction.journal.max-batch-size:200}") int maxBatchSize,
+                                          @Value("${transaction.journal.max-latency-ms:50}") long maxLatencyMillis,
+                                          DatabaseService databaseService,
+                                          TransactionMetricsService transactionMetricsService,
+                                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentSize = Math.toIntExact(segmentSizeMb * 1024L * 1024L);
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.databaseService = databaseService;
+        this.transactionMetricsService = transactionMetricsService;
+        this.meterRegistry = meterRegistry;
+
+        this.appendLatency = Timer.builder("transaction.journal.append.latency")
+                .description("Time taken to append one status update to the local journal")
+                .register(meterRegistry);
+        this.applySize = DistributionSummary.builder("transaction.journal.apply.size")
+                .description("Number of journaled status updates applied to the database per batch")
+                .register(meterRegistry);
+        this.failedUpdates = Counter.builder("transaction.journal.failed")
+                .description("Journaled status updates skipped because the database rejected them permanently")
+                .register(meterRegistry);
+    }
+
+    // Open the journal before any request can append; recovered entries wait for the drainer
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = MappedJournal.open(directory, segmentSize, fsyncPolicy);
+        Gauge.builder("transaction.journal.pending", journal, MappedJournal::getPendingRecords)
+                .description("Journaled status updates not yet applied to the database")
+                .register(meterRegistry);
+        Gauge.builder("transaction.journal.segments", journal, MappedJournal::getSegmentCount)
+                .description("Journal segment files on disk")
+                .register(meterRegistry);
+        log.info("Status update journal opened at {}: fsyncPolicy={}, segmentSize={} bytes, {} updates to replay",
+                directory.toAbsolutePath(), fsyncPolicy, segmentSize, journal.getPendingRecords());
+    }
+
+    // Start applying entries once the datasource is up, beginning with anything left over from the last run
+    @EventListener(ApplicationReadyEvent.class)
+    public void startDrainer() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::runDrainer, "StatusJournalDrainer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        if (fsyncPolicy == JournalFsyncPolicy.INTERVAL) {
+            fsyncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "StatusJournalFsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            fsyncScheduler.scheduleWithFixedDelay(journal::force, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Entries the drainer has not applied stay in the journal and are replayed on the next start
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            drainer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (fsyncScheduler != null) {
+            fsyncScheduler.shutdownNow();
+        }
+        journal.close();
+        log.info("Status update journal closed with {} updates left to replay", journal.getPendingRecords());
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void append(PendingStatusUpdate update) throws IOException {
+        long start = System.nanoTime();
+        journal.append(encode(update));
+        appendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (drainerIdle) {
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    private void runDrainer() {
+        MappedJournal.Position position = journal.getCheckpoint();
+        List<byte[]> records = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                records.clear();
+                MappedJournal.Position next = journal.read(position, maxBatchSize, records);
+                if (records.isEmpty()) {
+                    drainerIdle = true;
+                    LockSupport.parkNanos(maxLatencyNanos);
+                    drainerIdle = false;
+                    continue;
+                }
+                // Give a partial batch one latency window to fill up before writing it
+                if (records.size() < maxBatchSize) {
+                    LockSupport.parkNanos(maxLatencyNanos);
+                    next = journal.read(next, maxBatchSize - records.size(), records);
+                }
+
+                List<PendingStatusUpdate> updates = decode(records);
+                if (!updates.isEmpty() && !apply(updates)) {
+                    return;
+                }
+                journal.checkpoint(next, records.size());
+                position = next;
+            } catch (Exception e) {
+                log.error("Unexpected error in status journal drainer: {}", e.getMessage(), e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(MAX_RETRY_BACKOFF_MILLIS));
+            }
+        }
+    }
+
+    // Write the batch, retrying while the database is unavailable. Returns false only if stopped before it succeeded.
+    private boolean apply(List<PendingStatusUpdate> updates) {
+        List<PendingStatusUpdate> batch = coalesce(updates);
+        AsyncQueueWaitEvent.emit(batch, "journal");
+        long backoffMillis = 100;
+        while (true) {
+            // Each attempt gets its own events, so retries show up as failed writes ahead of the one that commits
+            List<StatusUpdateCommitEvent> events = StatusUpdateCommitEvent.beginAll(batch);
+            try {
+                int updated = databaseService.batchUpdateTransactionStatus(batch);
+                applySize.record(batch.size());
+                log.info("Status journal applied {} updates, {} rows changed", batch.size(), updated);
+                transactionMetricsService.recordStatusUpdatesCommitted(batch);
+                StatusUpdateCommitEvent.completeAll(events, batch, "committed");
+                return true;
+            } catch (NonTransientDataAccessException e) {
+                StatusUpdateCommitEvent.completeAll(events, batch, "failed");
+                if (e instanceof DataAccessResourceFailureException) {
+                    log.warn("Database unavailable while applying {} journaled updates, retrying in {} ms: {}", batch.size(), backoffMillis, e.getMessage());
+                } else {
+                    // Retrying the same statement cannot succeed; isolate the rows that the database rejects
+                    applyIndividually(batch);
+                    return true;
+                }
+            } catch (Exception e) {
+                StatusUpdateCommitEvent.completeAll(events, batch, "failed");
+                log.warn("Failed to apply {} journaled updates, retrying in {} ms: {}", batch.size(), backoffMillis, e.getMessage());
+            }
+            if (!running) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+            backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+        }
+    }
+
+    private void applyIndividually(List<PendingStatusUpdate> batch) {
+        for (PendingStatusUpdate update : batch) {
+            StatusUpdateCommitEvent event = new StatusUpdateCommitEvent();
+            event.begin();
+            try {
+                boolean updated = databaseService.updateTransactionStatus(update);
+                transactionMetricsService.recordStatusUpdatesCommitted(List.of(update));
+                event.complete(update, 1, updated ? "committed" : "not_applied");
+            } catch (Exception e) {
+                event.complete(update, 1, "failed");
+                failedUpdates.increment();
+                log.error("{}: Skipping journaled status update the database rejected: {}", update.getRrn(), e.getMessage());
+            }
+        }
+        applySize.record(batch.size());
+    }
+
+    // Keep one update per transaction, replacing it only with a status the row could move to next
+    private List<PendingStatusUpdate> coalesce(List<PendingStatusUpdate> updates) {
+        Map<String, PendingStatusUpdate> byKey = new LinkedHashMap<>();
+        for (PendingStatusUpdate update : updates) {
+            byKey.merge(update.coalescingKey(), update, (previous, current) ->
+                    TransactionStatus.isTransitionAllowed(previous.getStatus(), current.getStatus()) ? current : previous);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    private static byte[] encode(PendingStatusUpdate update) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(RECORD_VERSION);
+            out.writeUTF(update.getTransactionType().name());
+            out.writeUTF(update.getRrn());
+            writeNullable(out, update.getStatus());
+            writeNullable(out, update.getStatusCode());
+            writeNullable(out, update.getStatusDesc());
+            writeNullable(out, update.getTranId());
+            out.writeLong(update.getUpdatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(update.getUpdatedAt().getNano());
+        }
+        return bytes.toByteArray();
+    }
+
+    // A record that cannot be decoded is skipped rather than blocking every update behind it
+    private List<PendingStatusUpdate> decode(List<byte[]> records) {
+        List<PendingStatusUpdate> updates = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+                byte version = in.readByte();
+                if (version != RECORD_VERSION) {
+                    throw new IOException("Unsupported journal record version " + version);
+                }
+                TransactionType type = TransactionType.valueOf(in.readUTF());
+                String rrn = in.readUTF();
+                String status = readNullable(in);
+                String statusCode = readNullable(in);
+                String statusDesc = readNullable(in);
+                String tranId = readNullable(in);
+                LocalDateTime updatedAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                updates.add(new PendingStatusUpdate(rrn, type, status, statusCode, statusDesc, tranId, updatedAt, System.nanoTime()));
+            } catch (IOException | IllegalArgumentException e) {
+                failedUpdates.increment();
+                log.error("Skipping unreadable status journal record: {}", e.getMessage());
+            }
+        }
+        return updates;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,324 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.enums.TransactionStatus;
+import com.bishop.application.jfr.AsyncQueueWaitEvent;
+import com.bishop.application.jfr.StatusUpdateCommitEvent;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.StatusUpdateWriteBehindService;
+import com.bishop.application.service.TransactionMetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class StatusUpdateWriteBehindServiceImpl implements StatusUpdateWriteBehindService {
+    private static final Logger log = LoggerFactory.getLogger(StatusUpdateWriteBehindServiceImpl.class);
+
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5000;
+
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final int capacity;
+    private final DatabaseService databaseService;
+    private final TransactionMetricsService transactionMetricsService;
+
+    // Pending updates keyed by transaction, in arrival order of the first update for each key
+    private final Map<String, BufferedUpdate> buffer = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushSignal = lock.newCondition();
+
+    private final DistributionSummary flushSize;
+    private final Timer flushLatency;
+    private final Timer queueLatency;
+    private final Counter coalescedUpdates;
+    private final Counter droppedUpdates;
+    private final Counter failedUpdates;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public StatusUpdateWriteBehindServiceImpl(@Value("${transaction.write-behind.enabled:true}") boolean enabled,
+                                              @Value("${transaction.write-behind.max-batch-size:200}") int maxBatchSize,
+                                              @Value("${transaction.write-behind.max-latency-ms:50}") long maxLatencyMillis,
+                                              @Value("${transaction.write-behind.capacity:10000}") int capacity,
+                                              DatabaseService databaseService,
+                                              TransactionMetricsService transactionMetricsService,
+                                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        this.capacity = Math.max(capacity, maxBatchSize);
+        this.databaseService = databaseService;
+        this.transactionMetricsService = transactionMetricsService;
+
+        this.flushSize = DistributionSummary.builder("transaction.write_behind.flush.size")
+                .description("Number of status updates written per batch")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("transaction.write_behind.flush.latency")
+                .description("Time taken to write one batch of status updates")
+                .register(meterRegistry);
+        this.queueLatency = Timer.builder("transaction.write_behind.queue.latency")
+                .description("Time a status update waited in the buffer before being flushed")
+                .register(meterRegistry);
+        this.coalescedUpdates = Counter.builder("transaction.write_behind.coalesced")
+                .description("Status updates merged into an already pending update for the same RRN")
+                .register(meterRegistry);
+        this.droppedUpdates = Counter.builder("transaction.write_behind.dropped")
+                .description("Status updates discarded because the row could not move to them from the pending update")
+                .register(meterRegistry);
+        this.failedUpdates = Counter.builder("transaction.write_behind.failed")
+                .description("Status updates the database rejected, or that were still unwritten at shutdown")
+                .register(meterRegistry);
+        Gauge.builder("transaction.write_behind.pending", this, StatusUpdateWriteBehindServiceImpl::pendingCount)
+                .description("Status updates waiting in the buffer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Write-behind status updates are disabled, falling back to one task per update");
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlushLoop, "WriteBehindFlusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        log.info("Write-behind status updates enabled: maxBatchSize={}, maxLatency={}ms, capacity={}",
+                maxBatchSize, TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos), capacity);
+    }
+
+    // Stop the flusher and write whatever is still pending before the datasource goes away
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        signalFlush();
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+
+        List<PendingStatusUpdate> remaining;
+        while (!(remaining = drain(Integer.MAX_VALUE)).isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void enqueue(PendingStatusUpdate update) {
+        String key = update.coalescingKey();
+        List<PendingStatusUpdate> overflow = null;
+
+        lock.lock();
+        try {
+            BufferedUpdate previous = buffer.get(key);
+            if (previous != null) {
+                // Keep the original position and enqueue time so the latency deadline still holds.
+                // An update the row could not accept after the pending one is dropped, as the database would reject it.
+                if (TransactionStatus.isTransitionAllowed(previous.update.getStatus(), update.getStatus())) {
+                    previous.update = update;
+                    coalescedUpdates.increment();
+                } else {
+                    droppedUpdates.increment();
+                }
+                return;
+            }
+
+            // Buffer is full: the caller writes the oldest batch itself, waiting out a database outage, instead of dropping updates
+            if (buffer.size() >= capacity) {
+                overflow = drainLocked(maxBatchSize);
+            }
+
+            buffer.put(key, new BufferedUpdate(update));
+            if (buffer.size() == 1 || buffer.size() >= maxBatchSize) {
+                flushSignal.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (overflow != null) {
+            log.warn("Write-behind buffer full ({} pending), flushing {} updates on caller thread", capacity, overflow.size());
+            flush(overflow);
+        }
+    }
+
+    private void runFlushLoop() {
+        while (running) {
+            try {
+                List<PendingStatusUpdate> batch = awaitBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Unexpected error in write-behind flusher: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    // Wait until either a full batch is available or the oldest pending update reaches its deadline
+    private List<PendingStatusUpdate> awaitBatch() throws InterruptedException {
+        lock.lock();
+        try {
+            while (running && buffer.size() < maxBatchSize) {
+                if (buffer.isEmpty()) {
+                    flushSignal.await();
+                    continue;
+                }
+                long oldest = buffer.values().iterator().next().firstEnqueuedAtNanos;
+                long remaining = oldest + maxLatencyNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                flushSignal.awaitNanos(remaining);
+            }
+            return drainLocked(maxBatchSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<PendingStatusUpdate> drain(int max) {
+        lock.lock();
+        try {
+            return drainLocked(max);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private List<PendingStatusUpdate> drainLocked(int max) {
+        if (buffer.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<PendingStatusUpdate> batch = new ArrayList<>(Math.min(max, buffer.size()));
+        long now = System.nanoTime();
+        Iterator<BufferedUpdate> iterator = buffer.values().iterator();
+        while (iterator.hasNext() && batch.size() < max) {
+            BufferedUpdate buffered = iterator.next();
+            queueLatency.record(now - buffered.firstEnqueuedAtNanos, TimeUnit.NANOSECONDS);
+            batch.add(buffered.update);
+            iterator.remove();
+        }
+        return batch;
+    }
+
+    // Write the batch, retrying while the database is unavailable. Once stopped, a batch that still fails is lost.
+    private void flush(List<PendingStatusUpdate> batch) {
+        AsyncQueueWaitEvent.emit(batch, "write-behind");
+        long start = System.nanoTime();
+        long backoffMillis = 100;
+        try {
+            while (true) {
+                // Each attempt gets its own events, so retries show up as failed writes ahead of the one that commits
+                List<StatusUpdateCommitEvent> events = StatusUpdateCommitEvent.beginAll(batch);
+                try {
+                    int updated = databaseService.batchUpdateTransactionStatus(batch);
+                    log.info("Write-behind flushed {} status updates, {} rows changed", batch.size(), updated);
+                    transactionMetricsService.recordStatusUpdatesCommitted(batch);
+                    StatusUpdateCommitEvent.completeAll(events, batch, "committed");
+                    return;
+                } catch (NonTransientDataAccessException e) {
+                    StatusUpdateCommitEvent.completeAll(events, batch, "failed");
+                    if (e instanceof DataAccessResourceFailureException) {
+                        log.warn("Database unavailable while flushing {} status updates, retrying in {} ms: {}", batch.size(), backoffMillis, e.getMessage());
+                    } else {
+                        // Retrying the same statement cannot succeed; isolate the rows that the database rejects
+                        flushIndividually(batch);
+                        return;
+                    }
+                } catch (Exception e) {
+                    StatusUpdateCommitEvent.completeAll(events, batch, "failed");
+                    log.warn("Failed to flush {} status updates, retrying in {} ms: {}", batch.size(), backoffMillis, e.getMessage());
+                }
+                if (!running) {
+                    failedUpdates.increment(batch.size());
+                    log.error("Dropping {} status updates that could not be written before shutdown", batch.size());
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_BACKOFF_MILLIS);
+            }
+        } finally {
+            flushSize.record(batch.size());
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushIndividually(List<PendingStatusUpdate> batch) {
+        for (PendingStatusUpdate update : batch) {
+            StatusUpdateCommitEvent event = new StatusUpdateCommitEvent();
+            event.begin();
+            try {
+                boolean updated = databaseService.updateTransactionStatus(update);
+                transactionMetricsService.recordStatusUpdatesCommitted(List.of(update));
+                event.complete(update, 1, updated ? "committed" : "not_applied");
+            } catch (Exception e) {
+                event.complete(update, 1, "failed");
+                failedUpdates.increment();
+                log.error("{}: Skipping status update the database rejected: {}", update.getRrn(), e.getMessage());
+            }
+        }
+    }
+
+    private void signalFlush() {
+        lock.lock();
+        try {
+            flushSignal.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int pendingCount() {
+        lock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class BufferedUpdate {
+        private final long firstEnqueuedAtNanos;
+        private PendingStatusUpdate update;
+
+        private BufferedUpdate(PendingStatusUpdate update) {
+            this.firstEnqueuedAtNanos = update.getEnqueuedAtNanos();
+            this.update = update;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.ProcessingStage;
+import com.bishop.application.enums.TransactionStage;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.TransactionMetricsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Per-stage timers for the transaction pipeline. Every stage, type and outcome combination is registered up front,
+// so recording is an array lookup on the request path rather than a registry lookup.
+@Service
+public class TransactionMetricsServiceImpl implements TransactionMetricsService {
+
+    private final MeterRegistry meterRegistry;
+    // Indexed [stage][type][0 = success, 1 = failure]
+    private final Timer[][][] stageTimers;
+    private final Timer[] statusUpdateLag;
+    private final Map<Integer, Counter> outcomes = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> avoidedStatusUpdates = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TransactionMetricsServiceImpl(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        TransactionStage[] stages = TransactionStage.values();
+        TransactionType[] types = TransactionType.values();
+        this.stageTimers = new Timer[stages.length][types.length][2];
+        this.statusUpdateLag = new Timer[types.length];
+        for (TransactionType type : types) {
+            for (TransactionStage stage : stages) {
+                stageTimers[stage.ordinal()][type.ordinal()][0] = stageTimer(stage, type, "success");
+                stageTimers[stage.ordinal()][type.ordinal()][1] = stageTimer(stage, type, "failure");
+            }
+            statusUpdateLag[type.ordinal()] = Timer.builder("transaction.status_update.lag")
+                    .tag("type", type.name())
+                    .description("Time from the response being produced to its status update being committed")
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofMinutes(5))
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void recordStage(TransactionStage stage, TransactionType type, long startNanos, boolean success) {
+        stageTimers[stage.ordinal()][type.ordinal()][success ? 0 : 1].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordOutcome(TransactionType type, int httpStatus) {
+        outcomes.computeIfAbsent(type.ordinal() * 1000 + httpStatus, key -> Counter.builder("transaction.outcomes")
+                .tag("type", type.name())
+                .tag("code", String.valueOf(httpStatus))
+                .description("Transaction responses returned to the channel, by HTTP status")
+                .register(meterRegistry)).increment();
+    }
+
+    // updatedAt is taken when the response is built and survives the journal, so it works for every update path
+    @Override
+    public void recordStatusUpdatesCommitted(List<PendingStatusUpdate> updates) {
+        LocalDateTime now = LocalDateTime.now();
+        for (PendingStatusUpdate update : updates) {
+            long lagNanos = Duration.between(update.getUpdatedAt(), now).toNanos();
+            statusUpdateLag[update.getTransactionType().ordinal()].record(Math.max(0, lagNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Failures that ended before this request's record was committed, so no status update was scheduled
+    @Override
+    public void recordStatusUpdateAvoided(TransactionType type, ProcessingStage stage, ErrorKind kind) {
+        int key = (type.ordinal() * ProcessingStage.values().length + stage.ordinal()) * ErrorKind.values().length + kind.ordinal();
+        avoidedStatusUpdates.computeIfAbsent(key, k -> Counter.builder("transaction.status_update.avoided")
+                .tag("type", type.name())
+                .tag("stage", stage.getTagValue())
+                .tag("kind", kind.name())
+                .description("Failed requests answered without an asynchronous status update, by the stage they reached")
+                .register(meterRegistry)).increment();
+    }
+
+    private Timer stageTimer(TransactionStage stage, TransactionType type, String outcome) {
+        return Timer.builder("transaction.stage.latency")
+                .tag("stage", stage.getTagValue())
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .description("Time spent in one stage of transaction processing")
+                .publishPercentileHistogram()
+                // Index lookups finish well under a millisecond, so buckets start at 100 microseconds
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry);
+    }
+}
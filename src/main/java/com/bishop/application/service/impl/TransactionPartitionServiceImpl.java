@@ -0,0 +1,438 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.service.TransactionPartitionService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Daily RANGE COLUMNS partitions on transaction_details.created_at (MySQL). An empty table is converted at startup;
+// maintenance then keeps days-ahead partitions split off the MAXVALUE catch-all, streams each partition past the
+// retention period to a gzip NDJSON archive before dropping it, and purges dedup keys older than the dedup window.
+// Schema changes and maintenance run under a MySQL named lock, so with several instances only one does the work.
+@Service
+@DependsOn("entityManagerFactory")
+public class TransactionPartitionServiceImpl implements TransactionPartitionService {
+    private static final Logger log = LoggerFactory.getLogger(TransactionPartitionServiceImpl.class);
+
+    private static final String TABLE = "transaction_details";
+    private static final String FUTURE_PARTITION = "p_future";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final String LOCK_NAME = "transaction_details.partition_maintenance";
+    private static final int STARTUP_LOCK_TIMEOUT_SECONDS = 60;
+    // Makes MySQL Connector/J stream rows one at a time instead of buffering the whole result set
+    private static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int ARCHIVE_BUFFER_BYTES = 64 * 1024;
+    private static final int DEDUP_KEY_PURGE_BATCH = 10_000;
+
+    private static final String CREATE_DEDUP_KEYS_SQL = "CREATE TABLE IF NOT EXISTS transaction_dedup_keys ("
+            + "rrn VARCHAR(20) NOT NULL, transaction_type VARCHAR(32) NOT NULL, created_at DATETIME(6) NOT NULL, "
+            + "PRIMARY KEY (rrn, transaction_type), KEY idx_dedup_keys_created_at (created_at))";
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME FROM INFORMATION_SCHEMA.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION";
+    private static final String INDEXES_SQL = "SELECT DISTINCT INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+    private static final String UNIQUE_INDEXES_SQL = "SELECT DISTINCT INDEX_NAME FROM INFORMATION_SCHEMA.STATISTICS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'";
+    private static final String BACKFILL_DEDUP_KEYS_SQL = "INSERT IGNORE INTO transaction_dedup_keys (rrn, transaction_type, created_at) "
+            + "SELECT rrn, transaction_type, created_at FROM " + TABLE + " WHERE created_at >= ? AND created_at < ?";
+    private static final String PURGE_DEDUP_KEYS_SQL =
+            "DELETE FROM transaction_dedup_keys WHERE created_at < ? LIMIT " + DEDUP_KEY_PURGE_BATCH;
+
+    private final boolean enabled;
+    private final int daysAhead;
+    private final int retentionDays;
+    private final Duration maintenanceInterval;
+    private final Path archiveDirectory;
+    private final Duration dedupRetentionWindow;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+
+    private final Counter archivedPartitions;
+    private final Counter archivedRows;
+    private final Counter purgedDedupKeys;
+
+    private final ScheduledExecutorService scheduler;
+
+    // False while an existing, non-empty table is still waiting for an operator to partition it
+    private volatile boolean partitioned;
+
+    @Autowired
+    public TransactionPartitionServiceImpl(@Value("${transaction.partitioning.enabled:false}") boolean enabled,
+                                           @Value("${transaction.partitioning.days-ahead:3}") int daysAhead,
+                                           @Value("${transaction.partitioning.retention-days:30}") int retentionDays,
+                                           @Value("${transaction.partitioning.maintenance-interval:1h}") Duration maintenanceInterval,
+                                           @Value("${transaction.partitioning.archive.directory:data/archive}") String archiveDirectory,
+                                           @Value("${transaction.dedup.retention-window:7d}") Duration dedupRetentionWindow,
+                                           JdbcTemplate jdbcTemplate,
+                                           DataSource dataSource,
+                                           @Qualifier("Transactional") TransactionTemplate transactionTemplate,
+                                           ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry) {
+        // Dedup and status lookups only search the window, so it must never reach into archived partitions
+        if (enabled && (dedupRetentionWindow.isNegative() || dedupRetentionWindow.isZero()
+                || dedupRetentionWindow.compareTo(Duration.ofDays(retentionDays)) > 0)) {
+            throw new IllegalArgumentException("transaction.dedup.retention-window must be positive and no longer than "
+                    + "transaction.partitioning.retention-days: " + dedupRetentionWindow + " > " + retentionDays + " days");
+        }
+        this.enabled = enabled;
+        this.daysAhead = daysAhead;
+        this.retentionDays = retentionDays;
+        this.maintenanceInterval = maintenanceInterval;
+        this.archiveDirectory = Path.of(archiveDirectory);
+        this.dedupRetentionWindow = dedupRetentionWindow;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(MYSQL_STREAMING_FETCH_SIZE);
+
+        this.archivedPartitions = Counter.builder("transaction.partitions.archived")
+                .description("Expired transaction_details partitions archived and dropped")
+                .register(meterRegistry);
+        this.archivedRows = Counter.builder("transaction.partitions.archived.rows")
+                .description("Rows written to partition archives")
+                .register(meterRegistry);
+        this.purgedDedupKeys = Counter.builder("transaction.dedup.keys.purged")
+                .description("Dedup keys deleted after leaving the dedup retention window")
+                .register(meterRegistry);
+
+        this.scheduler = enabled ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PartitionMaintenance");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    // Runs after the Flyway migrations and Hibernate's validation (the entity manager factory waits for both) and
+    // before the web server accepts requests, so the first insert already finds the dedup key table and, for a new
+    // table, the partitioned layout. Partitioning is opt-in per environment, so it stays here rather than in a migration.
+    @PostConstruct
+    public void prepareSchema() {
+        if (!enabled) {
+            return;
+        }
+        boolean locked = withLock(STARTUP_LOCK_TIMEOUT_SECONDS, () -> {
+            jdbcTemplate.execute(CREATE_DEDUP_KEYS_SQL);
+            if (!listPartitions().isEmpty()) {
+                partitioned = true;
+                return;
+            }
+            // Inserts claim their keys from now on; earlier rows in the window must be there before the unique key goes
+            backfillDedupKeys();
+            String conversion = conversionStatement(LocalDate.now());
+            if (isEmpty()) {
+                jdbcTemplate.execute(conversion);
+                partitioned = true;
+                log.info("Partitioned {} by day on created_at", TABLE);
+            } else {
+                // Rebuilding a populated table blocks writes for the whole copy; leave that to an online schema change tool
+                log.warn("{} holds rows and is not partitioned, so partition maintenance is off until it is converted with: {}",
+                        TABLE, conversion);
+            }
+        });
+        if (!locked) {
+            throw new IllegalStateException("Timed out waiting for lock " + LOCK_NAME + " to prepare the " + TABLE + " partitions");
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleMaintenance() {
+        if (!enabled) {
+            return;
+        }
+        long intervalMillis = maintenanceInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::runMaintenance, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Partition maintenance scheduled every {}: {} days ahead, {} days retained, archives in {}",
+                maintenanceInterval, daysAhead, retentionDays, archiveDirectory.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public void runMaintenance() {
+        if (!enabled || !partitioned) {
+            return;
+        }
+        try {
+            if (!withLock(0, this::maintain)) {
+                log.info("Partition maintenance skipped: another instance holds {}", LOCK_NAME);
+            }
+        } catch (Exception e) {
+            // Retried on the next run; nothing is dropped unless its archive was written completely
+            log.error("Partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void maintain() {
+        LocalDate today = LocalDate.now();
+        List<LocalDate> days = partitionDays(listPartitions());
+        addFuturePartitions(days, today);
+        archiveExpiredPartitions(days, today);
+        purgeDedupKeys();
+    }
+
+    // Split the days up to today + daysAhead off the catch-all; rows already in it are moved into place
+    private void addFuturePartitions(List<LocalDate> days, LocalDate today) {
+        LocalDate first = days.isEmpty() ? today : days.get(days.size() - 1).plusDays(1);
+        LocalDate last = today.plusDays(daysAhead);
+        if (first.isAfter(last)) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO ("
+                + partitionDefinitions(first, last) + ", " + futurePartitionDefinition() + ")");
+        log.info("Added {} partitions {} to {}", TABLE, first, last);
+    }
+
+    // A partition expires once its newest possible row is older than the retention period
+    private void archiveExpiredPartitions(List<LocalDate> days, LocalDate today) {
+        LocalDate oldestRetained = today.minusDays(retentionDays);
+        for (LocalDate day : days) {
+            if (day.plusDays(1).isAfter(oldestRetained)) {
+                break;
+            }
+            String partition = PARTITION_NAME.format(day);
+            try {
+                archiveAndDrop(partition);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not archive partition " + partition, e);
+            }
+        }
+    }
+
+    // The archive is written to a temporary file, synced and renamed into place before the partition is dropped, so a
+    // failure at any point leaves the rows in the database and the next run starts that partition again
+    private void archiveAndDrop(String partition) throws IOException {
+        Files.createDirectories(archiveDirectory);
+        Path archive = archiveDirectory.resolve(TABLE + "_" + partition + ".ndjson.gz");
+        Path temporary = archiveDirectory.resolve(archive.getFileName() + ".tmp");
+
+        long start = System.nanoTime();
+        long written;
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(file, ARCHIVE_BUFFER_BYTES), ARCHIVE_BUFFER_BYTES)) {
+            written = writeRows(partition, gzip);
+            gzip.finish();
+            gzip.flush();
+            file.getFD().sync();
+        }
+
+        // Rows arriving for an expired day would mean clock trouble; keep the partition rather than lose them
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE + " PARTITION (" + partition + ")", Long.class);
+        if (rows == null || rows != written) {
+            Files.deleteIfExists(temporary);
+            log.warn("Partition {} changed while it was archived ({} rows written, {} now), keeping it for the next run",
+                    partition, written, rows);
+            return;
+        }
+
+        Files.move(temporary, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+        archivedPartitions.increment();
+        archivedRows.increment(written);
+        log.info("Archived {} rows of partition {} to {} in {} ms and dropped the partition",
+                written, partition, archive, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    // One JSON object per row, keyed by column name, with every value as its string form so nothing is lost in conversion
+    private long writeRows(String partition, OutputStream out) {
+        ResultSetExtractor<Long> writer = resultSet -> {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            String[] columns = new String[metaData.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = metaData.getColumnLabel(i + 1);
+            }
+            long rows = 0;
+            try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                while (resultSet.next()) {
+                    generator.writeStartObject();
+                    for (int i = 0; i < columns.length; i++) {
+                        String value = resultSet.getString(i + 1);
+                        if (value == null) {
+                            generator.writeNullField(columns[i]);
+                        } else {
+                            generator.writeStringField(columns[i], value);
+                        }
+                    }
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    rows++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        };
+        Long rows = streamingJdbcTemplate.query("SELECT * FROM " + TABLE + " PARTITION (" + partition + ")", writer);
+        return rows == null ? 0 : rows;
+    }
+
+    // Keys past the dedup window no longer reject anything; deleted in small batches to keep each transaction short
+    private void purgeDedupKeys() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(dedupRetentionWindow));
+        long purged = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> jdbcTemplate.update(PURGE_DEDUP_KEYS_SQL, cutoff));
+            purged += deleted == null ? 0 : deleted;
+        } while (deleted != null && deleted == DEDUP_KEY_PURGE_BATCH);
+        if (purged > 0) {
+            purgedDedupKeys.increment(purged);
+            log.info("Purged {} dedup keys created before {}", purged, cutoff);
+        }
+    }
+
+    // Copy the keys of rows created within the dedup window, a day per transaction so no single statement holds locks
+    // on a large range. Rows inserted from here on claim their own keys, and INSERT IGNORE skips keys already claimed.
+    private void backfillDedupKeys() {
+        LocalDateTime now = LocalDateTime.now();
+        long copied = 0;
+        for (LocalDateTime from = now.minus(dedupRetentionWindow); from.isBefore(now); from = from.plusDays(1)) {
+            Timestamp chunkStart = Timestamp.valueOf(from);
+            Timestamp chunkEnd = Timestamp.valueOf(from.plusDays(1).isBefore(now) ? from.plusDays(1) : now);
+            Integer inserted = transactionTemplate.execute(status -> jdbcTemplate.update(BACKFILL_DEDUP_KEYS_SQL, chunkStart, chunkEnd));
+            copied += inserted == null ? 0 : inserted;
+        }
+        if (copied > 0) {
+            log.info("Backfilled {} dedup keys created within the last {}", copied, dedupRetentionWindow);
+        }
+    }
+
+    // MySQL can only partition on columns that are part of every unique key, so the primary key gains created_at and
+    // every other unique key is dropped: the (rrn, transaction_type) key becomes a plain index and transaction_dedup_keys
+    // takes over rejecting duplicates. That includes the rrn-only key of a database V3 has not reached yet. Databases
+    // still on schema version 1 also drop the single-value idx_transaction_type here.
+    private String conversionStatement(LocalDate today) {
+        Set<String> indexes = new HashSet<>(jdbcTemplate.queryForList(INDEXES_SQL, String.class, TABLE));
+        List<String> changes = new ArrayList<>();
+        changes.add("MODIFY created_at DATETIME(6) NOT NULL");
+        changes.add("DROP PRIMARY KEY");
+        changes.add("ADD PRIMARY KEY (id, created_at)");
+        for (String index : jdbcTemplate.queryForList(UNIQUE_INDEXES_SQL, String.class, TABLE)) {
+            changes.add("DROP INDEX `" + index + "`");
+        }
+        if (indexes.contains("idx_transaction_type")) {
+            changes.add("DROP INDEX idx_transaction_type");
+        }
+        if (!indexes.contains("idx_rrn_transaction_type_created_at")) {
+            changes.add("ADD INDEX idx_rrn_transaction_type_created_at (rrn, transaction_type, created_at)");
+        }
+        return "ALTER TABLE " + TABLE + " " + String.join(", ", changes)
+                + " PARTITION BY RANGE COLUMNS (created_at) ("
+                + partitionDefinitions(today, today.plusDays(daysAhead)) + ", " + futurePartitionDefinition() + ")";
+    }
+
+    // One partition per day, named pYYYYMMDD; the first one also holds every older row
+    private static String partitionDefinitions(LocalDate first, LocalDate last) {
+        List<String> definitions = new ArrayList<>();
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            definitions.add("PARTITION " + PARTITION_NAME.format(day) + " VALUES LESS THAN ('" + day.plusDays(1) + " 00:00:00')");
+        }
+        return String.join(", ", definitions);
+    }
+
+    // Catches rows past the last daily partition, so inserts keep working if maintenance falls behind
+    private static String futurePartitionDefinition() {
+        return "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE)";
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, TABLE);
+    }
+
+    // Days of the daily partitions in ascending order; the catch-all and any unrecognised names are left alone
+    private static List<LocalDate> partitionDays(List<String> partitions) {
+        List<LocalDate> days = new ArrayList<>(partitions.size());
+        for (String partition : partitions) {
+            try {
+                days.add(LocalDate.parse(partition, PARTITION_NAME));
+            } catch (DateTimeParseException e) {
+                // Not a daily partition
+            }
+        }
+        return days;
+    }
+
+    private boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT 1 FROM " + TABLE + " LIMIT 1").isEmpty();
+    }
+
+    // GET_LOCK belongs to the session that took it, so the lock is held on a connection of its own while the work
+    // runs on others; returns false if the lock was not obtained within the timeout
+    private boolean withLock(int timeoutSeconds, Runnable work) {
+        Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                lock.setString(1, LOCK_NAME);
+                lock.setInt(2, timeoutSeconds);
+                try (ResultSet result = lock.executeQuery()) {
+                    if (!result.next() || result.getInt(1) != 1) {
+                        return false;
+                    }
+                }
+            }
+            try {
+                work.run();
+                return true;
+            } finally {
+                try (PreparedStatement release = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    release.setString(1, LOCK_NAME);
+                    release.executeQuery().close();
+                }
+            }
+        });
+        return Boolean.TRUE.equals(ran);
+    }
+}
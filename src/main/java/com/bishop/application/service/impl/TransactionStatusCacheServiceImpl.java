@@ -0,0 +1,99 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.dto.TransactionStatusView;
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.TransactionStatus;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.TransactionStatusCacheService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+@Service
+public class TransactionStatusCacheServiceImpl implements TransactionStatusCacheService {
+
+    private final boolean enabled;
+    private final DatabaseService databaseService;
+    private final Cache<String, TransactionStatusView> cache;
+
+    @Autowired
+    public TransactionStatusCacheServiceImpl(@Value("${transaction.status-cache.enabled:true}") boolean enabled,
+                                             @Value("${transaction.status-cache.maximum-size:100000}") long maximumSize,
+                                             @Value("${transaction.status-cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                             @Lazy DatabaseService databaseService,
+                                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.databaseService = databaseService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size, ...
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "transactionStatus");
+    }
+
+    @Override
+    public TransactionStatusView getStatus(String rrn, TransactionType type) {
+        if (!enabled) {
+            return databaseService.getTransactionStatus(rrn, type);
+        }
+        String key = key(rrn, type);
+        TransactionStatusView cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        TransactionStatusView loaded = databaseService.getTransactionStatus(rrn, type);
+        // A row that is not final yet may have its update still queued in write-behind or the journal;
+        // caching it could pin the stale status until it expires, so only final statuses are kept
+        if (loaded != null && isFinal(loaded.getStatus())) {
+            cache.asMap().putIfAbsent(key, loaded);
+        }
+        return loaded;
+    }
+
+    // Called once the initial record is saved, so a poll right after the response is served from memory
+    @Override
+    public void recordInserted(TransactionDetails entity) {
+        if (enabled) {
+            cache.put(key(entity.getRrn(), entity.getTransactionType()), new TransactionStatusView(
+                    entity.getRrn(),
+                    entity.getTransactionType(),
+                    entity.getStatus(),
+                    entity.getStatusCode(),
+                    entity.getStatusDesc(),
+                    entity.getTranId(),
+                    entity.getUpdatedAt()));
+        }
+    }
+
+    // Apply the update with the same transition guard the database UPDATE uses. Entries that are not cached are
+    // left alone: the update alone cannot tell whether the row already holds a final status.
+    @Override
+    public void recordStatusUpdate(PendingStatusUpdate update) {
+        if (enabled) {
+            cache.asMap().computeIfPresent(key(update.getRrn(), update.getTransactionType()), (key, current) ->
+                    TransactionStatus.isTransitionAllowed(current.getStatus(), update.getStatus())
+                            ? TransactionStatusView.from(update)
+                            : current);
+        }
+    }
+
+    private static boolean isFinal(String status) {
+        return TransactionStatus.SUCCESS.name().equals(status) || TransactionStatus.FAILURE.name().equals(status);
+    }
+
+    private static String key(String rrn, TransactionType type) {
+        return type.name() + ':' + rrn;
+    }
+}
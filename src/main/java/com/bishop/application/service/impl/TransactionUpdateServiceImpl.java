@@ -1,10 +1,16 @@
 package com.bishop.application.service.impl;
 
+import com.bishop.application.dto.PendingStatusUpdate;
 import com.bishop.application.dto.TransactionResponse;
-import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.TransactionStage;
 import com.bishop.application.enums.TransactionType;
+import com.bishop.application.jfr.AsyncQueueWaitEvent;
+import com.bishop.application.jfr.StatusUpdateCommitEvent;
 import com.bishop.application.service.DatabaseService;
-import com.bishop.application.service.TransactionMapperService;
+import com.bishop.application.service.StatusUpdateJournalService;
+import com.bishop.application.service.StatusUpdateWriteBehindService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.TransactionStatusCacheService;
 import com.bishop.application.service.TransactionUpdateService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,38 +19,89 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class TransactionUpdateServiceImpl implements TransactionUpdateService {
     private static final Logger log = LoggerFactory.getLogger(TransactionUpdateServiceImpl.class);
 
     private final TaskExecutor taskExecutor;
     private final DatabaseService databaseService;
-    private final TransactionMapperService transactionMapperService;
+    private final StatusUpdateWriteBehindService statusUpdateWriteBehindService;
+    private final StatusUpdateJournalService statusUpdateJournalService;
+    private final TransactionStatusCacheService transactionStatusCacheService;
+    private final TransactionMetricsService transactionMetricsService;
 
     @Autowired
     public TransactionUpdateServiceImpl(@Qualifier("taskExecutor") TaskExecutor taskExecutor,
                                         DatabaseService databaseService,
-                                        TransactionMapperService transactionMapperService) {
+                                        StatusUpdateWriteBehindService statusUpdateWriteBehindService,
+                                        StatusUpdateJournalService statusUpdateJournalService,
+                                        TransactionStatusCacheService transactionStatusCacheService,
+                                        TransactionMetricsService transactionMetricsService) {
         this.taskExecutor = taskExecutor;
         this.databaseService = databaseService;
-        this.transactionMapperService = transactionMapperService;
+        this.statusUpdateWriteBehindService = statusUpdateWriteBehindService;
+        this.statusUpdateJournalService = statusUpdateJournalService;
+        this.transactionStatusCacheService = transactionStatusCacheService;
+        this.transactionMetricsService = transactionMetricsService;
     }
 
     // No @Transactional here because database update runs asynchronously in a separate thread
     @Override
     public void updateDbStatus(String rrn, TransactionResponse channelResponse, TransactionType type) {
+        // Time only the hand-off the response thread pays for; the row write itself is timed where it is applied
+        long start = System.nanoTime();
+        try {
+            handOff(rrn, channelResponse, type);
+        } finally {
+            transactionMetricsService.recordStage(TransactionStage.STATUS_HANDOFF, type, start, true);
+        }
+    }
+
+    private void handOff(String rrn, TransactionResponse channelResponse, TransactionType type) {
+        PendingStatusUpdate update = PendingStatusUpdate.from(rrn, type, channelResponse);
+
+        // Status polls see the outcome the channel was given, even before the row write below is applied
+        transactionStatusCacheService.recordStatusUpdate(update);
+
+        // Persist the update to the local journal; its drainer applies it even across a crash or restart
+        if (statusUpdateJournalService.isEnabled()) {
+            try {
+                statusUpdateJournalService.append(update);
+                log.info("{}: Journaled Database Status Update For Record With RRN: {}", rrn, rrn);
+                return;
+            } catch (Exception e) {
+                log.error("{}: Failed to journal status update, falling back to in-memory update: {}", rrn, e.getMessage());
+            }
+        }
+
+        // Hand the update to the write-behind buffer, which batches and coalesces row writes
+        if (statusUpdateWriteBehindService.isEnabled()) {
+            log.info("{}: Queueing Database Status Update For Record With RRN: {}", rrn, rrn);
+            statusUpdateWriteBehindService.enqueue(update);
+            return;
+        }
+
         taskExecutor.execute(() -> {
+            AsyncQueueWaitEvent.emit(List.of(update), "executor");
+            StatusUpdateCommitEvent event = new StatusUpdateCommitEvent();
+            event.begin();
             try {
-                // Compose transaction entity from channel response
-                TransactionDetails entity = transactionMapperService.composeErrorStatusEntity(rrn, channelResponse, type);
+                // Apply the status in a single guarded UPDATE, without re-reading the row first
+                log.info("{}: Updating Database Status For Record With RRN: {}", rrn, rrn);
+                boolean updated = databaseService.updateTransactionStatus(update);
 
-                if (entity != null) {
-                    log.info("{}: Updating Database Status For Record With RRN: {}", rrn, rrn);
-                    databaseService.updateTransactionRecord(rrn, entity);
+                if (updated) {
+                    log.info("{}: Transaction updated successfully.", rrn);
+                    transactionMetricsService.recordStatusUpdatesCommitted(List.of(update));
+                    event.complete(update, 1, "committed");
                 } else {
-                    log.warn("{}: TransactionDetails Entity is null or empty, skipping database update", rrn);
+                    log.warn("{}: No record updated, the record is missing or cannot move to status {}", rrn, channelResponse.getStatus());
+                    event.complete(update, 1, "not_applied");
                 }
             } catch (Exception e) {
+                event.complete(update, 1, "failed");
                 log.error("{}: Failed to update database record asynchronously for RRN: {}. Error: {}", rrn, rrn, e.getMessage());
             }
         });
@@ -0,0 +1,143 @@
+package com.bishop.application.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-flight request limit that follows downstream latency with a gradient rule.
+ * <p>
+ * Samples are averaged over short windows. A slow exponential average of those window averages serves as the
+ * latency the downstream gives when it is not overloaded. At the end of each window the limit is scaled by
+ * {@code gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1)}, then grows by {@code sqrt(limit)}: when latency stays near
+ * the baseline the limit keeps growing, and when latency rises the gradient shrinks it in proportion. A window
+ * with a timed-out call cuts the limit by the backoff ratio instead. Changes are smoothed so one noisy window
+ * cannot swing the limit far.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private static final double LONG_RTT_WINDOWS = 60;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final long windowNanos;
+    private final int windowMinSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Written under the instance lock at the end of a window, read lock-free by tryAcquire
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double backoffRatio,
+                                    long windowMillis, int windowMinSamples) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limit bounds must satisfy 1 <= minLimit <= maxLimit");
+        }
+        if (tolerance < 1) {
+            throw new IllegalArgumentException("tolerance must be at least 1");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.windowMinSamples = Math.max(1, windowMinSamples);
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    // Take a slot if one is free; never waits
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    // Feed one downstream round trip; dropped marks a call that timed out rather than answered
+    public synchronized void onSample(long rttNanos, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        windowRttSum += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight.get());
+        windowDropped |= dropped;
+
+        long now = System.nanoTime();
+        if (windowSamples < windowMinSamples || now - windowStart < windowNanos) {
+            return;
+        }
+        updateLimit(windowRttSum / (double) windowSamples, windowMaxInFlight, windowDropped);
+
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    private void updateLimit(double shortRttNanos, int maxInFlight, boolean dropped) {
+        if (longRttNanos == 0) {
+            longRttNanos = shortRttNanos;
+        } else {
+            longRttNanos += (shortRttNanos - longRttNanos) / LONG_RTT_WINDOWS;
+            // After a slow stretch recovers, pull the baseline down quickly instead of waiting out the average
+            if (longRttNanos > 2 * shortRttNanos) {
+                longRttNanos *= 0.95;
+            }
+        }
+
+        double target;
+        if (dropped) {
+            target = estimatedLimit * backoffRatio;
+        } else if (maxInFlight * 2 < estimatedLimit) {
+            // The limit was not the constraint in this window, so the latency says nothing about a larger one
+            return;
+        } else {
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+            target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        }
+
+        estimatedLimit = clamp(estimatedLimit * (1 - SMOOTHING) + target * SMOOTHING);
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getLongRttNanos() {
+        return longRttNanos;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
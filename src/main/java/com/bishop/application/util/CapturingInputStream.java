@@ -0,0 +1,66 @@
+package com.bishop.application.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+// Pass-through stream that keeps a copy of the first maxBytes read from it, so a response body can be
+// logged while it is parsed without buffering all of it first
+public final class CapturingInputStream extends FilterInputStream {
+
+    private final byte[] captured;
+    private int capturedLength;
+    private boolean truncated;
+
+    public CapturingInputStream(InputStream in, int maxBytes) {
+        super(in);
+        this.captured = new byte[Math.max(0, maxBytes)];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            if (capturedLength < captured.length) {
+                captured[capturedLength++] = (byte) b;
+            } else {
+                truncated = true;
+            }
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = in.read(b, off, len);
+        if (n > 0) {
+            int copy = Math.min(n, captured.length - capturedLength);
+            System.arraycopy(b, off, captured, capturedLength, copy);
+            capturedLength += copy;
+            truncated |= copy < n;
+        }
+        return n;
+    }
+
+    // Skipped bytes are not captured, so report the copy as truncated
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        truncated |= skipped > 0;
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public String getCaptured(Charset charset) {
+        return new String(captured, 0, capturedLength, charset);
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
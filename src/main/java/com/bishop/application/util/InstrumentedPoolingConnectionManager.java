@@ -0,0 +1,59 @@
+package com.bishop.application.util;
+
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Pooling connection manager that times how long callers wait to lease a connection, including waits that end
+// in a ConnectionPoolTimeoutException once the pool is exhausted. The classic client leases on the calling thread,
+// so the last wait is also kept per thread for the caller to attach to its own trace.
+public class InstrumentedPoolingConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private static final ThreadLocal<long[]> LEASE_WAIT = ThreadLocal.withInitial(() -> new long[1]);
+
+    private final Timer leaseWaitTimer;
+
+    public InstrumentedPoolingConnectionManager(Registry<ConnectionSocketFactory> socketFactoryRegistry, Timer leaseWaitTimer) {
+        super(socketFactoryRegistry);
+        this.leaseWaitTimer = leaseWaitTimer;
+    }
+
+    // Lease wait accumulated on this thread since the last call, including any retried leases
+    public static long takeLeaseWaitNanos() {
+        long[] wait = LEASE_WAIT.get();
+        long waitNanos = wait[0];
+        wait[0] = 0;
+        return waitNanos;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        ConnectionRequest request = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return request.get(timeout, unit);
+                } finally {
+                    long waitNanos = System.nanoTime() - start;
+                    leaseWaitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+                    LEASE_WAIT.get()[0] += waitNanos;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+}
@@ -0,0 +1,329 @@
+package com.bishop.application.util;
+
+import com.bishop.application.enums.JournalFsyncPolicy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only journal made of fixed-size memory-mapped segment files. Each record is laid out as
+// [payload length][CRC32C of payload][payload]. Segments are zero-filled when created, so a zero length marks
+// the end of the written part, and a record whose checksum does not match is treated as a torn write.
+// A single reader consumes records in order and records its progress in a checkpoint file; segments that lie
+// wholly before the checkpoint are deleted.
+public final class MappedJournal implements Closeable {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int CHECKPOINT_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final JournalFsyncPolicy fsyncPolicy;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final AtomicLong pendingRecords = new AtomicLong();
+
+    private volatile Segment head;
+    private volatile Position checkpoint;
+
+    private MappedJournal(Path directory, int segmentSize, JournalFsyncPolicy fsyncPolicy) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+    }
+
+    // Open the journal in the directory, recovering segments and the checkpoint left by a previous run
+    public static MappedJournal open(Path directory, int segmentSize, JournalFsyncPolicy fsyncPolicy) throws IOException {
+        if (segmentSize <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentSize must be larger than " + HEADER_BYTES + " bytes: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        MappedJournal journal = new MappedJournal(directory, segmentSize, fsyncPolicy);
+        journal.recover();
+        return journal;
+    }
+
+    public Position append(byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentSize) {
+            throw new IOException("Journal record of " + recordBytes + " bytes exceeds the segment size of " + segmentSize);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int checksum = (int) crc.getValue();
+
+        appendLock.lock();
+        try {
+            Segment segment = head;
+            int offset = segment.writePosition;
+            if (offset + recordBytes > segment.capacity()) {
+                segment = roll(segment);
+                offset = 0;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            buffer.put(offset + HEADER_BYTES, payload);
+            buffer.putInt(offset + Integer.BYTES, checksum);
+            buffer.putInt(offset, payload.length);
+            if (fsyncPolicy == JournalFsyncPolicy.PER_WRITE) {
+                buffer.force(offset, recordBytes);
+            }
+            // Publishing the new write position makes the record visible to the reader
+            segment.writePosition = offset + recordBytes;
+            pendingRecords.incrementAndGet();
+            return new Position(segment.index, offset);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Read up to maxRecords payloads starting at the given position and return the position after the last one
+    public Position read(Position from, int maxRecords, List<byte[]> out) {
+        Segment segment = segments.get(from.segment());
+        if (segment == null) {
+            return from;
+        }
+        int offset = from.offset();
+        int read = 0;
+        while (read < maxRecords) {
+            if (offset < segment.writePosition) {
+                int length = segment.buffer.getInt(offset);
+                byte[] payload = new byte[length];
+                segment.buffer.get(offset + HEADER_BYTES, payload);
+                out.add(payload);
+                offset += HEADER_BYTES + length;
+                read++;
+            } else if (segment.sealed) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(segment.index);
+                if (next == null) {
+                    break;
+                }
+                segment = next.getValue();
+                offset = 0;
+            } else {
+                break;
+            }
+        }
+        return new Position(segment.index, offset);
+    }
+
+    // Record that every record before the position has been applied, and delete segments no longer needed
+    public void checkpoint(Position position, int appliedRecords) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(CHECKPOINT_BYTES);
+        bytes.putLong(position.segment()).putInt(position.offset());
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.array(), 0, bytes.position());
+        bytes.putInt((int) crc.getValue()).flip();
+
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(bytes);
+            if (fsyncPolicy != JournalFsyncPolicy.NONE) {
+                channel.force(true);
+            }
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        checkpoint = position;
+        pendingRecords.addAndGet(-appliedRecords);
+        Map.Entry<Long, Segment> oldest;
+        while ((oldest = segments.firstEntry()) != null && oldest.getKey() < position.segment()) {
+            segments.remove(oldest.getKey());
+            Files.deleteIfExists(oldest.getValue().path);
+        }
+    }
+
+    // Flush records written to the active segment since the last force
+    public void force() {
+        head.buffer.force();
+    }
+
+    public Position getCheckpoint() {
+        return checkpoint;
+    }
+
+    public long getPendingRecords() {
+        return pendingRecords.get();
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        if (fsyncPolicy != JournalFsyncPolicy.NONE && head != null) {
+            force();
+        }
+    }
+
+    private void recover() throws IOException {
+        Position saved = readCheckpoint();
+        for (long index : listSegmentIndexes()) {
+            Path path = segmentPath(index);
+            if (saved != null && index < saved.segment()) {
+                Files.deleteIfExists(path);
+                continue;
+            }
+            Segment segment = Segment.map(path, index, segmentSize);
+            int countFrom = saved != null && index == saved.segment() ? saved.offset() : 0;
+            segment.writePosition = scan(segment, countFrom);
+            segment.sealed = true;
+            segments.put(index, segment);
+        }
+
+        if (segments.isEmpty()) {
+            long index = saved != null ? saved.segment() : 0;
+            segments.put(index, Segment.map(segmentPath(index), index, segmentSize));
+        }
+        head = segments.lastEntry().getValue();
+        // Appends resume after the last valid record
+        if (clearTail(head) && fsyncPolicy != JournalFsyncPolicy.NONE) {
+            head.buffer.force();
+        }
+        head.sealed = false;
+
+        long first = segments.firstKey();
+        checkpoint = saved != null && saved.segment() >= first ? saved : new Position(first, 0);
+    }
+
+    // Walk the records of a recovered segment, counting those at or after countFrom as still pending
+    private int scan(Segment segment, int countFrom) {
+        CRC32C crc = new CRC32C();
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segment.capacity()) {
+            int length = segment.buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segment.capacity()) {
+                break;
+            }
+            crc.reset();
+            crc.update(segment.buffer.slice(offset + HEADER_BYTES, length));
+            if ((int) crc.getValue() != segment.buffer.getInt(offset + Integer.BYTES)) {
+                break;
+            }
+            if (offset >= countFrom) {
+                pendingRecords.incrementAndGet();
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    // Zero whatever lies beyond the last valid record of the head segment. Intact records can follow a torn one
+    // (pages reach the disk in any order), and a new append of the same length would make them valid again on
+    // the next recovery. Only non-zero words are written, so pages that were never touched stay unallocated.
+    private static boolean clearTail(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int capacity = segment.capacity();
+        int offset = segment.writePosition;
+        boolean cleared = false;
+        for (; offset < capacity && offset % Long.BYTES != 0; offset++) {
+            if (buffer.get(offset) != 0) {
+                buffer.put(offset, (byte) 0);
+                cleared = true;
+            }
+        }
+        for (; offset + Long.BYTES <= capacity; offset += Long.BYTES) {
+            if (buffer.getLong(offset) != 0) {
+                buffer.putLong(offset, 0L);
+                cleared = true;
+            }
+        }
+        for (; offset < capacity; offset++) {
+            if (buffer.get(offset) != 0) {
+                buffer.put(offset, (byte) 0);
+                cleared = true;
+            }
+        }
+        return cleared;
+    }
+
+    private Segment roll(Segment current) throws IOException {
+        if (fsyncPolicy != JournalFsyncPolicy.NONE) {
+            current.buffer.force();
+        }
+        long index = current.index + 1;
+        Segment next = Segment.map(segmentPath(index), index, segmentSize);
+        segments.put(index, next);
+        head = next;
+        // Seal only once the next segment is registered, so a reader that sees the flag can move on
+        current.sealed = true;
+        return next;
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length != CHECKPOINT_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, CHECKPOINT_BYTES - Integer.BYTES);
+        Position position = new Position(buffer.getLong(), buffer.getInt());
+        // A damaged checkpoint means replaying from the oldest segment, which the status guard makes safe
+        return (int) crc.getValue() == buffer.getInt() ? position : null;
+    }
+
+    private List<Long> listSegmentIndexes() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    public record Position(long segment, int offset) {
+    }
+
+    private static final class Segment {
+        private final long index;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private volatile int writePosition;
+        private volatile boolean sealed;
+
+        private Segment(long index, Path path, MappedByteBuffer buffer) {
+            this.index = index;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        // Existing segments keep their size even if the configured segment size has changed since
+        private static Segment map(Path path, long index, int segmentSize) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size() > 0 ? Math.min(channel.size(), Integer.MAX_VALUE) : segmentSize;
+                return new Segment(index, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+    }
+}
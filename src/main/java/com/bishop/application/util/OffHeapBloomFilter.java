@@ -0,0 +1,93 @@
+package com.bishop.application.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Fixed-size Bloom filter whose bit array lives in a direct buffer outside the Java heap.
+// Bits are set with atomic OR, so concurrent put and mightContain calls need no locking.
+public final class OffHeapBloomFilter {
+
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final double LN2 = Math.log(2);
+
+    private final ByteBuffer bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    private OffHeapBloomFilter(long bitCount, int hashCount) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.bits = ByteBuffer.allocateDirect((int) (bitCount / Byte.SIZE)).order(ByteOrder.nativeOrder());
+    }
+
+    // Size the filter for the expected number of keys at the requested false-positive rate
+    public static OffHeapBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        // Round up to whole 64-bit words, capped at the largest direct buffer we can allocate
+        long bitCount = Math.min((optimalBits + Long.SIZE - 1) / Long.SIZE * Long.SIZE, (long) (Integer.MAX_VALUE - 7) * Byte.SIZE);
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * LN2));
+        return new OffHeapBloomFilter(bitCount, hashCount);
+    }
+
+    public void put(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            WORDS.getAndBitwiseOr(bits, byteOffset(bit), 1L << bit);
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long word = (long) WORDS.getVolatile(bits, byteOffset(bit));
+            if ((word & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long sizeInBytes() {
+        return bitCount / Byte.SIZE;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    // 64-bit FNV-1a over the characters, finished with a strong mixer to spread the bits
+    public static long hash(CharSequence first, CharSequence second) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < first.length(); i++) {
+            h = (h ^ first.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ '|') * 0x100000001b3L;
+        for (int i = 0; i < second.length(); i++) {
+            h = (h ^ second.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static int byteOffset(long bit) {
+        return (int) (bit >>> 6) << 3;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
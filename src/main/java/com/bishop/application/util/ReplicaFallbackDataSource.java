@@ -0,0 +1,142 @@
+package com.bishop.application.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-only connection source that serves from the replica while it is reachable and caught up, and from the
+ * primary otherwise.
+ * <p>
+ * A daemon thread runs the configured lag query against the replica on a fixed delay. The replica is used only
+ * while the last check succeeded and reported a lag within the threshold. A NULL lag (replication stopped) or a
+ * failed check routes reads to the primary until a later check passes. A query that returns no rows means the
+ * server is not replicating at all (for example a development setup pointing both pools at one server) and
+ * counts as zero lag.
+ */
+public class ReplicaFallbackDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaFallbackDataSource.class);
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+    private final ScheduledExecutorService monitor;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+
+    private volatile boolean replicaUsable;
+    private volatile long lagSeconds = -1;
+
+    public ReplicaFallbackDataSource(DataSource replica, DataSource primary, String lagQuery, String lagColumn,
+                                     long maxLagSeconds, long checkIntervalMillis) {
+        this.replica = replica;
+        this.primary = primary;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+        this.monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ReplicaLagMonitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Reads stay on the primary until the first check has passed
+        this.monitor.scheduleWithFixedDelay(this::checkReplica, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLagSeconds() {
+        return lagSeconds;
+    }
+
+    public long getReplicaReads() {
+        return replicaReads.sum();
+    }
+
+    public long getFallbackReads() {
+        return fallbackReads.sum();
+    }
+
+    @Override
+    public void close() {
+        monitor.shutdownNow();
+    }
+
+    private Connection route(ConnectionOpener opener) throws SQLException {
+        if (replicaUsable) {
+            try {
+                Connection connection = opener.open(replica);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Stop trying the replica on every read until the monitor sees it healthy again
+                replicaUsable = false;
+                log.warn("Replica connection failed, routing reads to the primary: {}", e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return opener.open(primary);
+    }
+
+    private void checkReplica() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                lagSeconds = 0;
+                usable = true;
+            } else {
+                long lag = resultSet.getLong(lagColumn);
+                if (resultSet.wasNull()) {
+                    lagSeconds = -1;
+                    usable = false;
+                } else {
+                    lagSeconds = lag;
+                    usable = lag <= maxLagSeconds;
+                }
+            }
+        } catch (Exception e) {
+            lagSeconds = -1;
+            usable = false;
+            if (replicaUsable) {
+                log.warn("Replica health check failed: {}", e.getMessage());
+            }
+        }
+
+        if (usable != replicaUsable) {
+            log.warn("Replica reads {} (lag {}s, threshold {}s)", usable ? "resumed" : "suspended, using the primary", lagSeconds, maxLagSeconds);
+        }
+        replicaUsable = usable;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bishop.application.util;
+
+import org.apache.hc.client5.http.ConnectTimeoutException;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+// Tells a timeout apart from other I/O failures, wherever in the call it happened: while connecting, waiting for
+// the response head, or reading the body. A timed-out transaction's outcome is unknown, so it must not be failed.
+public final class Timeouts {
+
+    private Timeouts() {
+    }
+
+    // HttpClient 5 timeout messages carry only the duration, so check the exception type as well
+    public static boolean isTimeout(Exception e) {
+        String errorDescription = e.getMessage();
+        if (errorDescription != null
+                && (errorDescription.contains("timeout")
+                        || errorDescription.contains("time out")
+                        || errorDescription.contains("timed out"))) {
+            return true;
+        }
+        return e instanceof SocketTimeoutException
+                || e instanceof ConnectTimeoutException
+                || e instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,52 @@
+package com.bishop.application.web.controller;
+
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.BatchTransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping(path = "/api/v1")
+@Tag(name = "Transaction Batch API", description = "Accepts credit transfers as NDJSON and streams one NDJSON result per line as each completes.")
+public class TransactionBatchController {
+    private static final Logger log = LoggerFactory.getLogger(TransactionBatchController.class);
+
+    private final BatchTransactionService batchTransactionService;
+
+    @Autowired
+    public TransactionBatchController(BatchTransactionService batchTransactionService) {
+        this.batchTransactionService = batchTransactionService;
+    }
+
+    // Swagger information
+    @Operation(summary = "Process a batch of credit transfer transactions", description = "Accepts one TransactionRequest per line (NDJSON). "
+            + "Each result line carries the input line number, the HTTP status the single endpoint would return, and its TransactionResponse.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch accepted; per-line outcomes are streamed in the body")})
+
+    @PostMapping(value = "/transactions/batch",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    // The body is read and answered on an async thread, line by line, so neither side is buffered in full
+    public ResponseEntity<StreamingResponseBody> transactionBatch(HttpServletRequest request) {
+        final TransactionType type = TransactionType.CREDIT_TRANSFER;
+        log.info("Received {} Batch Request From Channel", type);
+
+        StreamingResponseBody body = responseStream -> batchTransactionService.processBatch(request.getInputStream(), responseStream, type);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
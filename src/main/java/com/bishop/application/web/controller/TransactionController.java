@@ -1,26 +1,36 @@
 package com.bishop.application.web.controller;
 
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionProgress;
 import com.bishop.application.dto.TransactionRequest;
 import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.dto.TransactionStatusView;
+import com.bishop.application.enums.ErrorKind;
 import com.bishop.application.enums.TransactionType;
 import com.bishop.application.exception.CustomException;
+import com.bishop.application.service.JsonCodecService;
 import com.bishop.application.service.RequestProcessorService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.TransactionStatusCacheService;
 import com.bishop.application.service.TransactionUpdateService;
-import com.google.gson.Gson;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
@@ -30,17 +40,29 @@ import org.springframework.web.context.request.WebRequest;
 public class TransactionController {
     private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
 
-    private final Gson gson;
+    private final JsonCodecService jsonCodecService;
     private final RequestProcessorService requestProcessorService;
     private final TransactionUpdateService transactionUpdateService;
+    private final TransactionStatusCacheService transactionStatusCacheService;
+    private final TransactionMetricsService transactionMetricsService;
+    private final TaskExecutor completionExecutor;
+    private final boolean asyncClientEnabled;
 
     @Autowired
-    public TransactionController(Gson gson,
+    public TransactionController(JsonCodecService jsonCodecService,
                                  RequestProcessorService requestProcessorService,
-                                 TransactionUpdateService transactionUpdateService) {
-        this.gson = gson;
+                                 TransactionUpdateService transactionUpdateService,
+                                 TransactionStatusCacheService transactionStatusCacheService,
+                                 TransactionMetricsService transactionMetricsService,
+                                 @Qualifier("completionExecutor") TaskExecutor completionExecutor,
+                                 @Value("${http.client.async.enabled:false}") boolean asyncClientEnabled) {
+        this.jsonCodecService = jsonCodecService;
         this.requestProcessorService = requestProcessorService;
         this.transactionUpdateService = transactionUpdateService;
+        this.transactionStatusCacheService = transactionStatusCacheService;
+        this.transactionMetricsService = transactionMetricsService;
+        this.completionExecutor = completionExecutor;
+        this.asyncClientEnabled = asyncClientEnabled;
     }
 
     // Swagger information
@@ -49,42 +71,102 @@ public class TransactionController {
             @ApiResponse(responseCode = "200", description = "Transaction processed successfully"),
             @ApiResponse(responseCode = "400", description = "Internal Error: Validation failed or general processing error"),
             @ApiResponse(responseCode = "408", description = "Request timeout: No response from remote service"),
-            @ApiResponse(responseCode = "409", description = "Conflict: Duplicate transaction detected")})
+            @ApiResponse(responseCode = "409", description = "Conflict: Duplicate transaction detected"),
+            @ApiResponse(responseCode = "503", description = "Service overloaded: Rejected by the concurrency limiter, retry after the Retry-After delay")})
 
     @PostMapping(value = "/transaction",
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> transaction(@Valid @RequestBody TransactionRequest transactionRequest,
-                                         BindingResult bindingResult,
-                                         WebRequest webRequest) throws CustomException {
+    // Returns a ResponseEntity in blocking mode, or a CompletableFuture<ResponseEntity> that Spring MVC completes
+    // through an async dispatch when the non-blocking client is enabled. The body is not @Valid: the request
+    // processor validates it with RequestValidatorService.
+    public Object transaction(@RequestBody TransactionRequest transactionRequest,
+                              WebRequest webRequest) throws CustomException {
         final TransactionType type = TransactionType.CREDIT_TRANSFER;
         final String rrn = transactionRequest.getRrn();
+        final TransactionProgress progress = new TransactionProgress();
 
-        // Store request details in WebRequest for error tracing
+        // Store request details in WebRequest for error tracing; progress tells the error handler how far processing got
         webRequest.setAttribute("rrn", rrn, WebRequest.SCOPE_REQUEST);
         webRequest.setAttribute("type", type, WebRequest.SCOPE_REQUEST);
+        webRequest.setAttribute("progress", progress, WebRequest.SCOPE_REQUEST);
 
         try {
-            // Log incoming request
-            log.info("{}: Received {} Request From Channel: {}", rrn, type, gson.toJson(transactionRequest));
+            // Encode the request once; the same bytes are logged here and sent downstream
+            EncodedJson encodedRequest = jsonCodecService.encode(transactionRequest);
 
-            // Process transaction request
-            TransactionResponse response = requestProcessorService.processTransactionRequest(rrn, transactionRequest, bindingResult, type);
+            // Log incoming request
+            log.info("{}: Received {} Request From Channel: {}", rrn, type, encodedRequest);
 
-            // Update database asynchronously after processing
-            updateDatabaseRecord(rrn, response, type);
+            if (asyncClientEnabled) {
+                // Release the servlet thread while the downstream call is in flight. The response arrives on the
+                // HTTP client's IO reactor thread; the status update can flush to the database inline, so it is
+                // handed to the completion executor rather than blocking every other in-flight call on that reactor.
+                // That executor never blocks the submitter, so the reactor keeps running even when taskExecutor is full.
+                return requestProcessorService.processTransactionRequestAsync(rrn, transactionRequest, encodedRequest, type, progress)
+                        .thenApplyAsync(response -> completeTransaction(rrn, response, type), completionExecutor);
+            }
 
-            // Log outgoing response
-            log.info("{}: Returned {} Response To Channel: {}", rrn, type, gson.toJson(response));
+            // Process transaction request
+            TransactionResponse response = requestProcessorService.processTransactionRequest(rrn, transactionRequest, encodedRequest, type, progress);
 
-            return ResponseEntity.ok(gson.toJson(response));
+            return completeTransaction(rrn, response, type);
+        } catch (CustomException e) {
+            // Already typed; pass it on as is rather than wrapping it again
+            log.error("{}: Exception Occurred During Request Processing: {}", rrn, e.getMessage());
+            throw e;
         } catch (Exception e) {
-            // Log and wrap any processing exceptions
+            // Log and wrap any unexpected processing exceptions
             log.error("{}: Exception Occurred During Request Processing: {}", rrn, e.getMessage());
-            throw new CustomException(e.getMessage());
+            throw new CustomException(ErrorKind.PROCESSING_FAILURE);
         }
     }
 
+    // Swagger information
+    @Operation(summary = "Look up the status of a transaction", description = "Returns the current status of a transaction by RRN and type, "
+            + "so a channel that timed out can find out what happened without resending. Returns HTTP 404 if the transaction is unknown.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Current transaction status"),
+            @ApiResponse(responseCode = "400", description = "Internal Error: Unknown transaction type"),
+            @ApiResponse(responseCode = "404", description = "Not Found: No transaction with this RRN and type")})
+
+    @GetMapping(value = "/transaction/{rrn}", produces = MediaType.APPLICATION_JSON_VALUE)
+    // Served from the status cache; misses read the status columns only
+    public ResponseEntity<byte[]> transactionStatus(@PathVariable("rrn") String rrn,
+                                                    @RequestParam(value = "type", defaultValue = "CREDIT_TRANSFER") String type) throws CustomException {
+        TransactionType transactionType;
+        try {
+            transactionType = TransactionType.valueOf(type);
+        } catch (IllegalArgumentException e) {
+            throw new CustomException(ErrorKind.FIELD_VALIDATION, "Unknown transaction type: " + type);
+        }
+
+        TransactionStatusView status = transactionStatusCacheService.getStatus(rrn, transactionType);
+        if (status == null) {
+            throw new CustomException(ErrorKind.TRANSACTION_NOT_FOUND);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonCodecService.encode(status).getBytes());
+    }
+
+    // Record the outcome and build the channel response
+    private ResponseEntity<byte[]> completeTransaction(String rrn, TransactionResponse response, TransactionType type) {
+        // Update database asynchronously after processing
+        updateDatabaseRecord(rrn, response, type);
+
+        // Encode the response once for both the log line and the body
+        EncodedJson encodedResponse = jsonCodecService.encode(response);
+
+        // Log outgoing response
+        log.info("{}: Returned {} Response To Channel: {}", rrn, type, encodedResponse);
+        transactionMetricsService.recordOutcome(type, 200);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(encodedResponse.getBytes());
+    }
+
     // Updates transaction status asynchronously in the database
     private void updateDatabaseRecord(String rrn, TransactionResponse response, TransactionType type) {
         transactionUpdateService.updateDbStatus(rrn, response, type);
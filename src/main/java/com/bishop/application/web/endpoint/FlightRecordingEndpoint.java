@@ -0,0 +1,52 @@
+package com.bishop.application.web.endpoint;
+
+import com.bishop.application.service.FlightRecordingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// GET /actuator/jfr?minutes=5 returns the last minutes of the continuous flight recording as a .jfr file,
+// ready for JDK Mission Control or `jfr print --events com.bishop.transaction.DownstreamCall`
+@Component
+@WebEndpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingEndpoint.class);
+
+    private final FlightRecordingService flightRecordingService;
+    private final int defaultMinutes;
+
+    @Autowired
+    public FlightRecordingEndpoint(FlightRecordingService flightRecordingService,
+                                   @Value("${transaction.jfr.dump-minutes:5}") int defaultMinutes) {
+        this.flightRecordingService = flightRecordingService;
+        this.defaultMinutes = defaultMinutes;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump(@Nullable Integer minutes) {
+        if (!flightRecordingService.isEnabled()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        int window = minutes == null ? defaultMinutes : minutes;
+        if (window <= 0) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        try {
+            return new WebEndpointResponse<>(new ByteArrayResource(flightRecordingService.dump(Duration.ofMinutes(window))));
+        } catch (IOException e) {
+            log.error("Failed to dump the flight recording: {}", e.getMessage());
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+}
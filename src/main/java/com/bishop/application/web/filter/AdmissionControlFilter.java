@@ -0,0 +1,117 @@
+package com.bishop.application.web.filter;
+
+import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.service.AdmissionControlService;
+import com.bishop.application.service.JsonCodecService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Sheds transaction requests beyond the adaptive limit before the body is read, so a rejected request costs
+// no JSON parsing, no dedup query and no insert. Admitted requests hold their slot until the response is
+// complete, including the async dispatch used by the non-blocking client.
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControlFilter.class);
+    private static final long REJECTION_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final AdmissionControlService admissionControlService;
+    private final byte[] overloadedBody;
+
+    // Rejections are counted by transaction.limiter.requests{result=rejected}; the log only gets a periodic summary
+    private final AtomicLong rejectedSinceLog = new AtomicLong();
+    private final AtomicLong nextRejectionLogAt = new AtomicLong(System.nanoTime());
+
+    public AdmissionControlFilter(AdmissionControlService admissionControlService, JsonCodecService jsonCodecService) {
+        this.admissionControlService = admissionControlService;
+
+        // The rejection carries no RRN, so the same bytes serve every shed request
+        TransactionResponse response = new TransactionResponse();
+        response.setStatus(ErrorKind.SERVICE_OVERLOADED.getTransactionStatus().name());
+        response.setStatusCode(ErrorKind.SERVICE_OVERLOADED.getTransactionStatus().getCode());
+        response.setStatusDesc(ErrorKind.SERVICE_OVERLOADED.getMessage());
+        this.overloadedBody = jsonCodecService.encode(response).getBytes();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!admissionControlService.tryAcquire()) {
+            reject(response);
+            return;
+        }
+
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // onComplete also fires after an async timeout or error
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        logRejection();
+        response.setStatus(ErrorKind.SERVICE_OVERLOADED.getHttpStatus());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionControlService.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(overloadedBody.length);
+        response.getOutputStream().write(overloadedBody);
+    }
+
+    // At most one line per interval while shedding, so an overloaded service does not also flood its logs
+    private void logRejection() {
+        rejectedSinceLog.incrementAndGet();
+        long now = System.nanoTime();
+        long logAt = nextRejectionLogAt.get();
+        if (now - logAt >= 0 && nextRejectionLogAt.compareAndSet(logAt, now + REJECTION_LOG_INTERVAL_NANOS)) {
+            log.warn("{} transaction requests rejected since the last report: concurrency limit reached", rejectedSinceLog.getAndSet(0));
+        }
+    }
+
+    // Releases the slot exactly once, whichever of the synchronous or async completion paths gets there
+    private final class Permit implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                admissionControlService.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register if the request enters another async cycle
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
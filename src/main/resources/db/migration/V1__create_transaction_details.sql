@@ -0,0 +1,32 @@
+-- Baseline: the schema Hibernate created with ddl-auto=update before migrations were introduced, except for the
+-- unique key. Those databases have Hibernate's UK_<hash> unique key on rrn alone; new databases get
+-- uk_rrn_transaction_type here instead. Existing databases are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and skip this script, so V3 swaps their rrn-only key for the composite one.
+
+CREATE TABLE tran_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO tran_seq VALUES (1);
+
+CREATE TABLE transaction_details (
+    id               BIGINT                     NOT NULL,
+    rrn              VARCHAR(255)               NOT NULL,
+    sender_name      VARCHAR(255)               NOT NULL,
+    receiver_name    VARCHAR(255)               NOT NULL,
+    amount           DECIMAL(18, 2)             NOT NULL,
+    currency         VARCHAR(255)               NOT NULL,
+    channel_id       VARCHAR(255)               NOT NULL,
+    transaction_type ENUM ('CREDIT_TRANSFER')   NOT NULL,
+    status           VARCHAR(255),
+    status_code      VARCHAR(255),
+    status_desc      VARCHAR(255),
+    tran_id          VARCHAR(255),
+    created_at       DATETIME(6),
+    updated_at       DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_transaction_type ON transaction_details (transaction_type);
+
+ALTER TABLE transaction_details ADD CONSTRAINT uk_rrn_transaction_type UNIQUE (rrn, transaction_type);
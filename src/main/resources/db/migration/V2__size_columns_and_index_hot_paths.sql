@@ -0,0 +1,37 @@
+-- Column sizes follow the TransactionRequest limits, so the keys the hot-path indexes are built on stay short:
+-- rrn 8-20, names up to 100, currency exactly 3, channel_id up to 20. amount allows the 18 integer digits the request
+-- accepts (DECIMAL(18, 2) only held 16). transaction_type becomes a plain VARCHAR so adding a TransactionType no
+-- longer needs an ENUM rewrite of the table. Columns filled from the downstream response keep 255.
+-- One ALTER, so MySQL copies the table once rather than once per column.
+UPDATE transaction_details SET created_at = COALESCE(updated_at, CURRENT_TIMESTAMP(6)) WHERE created_at IS NULL;
+
+ALTER TABLE transaction_details
+    MODIFY rrn              VARCHAR(20)    NOT NULL,
+    MODIFY sender_name      VARCHAR(100)   NOT NULL,
+    MODIFY receiver_name    VARCHAR(100)   NOT NULL,
+    MODIFY amount           DECIMAL(20, 2) NOT NULL,
+    MODIFY currency         VARCHAR(3)     NOT NULL,
+    MODIFY channel_id       VARCHAR(20)    NOT NULL,
+    MODIFY transaction_type VARCHAR(32)    NOT NULL,
+    MODIFY created_at       DATETIME(6)    NOT NULL;
+
+-- The (rrn, transaction_type) key is left to V3, which also removes the rrn-only key of databases built by ddl-auto.
+-- On an unpartitioned table it ends up as uk_rrn_transaction_type, which enforces dedup and serves the dedup select,
+-- the status lookup and both status updates. A table already partitioned by TransactionPartitionServiceImpl has the
+-- plain idx_rrn_transaction_type_created_at instead, with dedup enforced by transaction_dedup_keys.
+-- Nothing filters on transaction_type alone, so its index only cost writes. Tables created by ddl-auto after the
+-- entity stopped declaring it, and partitioned tables, no longer have it, and MySQL has no DROP INDEX IF EXISTS.
+SET @drop_type_index = (SELECT IF(COUNT(*) > 0, 'DROP INDEX idx_transaction_type ON transaction_details', 'DO 0')
+                        FROM information_schema.statistics
+                        WHERE table_schema = DATABASE()
+                          AND table_name = 'transaction_details'
+                          AND index_name = 'idx_transaction_type');
+PREPARE drop_type_index FROM @drop_type_index;
+EXECUTE drop_type_index;
+DEALLOCATE PREPARE drop_type_index;
+
+-- RRN filter warm-up and time-range scans (created_at >= ?) read only the index, never the rows
+CREATE INDEX idx_created_at_rrn_type ON transaction_details (created_at, rrn, transaction_type);
+
+-- Reconciliation: rows still INITIALIZED, PENDING or TIMEOUT older than a cut-off, with their keys, from the index
+CREATE INDEX idx_status_created_at ON transaction_details (status, created_at, rrn, transaction_type);
@@ -0,0 +1,25 @@
+-- Databases built by ddl-auto=update carry Hibernate's unique key on rrn alone (named UK_ plus a hash), which
+-- rejects the same RRN under another transaction type. They were baselined at version 1 and never ran V1, so they
+-- also lack uk_rrn_transaction_type. Swap the keys in one ALTER, so there is never a moment without a unique key.
+-- A table already partitioned by TransactionPartitionServiceImpl keeps its plain index: a unique key there must
+-- include created_at, and transaction_dedup_keys enforces dedup instead.
+SET @add_rrn_type_key = (SELECT IF(COUNT(*) = 0, 'ADD CONSTRAINT uk_rrn_transaction_type UNIQUE (rrn, transaction_type)', NULL)
+                         FROM information_schema.statistics
+                         WHERE table_schema = DATABASE()
+                           AND table_name = 'transaction_details'
+                           AND index_name IN ('uk_rrn_transaction_type', 'idx_rrn_transaction_type_created_at'));
+
+SET @drop_rrn_keys = (SELECT GROUP_CONCAT(CONCAT('DROP INDEX `', rrn_key.index_name, '`') SEPARATOR ', ')
+                      FROM (SELECT index_name
+                            FROM information_schema.statistics
+                            WHERE table_schema = DATABASE()
+                              AND table_name = 'transaction_details'
+                              AND non_unique = 0
+                            GROUP BY index_name
+                            HAVING COUNT(*) = 1 AND MAX(column_name) = 'rrn') AS rrn_key);
+
+SET @replace_rrn_key = IF(@add_rrn_type_key IS NULL AND @drop_rrn_keys IS NULL, 'DO 0',
+                          CONCAT('ALTER TABLE transaction_details ', CONCAT_WS(', ', @add_rrn_type_key, @drop_rrn_keys)));
+PREPARE replace_rrn_key FROM @replace_rrn_key;
+EXECUTE replace_rrn_key;
+DEALLOCATE PREPARE replace_rrn_key;
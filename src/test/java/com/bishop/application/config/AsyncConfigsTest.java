@@ -0,0 +1,64 @@
+package com.bishop.application.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+// On virtual threads taskExecutor blocks submitters at the Hikari pool size. Completions submit their status update
+// there, so many more completions than the limit must still all get through.
+class AsyncConfigsTest {
+
+    private static final int CONCURRENCY_LIMIT = 2;
+    private static final int COMPLETIONS = 20;
+
+    @Test
+    void completionsBeyondTheTaskExecutorLimitAllFinish() {
+        // A deadlock blocks the submitting thread itself, so the whole run is bounded
+        assertTimeoutPreemptively(Duration.ofSeconds(30), this::driveCompletions);
+    }
+
+    private void driveCompletions() throws Exception {
+        AsyncConfigs asyncConfigs = new AsyncConfigs(true, CONCURRENCY_LIMIT, new SimpleMeterRegistry());
+        TaskExecutor taskExecutor = asyncConfigs.getAsyncExecutor();
+        TaskExecutor completionExecutor = asyncConfigs.completionExecutor();
+        AtomicInteger statusUpdates = new AtomicInteger();
+
+        List<CompletableFuture<String>> completions = new ArrayList<>();
+        for (int i = 0; i < COMPLETIONS; i++) {
+            String rrn = String.format("TX%08d", i);
+            completions.add(CompletableFuture.completedFuture(rrn).thenApplyAsync(response -> {
+                // What the status update hand-off does when neither the journal nor write-behind is on
+                taskExecutor.execute(() -> {
+                    sleep(20);
+                    statusUpdates.incrementAndGet();
+                });
+                return response;
+            }, completionExecutor));
+        }
+
+        CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (statusUpdates.get() < COMPLETIONS && System.nanoTime() < deadline) {
+            sleep(5);
+        }
+        assertThat(statusUpdates.get()).isEqualTo(COMPLETIONS);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bishop.application.enums;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The status guard on every UPDATE: SUCCESS and FAILURE are final, TIMEOUT can still be resolved, and nothing
+// moves back to INITIALIZED
+class TransactionStatusTest {
+
+    @ParameterizedTest(name = "{0} -> {1}: {2}")
+    @CsvSource({
+            "INITIALIZED, PENDING,     true",
+            "INITIALIZED, TIMEOUT,     true",
+            "INITIALIZED, SUCCESS,     true",
+            "INITIALIZED, FAILURE,     true",
+            "PENDING,     TIMEOUT,     true",
+            "PENDING,     SUCCESS,     true",
+            "PENDING,     FAILURE,     true",
+            "PENDING,     PENDING,     false",
+            "TIMEOUT,     SUCCESS,     true",
+            "TIMEOUT,     FAILURE,     true",
+            "TIMEOUT,     TIMEOUT,     false",
+            "TIMEOUT,     PENDING,     false",
+            "SUCCESS,     FAILURE,     false",
+            "SUCCESS,     TIMEOUT,     false",
+            "SUCCESS,     SUCCESS,     false",
+            "FAILURE,     SUCCESS,     false",
+            "FAILURE,     TIMEOUT,     false",
+            "SUCCESS,     INITIALIZED, false",
+            "TIMEOUT,     INITIALIZED, false"
+    })
+    void transitions(String current, String target, boolean allowed) {
+        assertThat(TransactionStatus.isTransitionAllowed(current, target)).isEqualTo(allowed);
+    }
+
+    // A downstream status outside the enum may only overwrite a record that has not reached an outcome yet
+    @Test
+    void unknownTargetOnlyReplacesAnOpenRecord() {
+        assertThat(TransactionStatus.allowedPredecessors("REVERSED")).containsExactly("INITIALIZED", "PENDING");
+        assertThat(TransactionStatus.isTransitionAllowed("TIMEOUT", null)).isFalse();
+    }
+
+    // The batch UPDATE binds a fixed number of IN (...) placeholders
+    @Test
+    void noTargetHasMorePredecessorsThanTheSqlGuardBinds() {
+        assertThat(Arrays.stream(TransactionStatus.values())
+                .mapToInt(status -> TransactionStatus.allowedPredecessors(status.name()).size())
+                .max().orElseThrow()).isEqualTo(TransactionStatus.MAX_PREDECESSORS);
+    }
+}
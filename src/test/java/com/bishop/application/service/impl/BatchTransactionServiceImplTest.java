@@ -0,0 +1,177 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.config.ObjectMapperConfig;
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.exception.CustomException;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.HttpAdapterService;
+import com.bishop.application.service.RequestValidatorService;
+import com.bishop.application.service.RrnFilterService;
+import com.bishop.application.service.TransactionMapperService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.TransactionUpdateService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Each line gets exactly one result, and every circuit-breaker permission taken for a line that never reaches the
+// downstream call goes back. Line numbers in the results are those of the request body.
+class BatchTransactionServiceImplTest {
+
+    private static final TransactionType TYPE = TransactionType.CREDIT_TRANSFER;
+
+    private final ObjectMapper objectMapper = new ObjectMapperConfig().objectMapper();
+    private final DatabaseService databaseService = mock(DatabaseService.class);
+    private final HttpAdapterService httpAdapterService = mock(HttpAdapterService.class);
+    private final TransactionMapperService transactionMapperService = mock(TransactionMapperService.class);
+    private final TransactionUpdateService transactionUpdateService = mock(TransactionUpdateService.class);
+
+    @BeforeEach
+    void setUp() throws CustomException {
+        when(transactionMapperService.mapRequestToEntity(any(), any())).thenReturn(new TransactionDetails());
+        when(httpAdapterService.sendHttpTransactionRequest(any(), any(), eq(TYPE)))
+                .thenAnswer(invocation -> approved(invocation.<TransactionRequest>getArgument(0).getRrn()));
+    }
+
+    // The repeat is answered as a duplicate without a permission, a dedup lookup or an insert of its own
+    @Test
+    void duplicateRrnWithinAChunkIsRejectedWithoutTakingAPermission() throws Exception {
+        Map<Integer, Integer> results = process(service(10, 4), "TX00000001", "TX00000002", "TX00000001");
+
+        assertThat(results).containsExactly(entry(1, 200), entry(2, 200), entry(3, 409));
+        verify(httpAdapterService, times(1)).acquireDownstreamPermission("TX00000001");
+        verify(databaseService).findExistingRrns(argThat(rrns -> rrns.size() == 2), eq(TYPE));
+        verify(databaseService).saveInitialEntities(argThat(entities -> entities.size() == 2));
+        verify(httpAdapterService, never()).releaseDownstreamPermission();
+    }
+
+    // A failed batch insert is retried row by row, so only the row the database rejects fails
+    @Test
+    void failedBatchInsertFallsBackToOneInsertPerRecord() throws Exception {
+        doThrow(new CustomException(ErrorKind.DATABASE_ERROR, "Duplicate entry")).when(databaseService).saveInitialEntities(anyList());
+        doThrow(new CustomException(ErrorKind.DUPLICATE_RECORD)).when(databaseService).saveInitialCreditTransferEntity(eq("TX00000002"), any());
+
+        Map<Integer, Integer> results = process(service(10, 4), "TX00000001", "TX00000002", "TX00000003");
+
+        assertThat(results).containsExactly(entry(1, 200), entry(2, 409), entry(3, 200));
+        verify(databaseService, times(3)).saveInitialCreditTransferEntity(any(), any());
+        verify(httpAdapterService, never()).sendHttpTransactionRequest(argThat(request -> request.getRrn().equals("TX00000002")), any(), any());
+        verify(httpAdapterService, times(1)).releaseDownstreamPermission();
+    }
+
+    // Already in the database and rejected by the row-by-row insert each give back their permission; a line the
+    // breaker refused never had one
+    @Test
+    void everyItemThatStopsShortOfTheDownstreamReleasesItsPermission() throws Exception {
+        when(databaseService.findExistingRrns(any(), eq(TYPE))).thenReturn(Set.of("TX00000001"));
+        doThrow(new CustomException(ErrorKind.CIRCUIT_OPEN)).when(httpAdapterService).acquireDownstreamPermission("TX00000004");
+        doThrow(new CustomException(ErrorKind.DATABASE_ERROR, "Lock wait timeout")).when(databaseService).saveInitialEntities(anyList());
+        doThrow(new CustomException(ErrorKind.DATABASE_ERROR, "Lock wait timeout")).when(databaseService).saveInitialCreditTransferEntity(eq("TX00000002"), any());
+
+        Map<Integer, Integer> results = process(service(10, 4), "TX00000001", "TX00000002", "TX00000003", "TX00000004");
+
+        assertThat(results).containsExactly(entry(1, 409), entry(2, 400), entry(3, 200), entry(4, 503));
+        verify(httpAdapterService, times(1)).sendHttpTransactionRequest(any(), any(), any());
+        verify(httpAdapterService, times(2)).releaseDownstreamPermission();
+    }
+
+    @Test
+    void failedDedupQueryReleasesThePermissionOfTheWholeChunk() throws Exception {
+        when(databaseService.findExistingRrns(any(), eq(TYPE))).thenThrow(new IllegalStateException("Communications link failure"));
+
+        Map<Integer, Integer> results = process(service(10, 4), "TX00000001", "TX00000002", "TX00000003");
+
+        assertThat(results).containsExactly(entry(1, 400), entry(2, 400), entry(3, 400));
+        verify(httpAdapterService, times(3)).releaseDownstreamPermission();
+        verify(httpAdapterService, never()).sendHttpTransactionRequest(any(), any(), any());
+    }
+
+    // With one line per chunk, the reader persists the next line and then waits for a free slot, so with every slot
+    // held by a stuck downstream call it reads no further
+    @Test
+    void readerBlocksAtMaxConcurrency() throws Exception {
+        CountDownLatch downstream = new CountDownLatch(1);
+        when(httpAdapterService.sendHttpTransactionRequest(any(), any(), eq(TYPE))).thenAnswer(invocation -> {
+            downstream.await();
+            return approved(invocation.<TransactionRequest>getArgument(0).getRrn());
+        });
+        BatchTransactionServiceImpl batchService = service(1, 2);
+
+        CompletableFuture<Map<Integer, Integer>> batch = CompletableFuture.supplyAsync(() ->
+                process(batchService, "TX00000001", "TX00000002", "TX00000003", "TX00000004", "TX00000005"));
+
+        verify(httpAdapterService, timeout(5000).times(2)).sendHttpTransactionRequest(any(), any(), any());
+        verify(databaseService, after(200).times(3)).saveInitialEntities(anyList());
+        assertThat(batch).isNotDone();
+
+        downstream.countDown();
+        assertThat(batch.get(5, TimeUnit.SECONDS)).hasSize(5).allSatisfy((line, status) -> assertThat(status).isEqualTo(200));
+        verify(httpAdapterService, times(5)).sendHttpTransactionRequest(any(), any(), any());
+    }
+
+    private BatchTransactionServiceImpl service(int chunkSize, int maxConcurrency) {
+        return new BatchTransactionServiceImpl(objectMapper, mock(RequestValidatorService.class), new JsonCodecServiceImpl(objectMapper),
+                databaseService, mock(RrnFilterService.class), httpAdapterService, transactionMapperService,
+                transactionUpdateService, mock(TransactionMetricsService.class), chunkSize, maxConcurrency, false);
+    }
+
+    // Send one request line per RRN and return the HTTP status of each result line by line number
+    private Map<Integer, Integer> process(BatchTransactionServiceImpl batchService, String... rrns) {
+        StringBuilder body = new StringBuilder();
+        for (String rrn : rrns) {
+            body.append("{\"rrn\":\"").append(rrn).append("\",\"transactionType\":\"CREDIT_TRANSFER\",")
+                    .append("\"senderName\":\"John Doe\",\"receiverName\":\"Jane Smith\",\"amount\":100.00}\n");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            batchService.processBatch(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)), out, TYPE);
+            Map<Integer, Integer> results = new TreeMap<>();
+            for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+                JsonNode result = objectMapper.readTree(line);
+                assertThat(results.put(result.get("line").asInt(), result.get("httpStatus").asInt())).isNull();
+            }
+            return results;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static TransactionResponse approved(String rrn) {
+        TransactionResponse response = new TransactionResponse();
+        response.setRrn(rrn);
+        response.setStatus("SUCCESS");
+        response.setStatusCode("00");
+        return response;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.repository.TransactionDetailsRepository;
+import com.bishop.application.service.RrnFilterService;
+import com.bishop.application.service.TransactionMetricsService;
+import com.bishop.application.service.TransactionStatusCacheService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+// Inserted rows reach the RRN filter and the status cache only once their transaction has committed
+class DatabaseServiceImplTest {
+
+    private static final String RRN = "TX99887766";
+
+    private final TransactionDetailsRepository repository = mock(TransactionDetailsRepository.class);
+    private final RrnFilterService rrnFilterService = mock(RrnFilterService.class);
+    private final TransactionStatusCacheService statusCacheService = mock(TransactionStatusCacheService.class);
+    private final DatabaseServiceImpl databaseService = new DatabaseServiceImpl(mock(JdbcTemplate.class), mock(TransactionTemplate.class),
+            repository, rrnFilterService, statusCacheService, mock(TransactionMetricsService.class), false, Duration.ofDays(7));
+
+    private final TransactionDetails entity = entity();
+
+    // Stands in for the transaction @Transactional would have opened around the call
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void singleInsertIsRecordedAfterCommit() throws Exception {
+        databaseService.saveInitialCreditTransferEntity(RRN, entity);
+        verifyNoInteractions(rrnFilterService, statusCacheService);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(rrnFilterService).recordInserted(RRN, TransactionType.CREDIT_TRANSFER);
+        verify(statusCacheService).recordInserted(entity);
+    }
+
+    @Test
+    void singleInsertIsNotRecordedWhenTheCommitFails() throws Exception {
+        databaseService.saveInitialCreditTransferEntity(RRN, entity);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verify(rrnFilterService, never()).recordInserted(RRN, TransactionType.CREDIT_TRANSFER);
+        verify(statusCacheService, never()).recordInserted(entity);
+    }
+
+    @Test
+    void batchInsertIsRecordedAfterCommit() throws Exception {
+        databaseService.saveInitialEntities(List.of(entity));
+        verifyNoInteractions(rrnFilterService, statusCacheService);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(statusCacheService).recordInserted(entity);
+    }
+
+    // Without a surrounding transaction the insert is already durable, so it is recorded straight away
+    @Test
+    void insertOutsideATransactionIsRecordedImmediately() throws Exception {
+        TransactionSynchronizationManager.clearSynchronization();
+        try {
+            databaseService.saveInitialCreditTransferEntity(RRN, entity);
+            verify(statusCacheService).recordInserted(entity);
+        } finally {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+    }
+
+    private static TransactionDetails entity() {
+        TransactionDetails entity = new TransactionDetails();
+        entity.setRrn(RRN);
+        entity.setTransactionType(TransactionType.CREDIT_TRANSFER);
+        return entity;
+    }
+}
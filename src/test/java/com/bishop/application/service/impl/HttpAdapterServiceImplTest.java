@@ -0,0 +1,143 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.dto.TransactionResponse;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.exception.CustomException;
+import com.bishop.application.service.AdmissionControlService;
+import com.bishop.application.service.HttpResponseProcessorService;
+import com.bishop.application.service.TransactionMetricsService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static com.bishop.application.config.ApplicationConstants.TRANSACTION_CIRCUIT_BREAKER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Every permission taken from the circuit breaker is settled exactly once: as an outcome when the call was made,
+// or handed back when it was not. A half-open breaker that admits one trial call makes a leaked permission visible.
+class HttpAdapterServiceImplTest {
+
+    private static final String RRN = "TX00000001";
+    private static final EncodedJson BODY = new EncodedJson("{}".getBytes(StandardCharsets.UTF_8));
+
+    private final CloseableHttpClient httpClient = mock(CloseableHttpClient.class);
+    private final CloseableHttpAsyncClient asyncHttpClient = mock(CloseableHttpAsyncClient.class);
+    private final HttpResponseProcessorService responseProcessor = mock(HttpResponseProcessorService.class);
+    private final CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .permittedNumberOfCallsInHalfOpenState(1)
+            .build());
+    private HttpAdapterServiceImpl httpAdapterService;
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectProvider<CloseableHttpAsyncClient> asyncClientProvider = mock(ObjectProvider.class);
+        when(asyncClientProvider.getObject()).thenReturn(asyncHttpClient);
+        httpAdapterService = new HttpAdapterServiceImpl("http://downstream/transaction", httpClient, responseProcessor,
+                asyncClientProvider, mock(AdmissionControlService.class), registry, mock(TransactionMetricsService.class));
+        circuitBreaker = registry.circuitBreaker(TRANSACTION_CIRCUIT_BREAKER);
+    }
+
+    @Test
+    void openCircuitRejectsTheRequest() {
+        circuitBreaker.transitionToOpenState();
+
+        assertThatThrownBy(() -> httpAdapterService.acquireDownstreamPermission(RRN))
+                .isInstanceOfSatisfying(CustomException.class, e -> assertThat(e.getKind()).isEqualTo(ErrorKind.CIRCUIT_OPEN));
+    }
+
+    // A request that fails before the call (a duplicate, a database error) gives back the half-open trial slot
+    @Test
+    void releasedPermissionCanBeTakenAgain() throws CustomException {
+        halfOpen();
+        httpAdapterService.acquireDownstreamPermission(RRN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+
+        httpAdapterService.releaseDownstreamPermission();
+
+        httpAdapterService.acquireDownstreamPermission(RRN);
+    }
+
+    @Test
+    void cancelledAsyncCallReleasesItsPermission() throws CustomException {
+        halfOpen();
+        doAnswer(invocation -> {
+            invocation.<FutureCallback<?>>getArgument(1).cancelled();
+            return null;
+        }).when(asyncHttpClient).execute(any(SimpleHttpRequest.class), any());
+
+        httpAdapterService.acquireDownstreamPermission(RRN);
+        CompletableFuture<TransactionResponse> result = httpAdapterService.sendHttpTransactionRequestAsync(request(), BODY, TransactionType.CREDIT_TRANSFER);
+
+        assertThatThrownBy(result::join).isInstanceOf(CompletionException.class).hasCauseInstanceOf(CustomException.class);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        httpAdapterService.acquireDownstreamPermission(RRN);
+    }
+
+    // A client that refuses the request outright still settles the permission, as a failure
+    @Test
+    void asyncClientRefusingTheRequestCountsAsAFailure() throws CustomException {
+        halfOpen();
+        when(asyncHttpClient.execute(any(SimpleHttpRequest.class), any())).thenThrow(new IllegalStateException("I/O reactor has been shut down"));
+
+        httpAdapterService.acquireDownstreamPermission(RRN);
+        CompletableFuture<TransactionResponse> result = httpAdapterService.sendHttpTransactionRequestAsync(request(), BODY, TransactionType.CREDIT_TRANSFER);
+
+        assertThatThrownBy(result::join).hasCauseInstanceOf(CustomException.class);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    // Any downstream answer counts as a success for the breaker, so a successful trial call closes it
+    @Test
+    void answeredBlockingCallClosesTheCircuit() throws Exception {
+        halfOpen();
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        StatusLine statusLine = mock(StatusLine.class);
+        when(statusLine.getStatusCode()).thenReturn(200);
+        when(response.getStatusLine()).thenReturn(statusLine);
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(response);
+        TransactionResponse transactionResponse = new TransactionResponse();
+        when(responseProcessor.processTransactionResponse(eq(RRN), any(CloseableHttpResponse.class), eq(TransactionType.CREDIT_TRANSFER)))
+                .thenReturn(transactionResponse);
+
+        httpAdapterService.acquireDownstreamPermission(RRN);
+        assertThat(httpAdapterService.sendHttpTransactionRequest(request(), BODY, TransactionType.CREDIT_TRANSFER)).isSameAs(transactionResponse);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void halfOpen() {
+        circuitBreaker.transitionToOpenState();
+        circuitBreaker.transitionToHalfOpenState();
+    }
+
+    private static TransactionRequest request() {
+        TransactionRequest request = new TransactionRequest();
+        request.setRrn(RRN);
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.exception.CustomException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The blocking client parses the body straight from the socket, so a downstream that stops sending partway through
+// the body fails inside the processor rather than in execute(). A stalled body must still end as a timeout.
+class HttpResponseProcessorServiceImplTest {
+
+    private static final String FULL_BODY = "{\"status\":\"SUCCESS\",\"statusCode\":\"00\",\"statusDesc\":\"Approved\",\"tranId\":\"FT1\"}";
+    private static final String PARTIAL_BODY = FULL_BODY.substring(0, 20);
+    private static final int SOCKET_TIMEOUT_MS = 300;
+
+    private final HttpResponseProcessorServiceImpl processor = new HttpResponseProcessorServiceImpl(new ObjectMapper(), false, 0);
+    // Holds the stalling handler until the test is over
+    private final CountDownLatch released = new CountDownLatch(1);
+
+    private HttpServer server;
+    private CloseableHttpClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/complete", exchange -> respond(exchange, FULL_BODY, false));
+        server.createContext("/stall", exchange -> respond(exchange, PARTIAL_BODY, true));
+        server.createContext("/truncate", exchange -> respond(exchange, PARTIAL_BODY, false));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        client = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom().setSocketTimeout(SOCKET_TIMEOUT_MS).build())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        released.countDown();
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void completeBodyIsParsed() throws Exception {
+        try (CloseableHttpResponse response = post("/complete")) {
+            assertThat(processor.processTransactionResponse("TX99887766", response, TransactionType.CREDIT_TRANSFER).getStatus())
+                    .isEqualTo("SUCCESS");
+        }
+    }
+
+    @Test
+    void bodyStalledMidStreamIsATimeout() throws Exception {
+        try (CloseableHttpResponse response = post("/stall")) {
+            assertThatThrownBy(() -> processor.processTransactionResponse("TX99887766", response, TransactionType.CREDIT_TRANSFER))
+                    .isInstanceOfSatisfying(CustomException.class, e -> {
+                        assertThat(e.getKind()).isEqualTo(ErrorKind.TIMEOUT);
+                        assertThat(e.getKind().getHttpStatus()).isEqualTo(408);
+                    });
+        }
+    }
+
+    // A body cut short by the connection closing is not a timeout: the downstream went away mid-answer
+    @Test
+    void bodyCutShortIsAProcessingFailure() throws Exception {
+        try (CloseableHttpResponse response = post("/truncate")) {
+            assertThatThrownBy(() -> processor.processTransactionResponse("TX99887766", response, TransactionType.CREDIT_TRANSFER))
+                    .isInstanceOfSatisfying(CustomException.class, e -> assertThat(e.getKind()).isEqualTo(ErrorKind.PROCESSING_FAILURE));
+        }
+    }
+
+    private CloseableHttpResponse post(String path) throws IOException {
+        return client.execute(new HttpPost("http://localhost:" + server.getAddress().getPort() + path));
+    }
+
+    // Declares the full body's length but sends only the given prefix, then either stalls or closes the connection
+    private void respond(HttpExchange exchange, String sent, boolean stall) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, FULL_BODY.length());
+        OutputStream out = exchange.getResponseBody();
+        out.write(sent.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        if (stall) {
+            try {
+                released.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Closing short of the declared length drops the connection
+        exchange.close();
+    }
+}
@@ -0,0 +1,92 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.EncodedJson;
+import com.bishop.application.dto.TransactionProgress;
+import com.bishop.application.dto.TransactionRequest;
+import com.bishop.application.entity.TransactionDetails;
+import com.bishop.application.enums.DeduplicationMode;
+import com.bishop.application.enums.ErrorKind;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.exception.CustomException;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.HttpAdapterService;
+import com.bishop.application.service.RequestValidatorService;
+import com.bishop.application.service.TransactionMapperService;
+import com.bishop.application.service.TransactionMetricsService;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The circuit-breaker permission taken before the database work goes back whenever the request stops short of
+// the downstream call, and is never taken for a request that fails validation
+class RequestProcessorServiceImplTest {
+
+    private static final String RRN = "TX00000001";
+    private static final TransactionType TYPE = TransactionType.CREDIT_TRANSFER;
+
+    private final DatabaseService databaseService = mock(DatabaseService.class);
+    private final HttpAdapterService httpAdapterService = mock(HttpAdapterService.class);
+    private final TransactionMapperService transactionMapperService = mock(TransactionMapperService.class);
+    private final RequestValidatorService requestValidatorService = mock(RequestValidatorService.class);
+    private final RequestProcessorServiceImpl requestProcessorService = new RequestProcessorServiceImpl(databaseService,
+            mock(CloseableHttpClient.class), httpAdapterService, transactionMapperService, DeduplicationMode.SELECT_THEN_INSERT,
+            mock(TransactionMetricsService.class), requestValidatorService);
+
+    @Test
+    void duplicateReleasesThePermission() throws CustomException {
+        doThrow(new CustomException(ErrorKind.DUPLICATE_RECORD)).when(databaseService).checkTransactionExists(RRN, TYPE);
+
+        assertThatThrownBy(this::process).isInstanceOf(CustomException.class);
+
+        verify(httpAdapterService).acquireDownstreamPermission(RRN);
+        verify(httpAdapterService, times(1)).releaseDownstreamPermission();
+    }
+
+    @Test
+    void failedInsertReleasesThePermission() throws CustomException {
+        when(transactionMapperService.mapRequestToEntity(any(), any())).thenReturn(new TransactionDetails());
+        doThrow(new IllegalStateException("commit failed")).when(databaseService).saveInitialCreditTransferEntity(any(), any());
+
+        assertThatThrownBy(this::process).isInstanceOf(CustomException.class);
+
+        verify(httpAdapterService, times(1)).releaseDownstreamPermission();
+    }
+
+    @Test
+    void invalidRequestNeverTakesAPermission() throws CustomException {
+        when(requestValidatorService.firstViolation(any())).thenReturn("RRN is required");
+
+        assertThatThrownBy(this::process).isInstanceOf(CustomException.class);
+
+        verify(httpAdapterService, never()).acquireDownstreamPermission(any());
+        verify(httpAdapterService, never()).releaseDownstreamPermission();
+    }
+
+    // A dispatched call settles its own permission in the adapter
+    @Test
+    void dispatchedRequestKeepsThePermission() throws CustomException {
+        when(transactionMapperService.mapRequestToEntity(any(), any())).thenReturn(new TransactionDetails());
+
+        process();
+
+        verify(httpAdapterService).sendHttpTransactionRequest(any(), any(), any());
+        verify(httpAdapterService, never()).releaseDownstreamPermission();
+    }
+
+    private void process() throws CustomException {
+        TransactionRequest request = new TransactionRequest();
+        request.setRrn(RRN);
+        requestProcessorService.processTransactionRequest(RRN, request, new EncodedJson("{}".getBytes(StandardCharsets.UTF_8)),
+                TYPE, new TransactionProgress());
+    }
+}
@@ -0,0 +1,209 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.TransactionRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.metadata.ConstraintDescriptor;
+import jakarta.validation.metadata.PropertyDescriptor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The fast path of RequestValidatorServiceImpl against Hibernate Validator on the same requests. Bean Validation
+// reports violations as an unordered set, so when a request breaks several constraints the fast path must return
+// one of their messages; when it breaks exactly one, the same message; when none, nothing.
+class RequestValidatorConformanceTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+    private static RequestValidatorServiceImpl fastPath;
+
+    // Values tried for every text field: empty, blank, boundary lengths, every ASCII character and some non-ASCII ones
+    private static final List<String> TEXT_VALUES = textValues();
+
+    private static final List<BigDecimal> AMOUNTS = List.of(
+            new BigDecimal("-1"), BigDecimal.ZERO, new BigDecimal("0.00"), new BigDecimal("0.009"),
+            new BigDecimal("0.01"), new BigDecimal("0.010"), new BigDecimal("1"), new BigDecimal("1.5"),
+            new BigDecimal("1500.00"), new BigDecimal("1500.000"), new BigDecimal("1E+2"), new BigDecimal("1E+17"),
+            new BigDecimal("1E+18"), new BigDecimal("999999999999999999.99"), new BigDecimal("1000000000000000000"),
+            new BigDecimal("1.0E-3"), new BigDecimal("-0.001"));
+
+    private static final Map<String, BiConsumer<TransactionRequest, String>> TEXT_FIELDS = Map.of(
+            "rrn", TransactionRequest::setRrn,
+            "transactionType", TransactionRequest::setTransactionType,
+            "senderName", TransactionRequest::setSenderName,
+            "receiverName", TransactionRequest::setReceiverName,
+            "currency", TransactionRequest::setCurrency,
+            "channelId", TransactionRequest::setChannelId);
+
+    @BeforeAll
+    static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        fastPath = new RequestValidatorServiceImpl(validator, true);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validRequestHasNoViolation() {
+        assertConforms(validRequest());
+        assertThat(fastPath.firstViolation(validRequest())).isNull();
+    }
+
+    @Test
+    void everyTextValueOnEveryField() {
+        TEXT_FIELDS.forEach((field, setter) -> {
+            TransactionRequest nullValue = validRequest();
+            setter.accept(nullValue, null);
+            assertConforms(nullValue);
+
+            for (String value : TEXT_VALUES) {
+                TransactionRequest request = validRequest();
+                setter.accept(request, value);
+                assertConforms(request);
+            }
+        });
+    }
+
+    @Test
+    void everyAmount() {
+        TransactionRequest nullAmount = validRequest();
+        nullAmount.setAmount(null);
+        assertConforms(nullAmount);
+
+        for (BigDecimal amount : AMOUNTS) {
+            TransactionRequest request = validRequest();
+            request.setAmount(amount);
+            assertConforms(request);
+        }
+    }
+
+    // Several fields wrong at once, so the first-violation choice is exercised as well as each check
+    @Test
+    void randomCombinations() {
+        Random random = new Random(20240617L);
+        List<BiConsumer<TransactionRequest, String>> setters = new ArrayList<>(TEXT_FIELDS.values());
+        for (int i = 0; i < 20_000; i++) {
+            TransactionRequest request = validRequest();
+            for (BiConsumer<TransactionRequest, String> setter : setters) {
+                if (random.nextInt(3) == 0) {
+                    setter.accept(request, random.nextInt(20) == 0 ? null : TEXT_VALUES.get(random.nextInt(TEXT_VALUES.size())));
+                }
+            }
+            if (random.nextInt(3) == 0) {
+                request.setAmount(random.nextInt(20) == 0 ? null : AMOUNTS.get(random.nextInt(AMOUNTS.size())));
+            }
+            assertConforms(request);
+        }
+    }
+
+    // The fast path is written against these exact constraints; a change on the DTO fails here until it is updated too
+    @Test
+    void constraintsMatchTheSpecializedChecks() {
+        Set<String> declared = new TreeSet<>();
+        for (PropertyDescriptor property : validator.getConstraintsForClass(TransactionRequest.class).getConstrainedProperties()) {
+            for (ConstraintDescriptor<?> constraint : property.getConstraintDescriptors()) {
+                Map<String, Object> attributes = constraint.getAttributes();
+                String details = attributes.entrySet().stream()
+                        .filter(entry -> Set.of("min", "max", "regexp", "value", "inclusive", "integer", "fraction").contains(entry.getKey()))
+                        .map(entry -> entry.getKey() + "=" + entry.getValue())
+                        .sorted()
+                        .collect(Collectors.joining(","));
+                declared.add(property.getPropertyName() + " " + constraint.getAnnotation().annotationType().getSimpleName()
+                        + "(" + details + ") " + constraint.getMessageTemplate());
+            }
+        }
+
+        assertThat(declared).containsExactlyInAnyOrder(
+                "rrn NotBlank() RRN is required",
+                "rrn Size(max=20,min=8) RRN must be between 8 and 20 characters",
+                "rrn Pattern(regexp=^[A-Za-z0-9\\-]+$) RRN must only contain letters, numbers, and dashes",
+                "transactionType NotBlank() Transaction type is required",
+                "transactionType Pattern(regexp=^[A-Za-z_-]+$) Transaction Type must be letters and underscores only",
+                "senderName NotBlank() Sender name is required",
+                "senderName Size(max=100,min=0) Sender name must not exceed 100 characters",
+                "senderName Pattern(regexp=^[A-Za-z0-9 .'-]+$) Sender name contains invalid characters",
+                "receiverName NotBlank() Receiver name is required",
+                "receiverName Size(max=100,min=0) Receiver name must not exceed 100 characters",
+                "receiverName Pattern(regexp=^[A-Za-z0-9 .'-]+$) Receiver name contains invalid characters",
+                "amount NotNull() Amount is required",
+                "amount DecimalMin(inclusive=true,value=0.01) Amount must be greater than zero",
+                "amount Digits(fraction=2,integer=18) Amount must be a valid number with up to two decimal places",
+                "currency NotBlank() Currency is required",
+                "currency Size(max=3,min=3) Currency must be a 3-letter ISO code",
+                "currency Pattern(regexp=^[A-Z]{3}$) Currency must be uppercase 3-letter code",
+                "channelId NotBlank() Channel ID is required",
+                "channelId Size(max=20,min=0) Channel ID must not exceed 20 characters",
+                "channelId Pattern(regexp=^[A-Za-z0-9_\\-]+$) Channel ID must only contain letters, numbers, dashes, and underscores");
+    }
+
+    private static void assertConforms(TransactionRequest request) {
+        Set<String> expected = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+        String actual = fastPath.firstViolation(request);
+
+        String description = describe(request) + " -> Hibernate Validator " + expected;
+        if (expected.isEmpty()) {
+            assertThat(actual).as(description).isNull();
+        } else {
+            assertThat(expected).as(description).contains(actual);
+        }
+    }
+
+    private static TransactionRequest validRequest() {
+        TransactionRequest request = new TransactionRequest();
+        request.setRrn("TX99887766");
+        request.setTransactionType("CREDIT-TRANSFER");
+        request.setSenderName("John O'Neil Jr.");
+        request.setReceiverName("Jane Smith");
+        request.setAmount(new BigDecimal("1500.00"));
+        request.setCurrency("KES");
+        request.setChannelId("OMNI_01");
+        return request;
+    }
+
+    private static List<String> textValues() {
+        List<String> values = new ArrayList<>(List.of(
+                "", " ", "   ", "\t", "\n", " \u0000 ", "\u00a0", "\u2003",
+                "ABCDEFG", "ABCDEFGH", "ABCDEFGHIJKLMNOPQRST", "ABCDEFGHIJKLMNOPQRSTU",
+                "A".repeat(100), "A".repeat(101), "A B".repeat(34), "a-b_c d.e'f",
+                "KES", "kes", "KE", "KESH", "K1S", " KE", "KES\n", "\nKES",
+                "TX99887766", "TX-998877-66", "TX_99887766", "TX 99887766", "TX99887766\n",
+                "CREDIT_TRANSFER", "CREDIT-TRANSFER", "CREDIT TRANSFER",
+                "José María", "ＡＢＣ", "١٢٣٤٥٦٧٨",
+                "TX😀998877", "TX99887766\ud83d"));
+        // Every ASCII character, alone, inside a value of valid length, and as the only invalid character of KES
+        for (char c = 0; c < 128; c++) {
+            values.add(String.valueOf(c));
+            values.add("TX9988" + c + "7766");
+            values.add("K" + c + "S");
+        }
+        return values;
+    }
+
+    private static String describe(TransactionRequest request) {
+        return "[rrn=" + request.getRrn() + ", transactionType=" + request.getTransactionType()
+                + ", senderName=" + request.getSenderName() + ", receiverName=" + request.getReceiverName()
+                + ", amount=" + request.getAmount() + ", currency=" + request.getCurrency()
+                + ", channelId=" + request.getChannelId() + "]";
+    }
+}
@@ -0,0 +1,99 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.enums.DeduplicationMode;
+import com.bishop.application.enums.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// An inserted key is a possible duplicate for the rest of its own window and the whole next one, and is gone after
+// the second rotation. Rotations are driven directly; the scheduled interval never elapses during a test.
+class RrnFilterServiceImplTest {
+
+    private static final TransactionType TYPE = TransactionType.CREDIT_TRANSFER;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RrnFilterServiceImpl filterService;
+
+    @AfterEach
+    void tearDown() {
+        if (filterService != null) {
+            filterService.shutdown();
+        }
+    }
+
+    @Test
+    void keySurvivesOneRotationAndIsDroppedByTheSecond() {
+        filterService = readyFilter();
+        assertThat(filterService.isDefinitelyNew("TX00000001", TYPE)).isTrue();
+        filterService.recordInserted("TX00000001", TYPE);
+        assertThat(filterService.isDefinitelyNew("TX00000001", TYPE)).isFalse();
+
+        filterService.rotate();
+        assertThat(filterService.isDefinitelyNew("TX00000001", TYPE)).isFalse();
+
+        filterService.rotate();
+        assertThat(filterService.isDefinitelyNew("TX00000001", TYPE)).isTrue();
+    }
+
+    // A key inserted after a rotation goes into the new generation and is still found after the next one
+    @Test
+    void keyInsertedAfterARotationLivesIntoTheNextWindow() {
+        filterService = readyFilter();
+        filterService.rotate();
+        filterService.recordInserted("TX00000002", TYPE);
+
+        filterService.rotate();
+        assertThat(filterService.isDefinitelyNew("TX00000002", TYPE)).isFalse();
+    }
+
+    @Test
+    void lookupsAreCountedByResult() {
+        filterService = readyFilter();
+        filterService.recordInserted("TX00000001", TYPE);
+        filterService.isDefinitelyNew("TX00000001", TYPE);
+        filterService.isDefinitelyNew("TX00000002", TYPE);
+        filterService.recordFalsePositive();
+
+        assertThat(meterRegistry.counter("transaction.dedup.filter.lookups", "result", "definitely_new").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("transaction.dedup.filter.lookups", "result", "possible_duplicate").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("transaction.dedup.filter.false_positives").count()).isEqualTo(1);
+    }
+
+    // Until warm-up has loaded the existing keys a miss proves nothing; here it cannot even connect
+    @Test
+    void everyCheckGoesToTheDatabaseUnlessWarmUpCompletes() {
+        filterService = filter(true, DeduplicationMode.SELECT_THEN_INSERT);
+        filterService.onApplicationReady();
+        filterService.recordInserted("TX00000001", TYPE);
+
+        assertThat(filterService.isDefinitelyNew("TX00000002", TYPE)).isFalse();
+    }
+
+    // INSERT_FIRST has no dedup SELECT to skip, so the filter never answers
+    @Test
+    void insertFirstModeDisablesTheFilter() {
+        filterService = filter(false, DeduplicationMode.INSERT_FIRST);
+        filterService.onApplicationReady();
+
+        assertThat(filterService.isDefinitelyNew("TX00000001", TYPE)).isFalse();
+        assertThat(meterRegistry.get("transaction.dedup.filter.memory").gauge().value()).isZero();
+    }
+
+    private RrnFilterServiceImpl readyFilter() {
+        RrnFilterServiceImpl ready = filter(false, DeduplicationMode.SELECT_THEN_INSERT);
+        ready.onApplicationReady();
+        return ready;
+    }
+
+    private RrnFilterServiceImpl filter(boolean warmUp, DeduplicationMode mode) {
+        return new RrnFilterServiceImpl(true, 10_000, 0.001, Duration.ofHours(24), warmUp, mode,
+                mock(DataSource.class), meterRegistry);
+    }
+}
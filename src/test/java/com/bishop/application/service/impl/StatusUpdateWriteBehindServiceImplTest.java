@@ -0,0 +1,143 @@
+package com.bishop.application.service.impl;
+
+import com.bishop.application.dto.PendingStatusUpdate;
+import com.bishop.application.enums.TransactionStatus;
+import com.bishop.application.enums.TransactionType;
+import com.bishop.application.service.DatabaseService;
+import com.bishop.application.service.TransactionMetricsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Several updates for one transaction become a single row write, in the order transactions first arrived,
+// an update the row could no longer accept never replaces the pending one, and a failed write is retried
+// rather than lost
+class StatusUpdateWriteBehindServiceImplTest {
+
+    private final DatabaseService databaseService = mock(DatabaseService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void laterUpdateForTheSameTransactionReplacesThePendingOne() throws Exception {
+        StatusUpdateWriteBehindServiceImpl writeBehind = startedWithLongLatency();
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.TIMEOUT));
+        writeBehind.enqueue(update("TX00000002", TransactionStatus.SUCCESS));
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.SUCCESS));
+        writeBehind.stop();
+
+        assertThat(flushedBatches()).singleElement().satisfies(batch ->
+                assertThat(batch).extracting(PendingStatusUpdate::getRrn, PendingStatusUpdate::getStatus)
+                        .containsExactly(tuple("TX00000001", "SUCCESS"), tuple("TX00000002", "SUCCESS")));
+        assertThat(meterRegistry.counter("transaction.write_behind.coalesced").count()).isEqualTo(1);
+    }
+
+    // A late TIMEOUT after a SUCCESS would be rejected by the row's status guard, so the SUCCESS is written
+    @Test
+    void updateTheRowCouldNotAcceptIsDropped() throws Exception {
+        StatusUpdateWriteBehindServiceImpl writeBehind = startedWithLongLatency();
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.SUCCESS));
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.TIMEOUT));
+        writeBehind.stop();
+
+        assertThat(flushedBatches()).singleElement().satisfies(batch ->
+                assertThat(batch).extracting(PendingStatusUpdate::getStatus).containsExactly("SUCCESS"));
+        assertThat(meterRegistry.counter("transaction.write_behind.dropped").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("transaction.write_behind.coalesced").count()).isZero();
+    }
+
+    @Test
+    void batchIsRetriedAfterATransientFailure() throws Exception {
+        when(databaseService.batchUpdateTransactionStatus(anyList()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                .thenReturn(1);
+        StatusUpdateWriteBehindServiceImpl writeBehind = new StatusUpdateWriteBehindServiceImpl(true, 100, 1, 1000,
+                databaseService, mock(TransactionMetricsService.class), meterRegistry);
+        writeBehind.start();
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.SUCCESS));
+
+        verify(databaseService, timeout(5000).times(2)).batchUpdateTransactionStatus(anyList());
+        writeBehind.stop();
+        assertThat(flushedBatches()).allSatisfy(batch ->
+                assertThat(batch).extracting(PendingStatusUpdate::getRrn).containsExactly("TX00000001"));
+        assertThat(meterRegistry.counter("transaction.write_behind.failed").count()).isZero();
+    }
+
+    // Retrying the same statement cannot succeed, so each row is written on its own and only the rejected one is lost
+    @Test
+    void permanentlyRejectedBatchIsWrittenRowByRow() throws Exception {
+        when(databaseService.batchUpdateTransactionStatus(anyList()))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'response_message'"));
+        when(databaseService.updateTransactionStatus(any(PendingStatusUpdate.class)))
+                .thenThrow(new DataIntegrityViolationException("Data too long for column 'response_message'"))
+                .thenReturn(true);
+        StatusUpdateWriteBehindServiceImpl writeBehind = startedWithLongLatency();
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.SUCCESS));
+        writeBehind.enqueue(update("TX00000002", TransactionStatus.SUCCESS));
+        writeBehind.stop();
+
+        verify(databaseService, times(2)).updateTransactionStatus(any(PendingStatusUpdate.class));
+        assertThat(meterRegistry.counter("transaction.write_behind.failed").count()).isEqualTo(1);
+    }
+
+    // Once stopped there is nothing left to retry on, so a batch that still fails is counted as lost
+    @Test
+    void batchStillFailingAtShutdownIsCountedAsFailed() throws Exception {
+        when(databaseService.batchUpdateTransactionStatus(anyList()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"));
+        StatusUpdateWriteBehindServiceImpl writeBehind = startedWithLongLatency();
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.SUCCESS));
+        writeBehind.enqueue(update("TX00000002", TransactionStatus.SUCCESS));
+        writeBehind.stop();
+
+        assertThat(meterRegistry.counter("transaction.write_behind.failed").count()).isEqualTo(2);
+    }
+
+    // With the buffer full the caller writes the oldest batch itself rather than dropping updates
+    @Test
+    void fullBufferIsFlushedOnTheCallerThread() {
+        StatusUpdateWriteBehindServiceImpl writeBehind = new StatusUpdateWriteBehindServiceImpl(true, 2, 60_000, 2,
+                databaseService, mock(TransactionMetricsService.class), meterRegistry);
+        writeBehind.enqueue(update("TX00000001", TransactionStatus.SUCCESS));
+        writeBehind.enqueue(update("TX00000002", TransactionStatus.SUCCESS));
+        writeBehind.enqueue(update("TX00000003", TransactionStatus.SUCCESS));
+
+        assertThat(flushedBatches()).singleElement().satisfies(batch ->
+                assertThat(batch).extracting(PendingStatusUpdate::getRrn).containsExactly("TX00000001", "TX00000002"));
+    }
+
+    // Nothing is flushed by the deadline during the test; stop() writes whatever is pending
+    private StatusUpdateWriteBehindServiceImpl startedWithLongLatency() {
+        StatusUpdateWriteBehindServiceImpl writeBehind = new StatusUpdateWriteBehindServiceImpl(true, 100, 60_000, 1000,
+                databaseService, mock(TransactionMetricsService.class), meterRegistry);
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<PendingStatusUpdate>> flushedBatches() {
+        ArgumentCaptor<List<PendingStatusUpdate>> batches = ArgumentCaptor.forClass(List.class);
+        verify(databaseService, atLeastOnce()).batchUpdateTransactionStatus(batches.capture());
+        return batches.getAllValues();
+    }
+
+    private static PendingStatusUpdate update(String rrn, TransactionStatus status) {
+        return new PendingStatusUpdate(rrn, TransactionType.CREDIT_TRANSFER, status.name(), status.getCode(),
+                status.getDescription(), null, LocalDateTime.now(), System.nanoTime());
+    }
+}
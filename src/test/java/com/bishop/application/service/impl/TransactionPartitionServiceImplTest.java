@@ -0,0 +1,261 @@
+package com.bishop.application.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The startup conversion only touches an empty table and drops every unique key that would block partitioning, after
+// the dedup window's keys are copied over; maintenance splits the coming days off the catch-all and drops an expired
+// partition only after its archive holds every row
+class TransactionPartitionServiceImplTest {
+
+    private static final String TABLE = "transaction_details";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final int RETENTION_DAYS = 30;
+    private static final int DEDUP_WINDOW_DAYS = 7;
+    private static final String LEGACY_RRN_KEY = "UK_9x7wq1ufg6yk2pnc0jtbp6ms";
+
+    @TempDir
+    Path archiveDirectory;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final DataSource streamingDataSource = mock(DataSource.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final LocalDate today = LocalDate.now();
+    private TransactionPartitionServiceImpl partitionService;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // The named lock is always granted
+        Connection lockConnection = mock(Connection.class);
+        PreparedStatement lockStatement = mock(PreparedStatement.class);
+        ResultSet lockResult = mock(ResultSet.class);
+        when(lockConnection.prepareStatement(anyString())).thenReturn(lockStatement);
+        when(lockStatement.executeQuery()).thenReturn(lockResult);
+        when(lockResult.next()).thenReturn(true);
+        when(lockResult.getInt(1)).thenReturn(1);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(lockConnection));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        partitionService = new TransactionPartitionServiceImpl(true, 3, RETENTION_DAYS, Duration.ofHours(1),
+                archiveDirectory.toString(), Duration.ofDays(DEDUP_WINDOW_DAYS), jdbcTemplate, streamingDataSource,
+                transactionTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        partitionService.shutdown();
+    }
+
+    @Test
+    void emptyTableIsConvertedWithTheIndexesItActuallyHas() {
+        partitions();
+        indexes(List.of("PRIMARY", "uk_rrn_transaction_type"), List.of("uk_rrn_transaction_type"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT 1 FROM"))).thenReturn(List.of());
+
+        partitionService.prepareSchema();
+
+        String conversion = executed().stream().filter(sql -> sql.contains("PARTITION BY")).findFirst().orElseThrow();
+        assertThat(conversion)
+                .contains("DROP INDEX `uk_rrn_transaction_type`")
+                .doesNotContain("DROP INDEX idx_transaction_type")
+                .contains("ADD INDEX idx_rrn_transaction_type_created_at")
+                .contains("PARTITION " + partition(today) + " VALUES LESS THAN ('" + today.plusDays(1) + " 00:00:00')")
+                .contains("PARTITION " + partition(today.plusDays(3)))
+                .doesNotContain(partition(today.plusDays(4)))
+                .endsWith("PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    // A database V3 has not reached still has Hibernate's key on rrn alone; MySQL refuses to partition while any
+    // unique key lacks created_at
+    @Test
+    void legacyRrnOnlyKeyIsDroppedByTheConversion() {
+        partitions();
+        indexes(List.of("PRIMARY", LEGACY_RRN_KEY, "idx_transaction_type"), List.of(LEGACY_RRN_KEY));
+        when(jdbcTemplate.queryForList(startsWith("SELECT 1 FROM"))).thenReturn(List.of());
+
+        partitionService.prepareSchema();
+
+        assertThat(executed()).filteredOn(sql -> sql.contains("PARTITION BY")).singleElement().asString()
+                .contains("DROP INDEX `" + LEGACY_RRN_KEY + "`")
+                .contains("DROP INDEX idx_transaction_type");
+    }
+
+    // Rebuilding a populated table would block writes, so it is left alone and maintenance stays off
+    @Test
+    void populatedTableIsNotConverted() {
+        partitions();
+        when(jdbcTemplate.queryForList(startsWith("SELECT 1 FROM"))).thenReturn(List.of(Map.of("1", 1)));
+
+        partitionService.prepareSchema();
+        partitionService.runMaintenance();
+
+        assertThat(executed()).noneMatch(sql -> sql.startsWith("ALTER TABLE"));
+        verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+    }
+
+    // Inserts claim dedup keys only once partitioning is on, so rows created earlier in the window are copied before
+    // the conversion removes the unique key, one day per transaction, with no gap between the days
+    @Test
+    void dedupKeysOfTheWindowAreBackfilledBeforeTheConversion() {
+        partitions();
+        when(jdbcTemplate.queryForList(startsWith("SELECT 1 FROM"))).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        partitionService.prepareSchema();
+
+        ArgumentCaptor<Timestamp> bounds = ArgumentCaptor.forClass(Timestamp.class);
+        InOrder inOrder = inOrder(transactionTemplate, jdbcTemplate);
+        inOrder.verify(transactionTemplate, times(DEDUP_WINDOW_DAYS)).execute(any());
+        inOrder.verify(jdbcTemplate).execute(contains("PARTITION BY"));
+        verify(jdbcTemplate, times(DEDUP_WINDOW_DAYS)).update(startsWith("INSERT IGNORE INTO transaction_dedup_keys"),
+                bounds.capture(), bounds.capture());
+
+        List<LocalDateTime> chunks = bounds.getAllValues().stream().map(Timestamp::toLocalDateTime).toList();
+        assertThat(chunks.get(0)).isBetween(before.minusDays(DEDUP_WINDOW_DAYS), LocalDateTime.now().minusDays(DEDUP_WINDOW_DAYS));
+        for (int i = 1; i < chunks.size() - 1; i += 2) {
+            assertThat(chunks.get(i + 1)).isEqualTo(chunks.get(i));
+        }
+        assertThat(chunks.get(chunks.size() - 1)).isBetween(before, LocalDateTime.now());
+    }
+
+    @Test
+    void maintenanceAddsComingDaysAndArchivesExpiredPartitions() throws Exception {
+        LocalDate expired = today.minusDays(RETENTION_DAYS + 1);
+        LocalDate retained = today.minusDays(RETENTION_DAYS);
+        partitions(partition(expired), partition(retained), partition(today), "p_future");
+        rows("TX00000001", "TX00000002");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(2L);
+
+        partitionService.prepareSchema();
+        partitionService.runMaintenance();
+
+        assertThat(executed())
+                .anyMatch(sql -> sql.startsWith("ALTER TABLE " + TABLE + " REORGANIZE PARTITION p_future INTO (PARTITION "
+                        + partition(today.plusDays(1)) + " ") && sql.contains(partition(today.plusDays(3)))
+                        && !sql.contains(partition(today.plusDays(4))))
+                .contains("ALTER TABLE " + TABLE + " DROP PARTITION " + partition(expired))
+                .doesNotContain("ALTER TABLE " + TABLE + " DROP PARTITION " + partition(retained));
+
+        Path archive = archiveDirectory.resolve(TABLE + "_" + partition(expired) + ".ndjson.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(
+                    "{\"rrn\":\"TX00000001\",\"response_code\":null}\n{\"rrn\":\"TX00000002\",\"response_code\":null}\n");
+        }
+    }
+
+    // A row that arrives while the archive is written is not in it, so the partition must survive until the next run
+    @Test
+    void partitionThatChangedDuringArchivalIsKept() throws Exception {
+        LocalDate expired = today.minusDays(RETENTION_DAYS + 1);
+        partitions(partition(expired), partition(today), "p_future");
+        rows("TX00000001");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(2L);
+
+        partitionService.prepareSchema();
+        partitionService.runMaintenance();
+
+        verify(jdbcTemplate, never()).execute(contains("DROP PARTITION"));
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    // Dedup lookups only search the window, so it may not reach past what the partitions retain
+    @Test
+    void dedupWindowLongerThanRetentionIsRejected() {
+        assertThatThrownBy(() -> new TransactionPartitionServiceImpl(true, 3, 7, Duration.ofHours(1),
+                archiveDirectory.toString(), Duration.ofDays(8), jdbcTemplate, streamingDataSource,
+                mock(TransactionTemplate.class), new ObjectMapper(), new SimpleMeterRegistry()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void indexes(List<String> all, List<String> unique) {
+        when(jdbcTemplate.queryForList(contains("INFORMATION_SCHEMA.STATISTICS"), eq(String.class), eq(TABLE))).thenReturn(all);
+        when(jdbcTemplate.queryForList(contains("NON_UNIQUE = 0"), eq(String.class), eq(TABLE))).thenReturn(unique);
+    }
+
+    private void partitions(String... names) {
+        when(jdbcTemplate.queryForList(contains("INFORMATION_SCHEMA.PARTITIONS"), eq(String.class), eq(TABLE)))
+                .thenReturn(List.of(names));
+    }
+
+    // Every partition read through the streaming connection returns these rows, with a NULL second column
+    private void rows(String... rrns) throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(streamingDataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> resultSet(rrns));
+    }
+
+    private static ResultSet resultSet(String... rrns) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(2);
+        when(metaData.getColumnLabel(1)).thenReturn("rrn");
+        when(metaData.getColumnLabel(2)).thenReturn("response_code");
+        int[] row = {0};
+        when(resultSet.next()).thenAnswer(invocation -> ++row[0] <= rrns.length);
+        when(resultSet.getString(1)).thenAnswer(invocation -> rrns[row[0] - 1]);
+        return resultSet;
+    }
+
+    private List<String> executed() {
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        return statements.getAllValues();
+    }
+
+    private static String partition(LocalDate day) {
+        return PARTITION_NAME.format(day);
+    }
+}
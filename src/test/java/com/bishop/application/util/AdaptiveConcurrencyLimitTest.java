@@ -0,0 +1,100 @@
+package com.bishop.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Windows close after every sample (window 0 ms, one sample minimum), so each onSample moves the limit once
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long BASELINE_RTT = TimeUnit.MILLISECONDS.toNanos(40);
+
+    @Test
+    void admitsUpToTheLimitAndNoFurther() {
+        AdaptiveConcurrencyLimit limiter = limiter(3, 1, 10);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(3);
+    }
+
+    @Test
+    void limitGrowsToTheMaximumWhileLatencyHoldsAtBaseline() {
+        AdaptiveConcurrencyLimit limiter = limiter(20, 4, 200);
+        for (int i = 0; i < 500; i++) {
+            saturate(limiter);
+            limiter.onSample(BASELINE_RTT, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(200);
+    }
+
+    @Test
+    void limitShrinksWhenLatencyRisesAboveTolerance() {
+        AdaptiveConcurrencyLimit limiter = limiter(100, 4, 200);
+        saturate(limiter);
+        limiter.onSample(BASELINE_RTT, false);
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            saturate(limiter);
+            limiter.onSample(BASELINE_RTT * 4, false);
+        }
+        assertThat(limiter.getLimit()).isLessThan(before / 2);
+    }
+
+    @Test
+    void timeoutCutsTheLimitByTheBackoffRatio() {
+        AdaptiveConcurrencyLimit limiter = limiter(100, 4, 200);
+        saturate(limiter);
+        limiter.onSample(BASELINE_RTT, true);
+
+        // Smoothed: one fifth of the way from 100 to 100 * 0.9
+        assertThat(limiter.getLimit()).isEqualTo(98);
+    }
+
+    // Latency measured while the limit was not the constraint says nothing about a larger limit
+    @Test
+    void limitStaysPutWhileMostOfItIsUnused() {
+        AdaptiveConcurrencyLimit limiter = limiter(100, 4, 200);
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(BASELINE_RTT, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void limitNeverFallsBelowTheMinimum() {
+        AdaptiveConcurrencyLimit limiter = limiter(10, 4, 200);
+        for (int i = 0; i < 200; i++) {
+            saturate(limiter);
+            limiter.onSample(BASELINE_RTT, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsInconsistentSettings() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(10, 0, 10, 1.5, 0.9, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(10, 20, 10, 1.5, 0.9, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(10, 1, 10, 0.5, 0.9, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimit(10, 1, 10, 1.5, 1.0, 0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static AdaptiveConcurrencyLimit limiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, 1.5, 0.9, 0, 1);
+    }
+
+    // Take every free slot, so the window sees the limit as the constraint
+    private static void saturate(AdaptiveConcurrencyLimit limiter) {
+        while (limiter.tryAcquire()) {
+            // keep acquiring
+        }
+    }
+}
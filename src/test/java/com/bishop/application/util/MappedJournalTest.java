@@ -0,0 +1,154 @@
+package com.bishop.application.util;
+
+import com.bishop.application.enums.JournalFsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Records must survive a restart from the checkpoint onwards, and a torn or corrupted tail must end recovery
+// at the last intact record instead of replaying garbage
+class MappedJournalTest {
+
+    // Room for three 15-byte payloads (8-byte header each) per segment
+    private static final int SEGMENT_SIZE = 72;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recordsAreReadBackInOrderAcrossSegments() throws IOException {
+        try (MappedJournal journal = open()) {
+            for (int i = 0; i < 7; i++) {
+                journal.append(payload(i));
+            }
+            assertThat(journal.getSegmentCount()).isEqualTo(3);
+
+            List<byte[]> out = new ArrayList<>();
+            MappedJournal.Position end = journal.read(journal.getCheckpoint(), 100, out);
+            assertThat(out).extracting(MappedJournalTest::text).containsExactly(texts(0, 7));
+            assertThat(end).isEqualTo(new MappedJournal.Position(2, 23));
+        }
+    }
+
+    @Test
+    void reopenReplaysOnlyRecordsAfterTheCheckpoint() throws IOException {
+        try (MappedJournal journal = open()) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(payload(i));
+            }
+            List<byte[]> applied = new ArrayList<>();
+            MappedJournal.Position position = journal.read(journal.getCheckpoint(), 4, applied);
+            journal.checkpoint(position, applied.size());
+            assertThat(journal.getPendingRecords()).isEqualTo(1);
+        }
+
+        try (MappedJournal journal = open()) {
+            assertThat(journal.getPendingRecords()).isEqualTo(1);
+            List<byte[]> out = new ArrayList<>();
+            journal.read(journal.getCheckpoint(), 100, out);
+            assertThat(out).extracting(MappedJournalTest::text).containsExactly(texts(4, 5));
+        }
+    }
+
+    @Test
+    void checkpointDeletesSegmentsWhollyBeforeIt() throws IOException {
+        try (MappedJournal journal = open()) {
+            for (int i = 0; i < 7; i++) {
+                journal.append(payload(i));
+            }
+            List<byte[]> applied = new ArrayList<>();
+            MappedJournal.Position position = journal.read(journal.getCheckpoint(), 100, applied);
+            journal.checkpoint(position, applied.size());
+
+            assertThat(journal.getPendingRecords()).isZero();
+            assertThat(journal.getSegmentCount()).isEqualTo(1);
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    // A record whose payload no longer matches its checksum is a torn write: it and everything after it are dropped
+    @Test
+    void recoveryStopsAtARecordWithABadChecksum() throws IOException {
+        try (MappedJournal journal = open()) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(payload(i));
+            }
+        }
+        // Flip a payload byte of the second record
+        overwrite(segmentFiles().get(0), 23 + 8, new byte[]{'X'});
+
+        try (MappedJournal journal = open()) {
+            assertThat(journal.getPendingRecords()).isEqualTo(1);
+
+            // Appends resume after the last intact record and are readable after another restart
+            journal.append(payload(9));
+        }
+        try (MappedJournal journal = open()) {
+            List<byte[]> out = new ArrayList<>();
+            journal.read(journal.getCheckpoint(), 100, out);
+            assertThat(out).extracting(MappedJournalTest::text).containsExactly("record-00000000", "record-00000009");
+        }
+    }
+
+    // A damaged checkpoint file is ignored and the journal replays from the oldest segment
+    @Test
+    void damagedCheckpointReplaysFromTheOldestSegment() throws IOException {
+        try (MappedJournal journal = open()) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(payload(i));
+            }
+            List<byte[]> applied = new ArrayList<>();
+            journal.checkpoint(journal.read(journal.getCheckpoint(), 2, applied), applied.size());
+        }
+        overwrite(directory.resolve("checkpoint"), 0, new byte[]{1, 2, 3});
+
+        try (MappedJournal journal = open()) {
+            assertThat(journal.getCheckpoint()).isEqualTo(new MappedJournal.Position(0, 0));
+            assertThat(journal.getPendingRecords()).isEqualTo(3);
+        }
+    }
+
+    private MappedJournal open() throws IOException {
+        return MappedJournal.open(directory, SEGMENT_SIZE, JournalFsyncPolicy.NONE);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+
+    private static void overwrite(Path file, long offset, byte[] bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(bytes), offset);
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return String.format("record-%08d", i).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static String text(byte[] payload) {
+        return new String(payload, StandardCharsets.US_ASCII);
+    }
+
+    private static String[] texts(int from, int to) {
+        String[] texts = new String[to - from];
+        for (int i = from; i < to; i++) {
+            texts[i - from] = text(payload(i));
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,87 @@
+package com.bishop.application.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A key that was put is always found, even when many threads set bits in the same words at once, and a filter
+// filled to its expected insertions answers "maybe" for unseen keys at about the configured rate
+class OffHeapBloomFilterTest {
+
+    private static final String TYPE = "CREDIT_TRANSFER";
+
+    @Test
+    void concurrentInsertsLeaveNoFalseNegatives() throws Exception {
+        int threads = 8;
+        int keysPerThread = 50_000;
+        OffHeapBloomFilter filter = OffHeapBloomFilter.create((long) threads * keysPerThread, 0.01);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> inserts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int first = t * keysPerThread;
+                inserts.add(executor.submit(() -> {
+                    for (int i = first; i < first + keysPerThread; i++) {
+                        filter.put(OffHeapBloomFilter.hash(rrn(i), TYPE));
+                    }
+                }));
+            }
+            for (Future<?> insert : inserts) {
+                insert.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < threads * keysPerThread; i++) {
+            assertThat(filter.mightContain(OffHeapBloomFilter.hash(rrn(i), TYPE))).as(rrn(i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTargetAtExpectedInsertions() {
+        int expectedInsertions = 200_000;
+        double target = 0.01;
+        OffHeapBloomFilter filter = OffHeapBloomFilter.create(expectedInsertions, target);
+        for (int i = 0; i < expectedInsertions; i++) {
+            filter.put(OffHeapBloomFilter.hash(rrn(i), TYPE));
+        }
+
+        int probes = 200_000;
+        int falsePositives = 0;
+        for (int i = expectedInsertions; i < expectedInsertions + probes; i++) {
+            if (filter.mightContain(OffHeapBloomFilter.hash(rrn(i), TYPE))) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isBetween(target * 0.5, target * 1.5);
+    }
+
+    // The same RRN under another transaction type is a different key
+    @Test
+    void transactionTypeIsPartOfTheKey() {
+        OffHeapBloomFilter filter = OffHeapBloomFilter.create(1000, 0.001);
+        filter.put(OffHeapBloomFilter.hash("TX00000001", TYPE));
+
+        assertThat(filter.mightContain(OffHeapBloomFilter.hash("TX00000001", TYPE))).isTrue();
+        assertThat(filter.mightContain(OffHeapBloomFilter.hash("TX00000001", "REVERSAL"))).isFalse();
+    }
+
+    @Test
+    void rejectsSizingThatCannotBeMet() {
+        assertThatThrownBy(() -> OffHeapBloomFilter.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OffHeapBloomFilter.create(1000, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String rrn(int i) {
+        return String.format("TX%08d", i);
+    }
+}
@@ -0,0 +1,160 @@
+package com.bishop.application.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Reads go to the replica only while its last lag check passed; a lagging, stopped or unreachable replica sends
+// them to the primary. Each test lets one check pass first, so the fallback is an observed transition.
+class ReplicaFallbackDataSourceTest {
+
+    private static final String LAG_QUERY = "SHOW REPLICA STATUS";
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+    private static final long MAX_LAG_SECONDS = 5;
+
+    private final DataSource replica = mock(DataSource.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final ResultSet resultSet = mock(ResultSet.class);
+    private ReplicaFallbackDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Test
+    void caughtUpReplicaServesReads() throws SQLException {
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(2L);
+        start(60_000);
+        await(() -> dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+        assertThat(dataSource.getLagSeconds()).isEqualTo(2);
+        assertThat(dataSource.getReplicaReads()).isEqualTo(1);
+    }
+
+    @Test
+    void lagAboveTheThresholdFallsBackToThePrimary() throws SQLException {
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(0L, 100L);
+        start(10);
+        await(() -> dataSource.isReplicaUsable());
+        await(() -> !dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getLagSeconds()).isEqualTo(100);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.getFallbackReads()).isEqualTo(1);
+    }
+
+    // A NULL lag means the replication threads have stopped, however small the last reported lag was
+    @Test
+    void nullLagFallsBackToThePrimary() throws SQLException {
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(0L);
+        when(resultSet.wasNull()).thenReturn(false, true);
+        start(10);
+        await(() -> dataSource.isReplicaUsable());
+        await(() -> !dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getLagSeconds()).isEqualTo(-1);
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void failedCheckFallsBackToThePrimary() throws SQLException {
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(0L);
+        when(statement.executeQuery(LAG_QUERY)).thenReturn(resultSet).thenThrow(new SQLException("Access denied"));
+        start(10);
+        await(() -> dataSource.isReplicaUsable());
+        await(() -> !dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    // A server that is not replicating returns no status row, which counts as no lag
+    @Test
+    void noStatusRowCountsAsZeroLag() throws SQLException {
+        when(resultSet.next()).thenReturn(false);
+        start(60_000);
+        await(() -> dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getLagSeconds()).isZero();
+    }
+
+    // The read that finds the replica down is served by the primary, and later reads skip the replica until the
+    // next check passes
+    @Test
+    void replicaConnectionFailureFallsBackOnTheSameRead() throws SQLException {
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(0L);
+        when(replica.getConnection()).thenReturn(replicaConnection).thenThrow(new SQLException("Connection refused"));
+        start(60_000);
+        await(() -> dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.isReplicaUsable()).isFalse();
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(dataSource.getReplicaReads()).isZero();
+        assertThat(dataSource.getFallbackReads()).isEqualTo(2);
+    }
+
+    // Explicit credentials take the same route and are passed through to whichever pool serves the read
+    @Test
+    void explicitCredentialsFollowTheSameRouting() throws SQLException {
+        Connection replicaUserConnection = mock(Connection.class);
+        Connection primaryUserConnection = mock(Connection.class);
+        when(replica.getConnection("reporting", "secret"))
+                .thenReturn(replicaUserConnection)
+                .thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection("reporting", "secret")).thenReturn(primaryUserConnection);
+        when(resultSet.getLong(LAG_COLUMN)).thenReturn(0L);
+        start(60_000);
+        await(() -> dataSource.isReplicaUsable());
+
+        assertThat(dataSource.getConnection("reporting", "secret")).isSameAs(replicaUserConnection);
+        assertThat(dataSource.getConnection("reporting", "secret")).isSameAs(primaryUserConnection);
+        assertThat(dataSource.isReplicaUsable()).isFalse();
+        assertThat(dataSource.getReplicaReads()).isEqualTo(1);
+        assertThat(dataSource.getFallbackReads()).isEqualTo(1);
+    }
+
+    private void start(long checkIntervalMillis) {
+        dataSource = new ReplicaFallbackDataSource(replica, primary, LAG_QUERY, LAG_COLUMN, MAX_LAG_SECONDS, checkIntervalMillis);
+    }
+
+    // The monitor runs on its own thread; wait for the state it publishes
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Replica state did not change within 5 seconds");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+}
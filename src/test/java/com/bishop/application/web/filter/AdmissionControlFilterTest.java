@@ -0,0 +1,91 @@
+package com.bishop.application.web.filter;
+
+import com.bishop.application.service.AdmissionControlService;
+import com.bishop.application.service.impl.JsonCodecServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// A shed request never reaches the controller, and an admitted one gives its slot back exactly once, whether it
+// completes on the servlet thread or through an async dispatch
+class AdmissionControlFilterTest {
+
+    private final AdmissionControlService admissionControlService = mock(AdmissionControlService.class);
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(admissionControlService, new JsonCodecServiceImpl(new ObjectMapper()));
+
+    @Test
+    void requestBeyondTheLimitIsRejectedWithRetryAfter() throws Exception {
+        when(admissionControlService.tryAcquire()).thenReturn(false);
+        when(admissionControlService.getRetryAfterSeconds()).thenReturn(1);
+        FilterChain chain = mock(FilterChain.class);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/transaction"), response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(response.getContentAsString()).contains("\"status\"");
+        verify(chain, never()).doFilter(any(), any());
+        verify(admissionControlService, never()).release();
+    }
+
+    @Test
+    void synchronousRequestReleasesItsSlotOnReturn() throws Exception {
+        when(admissionControlService.tryAcquire()).thenReturn(true);
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/transaction"), new MockHttpServletResponse(), (req, res) -> {
+        });
+
+        verify(admissionControlService, times(1)).release();
+    }
+
+    @Test
+    void synchronousRequestReleasesItsSlotWhenTheChainThrows() {
+        when(admissionControlService.tryAcquire()).thenReturn(true);
+
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/transaction"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    throw new IOException("broken pipe");
+                })).isInstanceOf(IOException.class);
+
+        verify(admissionControlService, times(1)).release();
+    }
+
+    // The slot is held while the downstream call is in flight and released once, even if completion is reported twice
+    @Test
+    void asyncRequestReleasesItsSlotOnceWhenTheAsyncCycleCompletes() throws Exception {
+        when(admissionControlService.tryAcquire()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/transaction");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+        verify(admissionControlService, never()).release();
+
+        AsyncContext asyncContext = request.getAsyncContext();
+        AsyncEvent event = new AsyncEvent(asyncContext, request, response);
+        for (AsyncListener listener : ((MockAsyncContext) asyncContext).getListeners()) {
+            listener.onTimeout(event);
+            listener.onComplete(event);
+            listener.onComplete(event);
+        }
+        verify(admissionControlService, times(1)).release();
+    }
+}